@@ -0,0 +1,98 @@
+package com.koszczi.calendar.application.event;
+
+import com.koszczi.calendar.CalendarApplication;
+import com.koszczi.calendar.application.event.dto.DateRange;
+import com.koszczi.calendar.application.event.dto.EventDto;
+import com.koszczi.calendar.application.event.dto.FreeSlot;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static java.time.temporal.ChronoUnit.DAYS;
+
+/**
+ * Common free windows of a month for a group of calendars on H2: one masks query intersected on the server against a
+ * free slot search per attendee intersected the way a client would do it, up
+ * to the slot masks (the windows are not rebuilt from them).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AvailabilityBenchmark {
+
+  private static final DateRange MONTH = new DateRange(LocalDate.of(2024, 6, 1), LocalDate.of(2024, 6, 30));
+  private static final int EVENTS_PER_DAY = 3;
+  private static final int MIN_DURATION = 60;
+
+  @Param({"10", "50"})
+  private int attendees;
+
+  private ConfigurableApplicationContext context;
+  private EventService eventService;
+  private List<String> calendarIds;
+
+  @Setup
+  public void setUp() {
+    context = new SpringApplicationBuilder(CalendarApplication.class)
+        .web(WebApplicationType.NONE)
+        .properties("logging.level.root=WARN")
+        .run();
+    eventService = context.getBean(EventService.class);
+    calendarIds = new ArrayList<>();
+    Random random = new Random(42);
+    for (int attendee = 0; attendee < attendees; attendee++) {
+      String calendarId = "attendee-" + attendee;
+      calendarIds.add(calendarId);
+      List<EventDto> events = new ArrayList<>();
+      for (LocalDate day = MONTH.from(); !day.isAfter(MONTH.to()); day = day.plusDays(1)) {
+        if (day.getDayOfWeek().compareTo(DayOfWeek.FRIDAY) > 0) continue;
+        // one hour events in random, distinct two hour blocks of the day
+        for (int block : random.ints(0, 4).distinct().limit(EVENTS_PER_DAY).toArray()) {
+          LocalDateTime start = day.atTime(9 + 2 * block, 0);
+          events.add(new EventDto(start, start.plusHours(1), "benchmark", calendarId));
+        }
+      }
+      eventService.createEvents(events);
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public List<FreeSlot> commonFreeSlots() {
+    return eventService.findCommonFreeSlots(calendarIds, MONTH, MIN_DURATION).toList();
+  }
+
+  @Benchmark
+  public long[] freeSlotsPerAttendee() {
+    long[] commonFree = new long[(int) MONTH.from().until(MONTH.to(), DAYS) + 1];
+    Arrays.fill(commonFree, -1L);
+    for (String calendarId : calendarIds) {
+      long[] free = new long[commonFree.length];
+      eventService.findFreeSlots(calendarId, MONTH, DayOccupancy.SLOT_MINUTES).forEach(slot -> {
+        free[(int) MONTH.from().until(slot.date(), DAYS)] |= DayOccupancy.rangeMask(slotOf(slot.start()), slotOf(slot.end()));
+      });
+      for (int i = 0; i < commonFree.length; i++) commonFree[i] &= free[i];
+    }
+    return commonFree;
+  }
+
+  private static int slotOf(LocalTime time) {
+    return (int) (Duration.between(DayOccupancy.DAY_START, time).toMinutes() / DayOccupancy.SLOT_MINUTES);
+  }
+}
@@ -0,0 +1,50 @@
+package com.koszczi.calendar.application.event;
+
+import com.koszczi.calendar.model.event.Event;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmark fixtures: evenly spread half-hour events in random order, at most one per slot of the day.
+ */
+final class BenchmarkEvents {
+
+  static final LocalDate MONDAY = LocalDate.of(2023, 10, 9);
+  static final String ORGANIZER = "benchmark";
+
+  private BenchmarkEvents() { }
+
+  static List<Event> dailyEvents(LocalDate day, int eventsPerDay) {
+    List<Event> events = new ArrayList<>();
+    if (eventsPerDay == 0) return events;
+    int slotsPerEvent = DayOccupancy.SLOTS_PER_DAY / eventsPerDay;
+    for (int i = 0; i < eventsPerDay; i++) {
+      LocalTime start = DayOccupancy.timeOf(i * slotsPerEvent);
+      events.add(new Event(LocalDateTime.of(day, start), LocalDateTime.of(day, start.plusMinutes(DayOccupancy.SLOT_MINUTES)), ORGANIZER));
+    }
+    Collections.shuffle(events, new Random(42));
+    return events;
+  }
+
+  static List<Event> weeklyEvents(LocalDate monday, int eventsPerDay) {
+    List<Event> events = new ArrayList<>();
+    for (int day = 0; day < 5; day++) events.addAll(dailyEvents(monday.plusDays(day), eventsPerDay));
+    return events;
+  }
+
+  /**
+   * Occupancies of the week indexed by {@code DayOfWeek.ordinal()}, the weekend left free.
+   */
+  static DayOccupancy[] weeklyOccupancies(LocalDate monday, int eventsPerDay) {
+    DayOccupancy[] occupancies = new DayOccupancy[7];
+    for (int day = 0; day < occupancies.length; day++)
+      occupancies[day] = day < 5 ? DayOccupancy.of(dailyEvents(monday.plusDays(day), eventsPerDay)) : new DayOccupancy();
+    return occupancies;
+  }
+}
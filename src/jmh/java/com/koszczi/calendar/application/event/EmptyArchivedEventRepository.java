@@ -0,0 +1,69 @@
+package com.koszczi.calendar.application.event;
+
+import com.koszczi.calendar.model.event.ArchivedEvent;
+import com.koszczi.calendar.model.event.ArchivedEventRepository;
+import com.koszczi.calendar.model.event.EventSlot;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Stand-in for the archive of a store that never archived, the benchmarks only touch upcoming weeks.
+ */
+class EmptyArchivedEventRepository implements ArchivedEventRepository {
+
+  @Override
+  public Collection<EventSlot> findSlotsByCalendarIdAndDate(String calendarId, LocalDate date) {
+    return List.of();
+  }
+
+  @Override
+  public Collection<EventSlot> findSlotsByCalendarIdAndDateIn(String calendarId, Collection<LocalDate> dates) {
+    return List.of();
+  }
+
+  @Override
+  public Collection<EventSlot> findSlotsByCalendarIdAndDateBetweenAndStartBeforeAndEndAfter(String calendarId, LocalDate from, LocalDate to,
+                                                                                             LocalTime startsBefore, LocalTime endsAfter) {
+    return List.of();
+  }
+
+  @Override
+  public Stream<ArchivedEvent> streamAllByCalendarIdAndDateBetweenOrderByDateAscStartAsc(String calendarId, LocalDate from, LocalDate to) {
+    return Stream.empty();
+  }
+
+  @Override
+  public Stream<EventSlot> streamSlotsByCalendarIdAndDateBetweenOrderByDateAscStartAsc(String calendarId, LocalDate from, LocalDate to) {
+    return Stream.empty();
+  }
+
+  @Override
+  public Optional<LocalDate> findLastDate() {
+    return Optional.empty();
+  }
+
+  @Override
+  public Optional<LocalDate> findFirstDate(String calendarId) {
+    return Optional.empty();
+  }
+
+  @Override
+  public Optional<LocalDate> findLastDate(String calendarId) {
+    return Optional.empty();
+  }
+
+  @Override
+  public int copyEventsBetween(LocalDate from, LocalDate before) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public int deleteArchivedEventsBetween(LocalDate from, LocalDate before) {
+    throw new UnsupportedOperationException();
+  }
+}
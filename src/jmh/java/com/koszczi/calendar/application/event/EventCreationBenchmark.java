@@ -0,0 +1,74 @@
+package com.koszczi.calendar.application.event;
+
+import com.koszczi.calendar.application.event.archive.EventArchive;
+import com.koszczi.calendar.application.event.dto.EventCreationResult;
+import com.koszczi.calendar.application.event.dto.EventDto;
+import com.koszczi.calendar.application.event.index.EventIndex;
+import com.koszczi.calendar.application.event.locking.DateLocks;
+import com.koszczi.calendar.application.event.projection.OccupancyProjector;
+import com.koszczi.calendar.application.event.subscription.ScheduleChangeFeed;
+import com.koszczi.calendar.application.event.validation.CalendarRules;
+import com.koszczi.calendar.application.event.validation.EventValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cache.support.NoOpCacheManager;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Create throughput with 1, 8 and 64 concurrent clients booking random half-hour slots on a range of weekdays.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventCreationBenchmark {
+
+  private static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+  private static final int DAYS = 4096;
+
+  private EventService eventService;
+
+  @Setup(Level.Iteration)
+  public void setUp() {
+    InMemoryEventRepository eventRepository = new InMemoryEventRepository();
+    InMemoryRecurringEventRepository recurringEventRepository = new InMemoryRecurringEventRepository();
+    OccupancyProjector occupancyProjector = new OccupancyProjector(new InMemoryOccupancyProjectionRepository(), recurringEventRepository, CalendarRules.defaults());
+    eventService = new EventService(new EventWriter(eventRepository, occupancyProjector), occupancyProjector,
+        new EventValidator(CalendarRules.defaults()), CalendarRules.defaults(), new ScheduleGenerator(),
+        new EventIndex(eventRepository, recurringEventRepository, new EventArchive(new EmptyArchivedEventRepository(), eventRepository), CalendarRules.defaults(), 100_000), new DateLocks(), new ScheduleCacheInvalidator(new NoOpCacheManager(), new ScheduleStamps(100_000)),
+        new ScheduleChangeFeed(new SimpleMeterRegistry()), new EventMetrics(new SimpleMeterRegistry()));
+  }
+
+  @Benchmark
+  @Threads(1)
+  public EventCreationResult createWith1Client() {
+    return createRandomEvent();
+  }
+
+  @Benchmark
+  @Threads(8)
+  public EventCreationResult createWith8Clients() {
+    return createRandomEvent();
+  }
+
+  @Benchmark
+  @Threads(64)
+  public EventCreationResult createWith64Clients() {
+    return createRandomEvent();
+  }
+
+  private EventCreationResult createRandomEvent() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    LocalDate day = FIRST_DAY.plusDays(random.nextInt(DAYS));
+    if (day.getDayOfWeek().compareTo(DayOfWeek.FRIDAY) > 0) day = day.minusDays(2);
+    LocalDateTime start = LocalDateTime.of(day, DayOccupancy.timeOf(random.nextInt(DayOccupancy.SLOTS_PER_DAY)));
+    return eventService.createEvent(new EventDto(start, start.plusMinutes(DayOccupancy.SLOT_MINUTES), "benchmark"));
+  }
+}
@@ -0,0 +1,71 @@
+package com.koszczi.calendar.application.event;
+
+import com.koszczi.calendar.application.event.archive.EventArchive;
+import com.koszczi.calendar.application.event.index.EventIndex;
+import com.koszczi.calendar.application.event.locking.DateLocks;
+import com.koszczi.calendar.application.event.projection.OccupancyProjector;
+import com.koszczi.calendar.application.event.subscription.ScheduleChangeFeed;
+import com.koszczi.calendar.application.event.validation.CalendarRules;
+import com.koszczi.calendar.application.event.validation.EventValidator;
+import com.koszczi.calendar.model.event.Event;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cache.support.NoOpCacheManager;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.koszczi.calendar.application.event.BenchmarkEvents.MONDAY;
+
+/**
+ * Uncached read paths of the service over in-memory repositories holding one week at the given density.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventServiceBenchmark {
+
+  @Param({"0", "4", "8", "16"})
+  private int eventsPerDay;
+
+  private EventService eventService;
+  private int year;
+  private int week;
+
+  @Setup
+  public void setUp() {
+    InMemoryEventRepository eventRepository = new InMemoryEventRepository();
+    InMemoryRecurringEventRepository recurringEventRepository = new InMemoryRecurringEventRepository();
+    List<Event> weeklyEvents = BenchmarkEvents.weeklyEvents(MONDAY, eventsPerDay);
+    OccupancyProjector occupancyProjector = new OccupancyProjector(new InMemoryOccupancyProjectionRepository(), recurringEventRepository, CalendarRules.defaults());
+    EventWriter eventWriter = new EventWriter(eventRepository, occupancyProjector);
+    eventWriter.saveAll(weeklyEvents);
+    eventService = new EventService(eventWriter, occupancyProjector, new EventValidator(CalendarRules.defaults()), CalendarRules.defaults(), new ScheduleGenerator(),
+        new EventIndex(eventRepository, recurringEventRepository, new EventArchive(new EmptyArchivedEventRepository(), eventRepository), CalendarRules.defaults(), 100_000), new DateLocks(), new ScheduleCacheInvalidator(new NoOpCacheManager(), new ScheduleStamps(100_000)),
+        new ScheduleChangeFeed(new SimpleMeterRegistry()), new EventMetrics(new SimpleMeterRegistry()));
+    Event monday = new Event(MONDAY.atTime(DayOccupancy.DAY_START), MONDAY.atTime(DayOccupancy.DAY_START), BenchmarkEvents.ORGANIZER);
+    year = monday.getYear();
+    week = monday.getWeek();
+  }
+
+  @Benchmark
+  public Map<DayOfWeek, List<String>> generateWeeklySchedule() {
+    return eventService.generateWeeklySchedule(Event.DEFAULT_CALENDAR, year, week);
+  }
+
+  @Benchmark
+  public List<String> collectFreeSlotsForDay() {
+    return eventService.collectFreeSlotsForDay(Event.DEFAULT_CALENDAR, MONDAY);
+  }
+
+  @Benchmark
+  public String findEventForTime() {
+    return eventService.findEventForTime(Event.DEFAULT_CALENDAR, LocalDateTime.of(MONDAY, DayOccupancy.timeOf(7)));
+  }
+}
@@ -0,0 +1,143 @@
+package com.koszczi.calendar.application.event;
+
+import com.koszczi.calendar.model.event.CalendarDay;
+import com.koszczi.calendar.model.event.Event;
+import com.koszczi.calendar.model.event.EventRepository;
+import com.koszczi.calendar.model.event.EventSlot;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Stream;
+
+/**
+ * Thread-safe stand-in for the JPA repository, so the benchmarks measure the service and not H2.
+ */
+class InMemoryEventRepository implements EventRepository {
+
+  private final Map<CalendarDay, Queue<Event>> eventsByDay = new ConcurrentHashMap<>();
+
+  @Override
+  public Collection<Event> findAllByCalendarIdAndDate(String calendarId, LocalDate date) {
+    return List.copyOf(eventsByDay.getOrDefault(new CalendarDay(calendarId, date), new ConcurrentLinkedQueue<>()));
+  }
+
+  @Override
+  public Collection<EventSlot> findSlotsByCalendarIdAndDate(String calendarId, LocalDate date) {
+    return eventsByDay.getOrDefault(new CalendarDay(calendarId, date), new ConcurrentLinkedQueue<>()).stream().map(EventSlot::of).toList();
+  }
+
+  @Override
+  public Collection<EventSlot> findSlotsByCalendarIdAndDateIn(String calendarId, Collection<LocalDate> dates) {
+    return dates.stream().flatMap(date -> findSlotsByCalendarIdAndDate(calendarId, date).stream()).toList();
+  }
+
+  @Override
+  public Collection<EventSlot> findSlotsByCalendarIdAndDateBetweenAndStartBeforeAndEndAfter(String calendarId, LocalDate from, LocalDate to,
+                                                                                             LocalTime startsBefore, LocalTime endsAfter) {
+    return eventsByDay.entrySet().stream()
+        .filter(e -> e.getKey().calendarId().equals(calendarId) && !e.getKey().date().isBefore(from) && !e.getKey().date().isAfter(to))
+        .flatMap(e -> e.getValue().stream())
+        .filter(e -> e.getStart().isBefore(startsBefore) && e.getEnd().isAfter(endsAfter))
+        .map(EventSlot::of)
+        .toList();
+  }
+
+  @Override
+  public Collection<Event> findAllByCalendarIdAndYearAndWeek(String calendarId, int year, int week) {
+    return eventsByDay.values().stream()
+        .flatMap(Collection::stream)
+        .filter(e -> e.getCalendarId().equals(calendarId) && e.getYear() == year && e.getWeek() == week)
+        .toList();
+  }
+
+  @Override
+  public Stream<Event> streamAllByCalendarIdAndDateBetweenOrderByDateAscStartAsc(String calendarId, LocalDate from, LocalDate to) {
+    return from.datesUntil(to.plusDays(1))
+        .flatMap(date -> findAllByCalendarIdAndDate(calendarId, date).stream().sorted(Comparator.comparing(Event::getStart)));
+  }
+
+  @Override
+  public Stream<EventSlot> streamSlotsByCalendarIdAndDateBetweenOrderByDateAscStartAsc(String calendarId, LocalDate from, LocalDate to) {
+    return streamAllByCalendarIdAndDateBetweenOrderByDateAscStartAsc(calendarId, from, to).map(EventSlot::of);
+  }
+
+  @Override
+  public Optional<LocalDate> findFirstDate() {
+    return eventsByDay.keySet().stream().map(CalendarDay::date).min(Comparator.naturalOrder());
+  }
+
+  @Override
+  public Optional<LocalDate> findFirstDate(String calendarId) {
+    return eventsByDay.keySet().stream().filter(day -> day.calendarId().equals(calendarId)).map(CalendarDay::date).min(Comparator.naturalOrder());
+  }
+
+  @Override
+  public Optional<LocalDate> findLastDate(String calendarId) {
+    return eventsByDay.keySet().stream().filter(day -> day.calendarId().equals(calendarId)).map(CalendarDay::date).max(Comparator.naturalOrder());
+  }
+
+  @Override
+  public <S extends Event> S save(S entity) {
+    eventsByDay.computeIfAbsent(CalendarDay.of(entity), d -> new ConcurrentLinkedQueue<>()).add(entity);
+    return entity;
+  }
+
+  @Override
+  public <S extends Event> Iterable<S> saveAll(Iterable<S> entities) {
+    entities.forEach(this::save);
+    return entities;
+  }
+
+  @Override
+  public Optional<Event> findById(Long id) {
+    return Optional.empty();
+  }
+
+  @Override
+  public boolean existsById(Long id) {
+    return false;
+  }
+
+  @Override
+  public Iterable<Event> findAll() {
+    return eventsByDay.values().stream().flatMap(Collection::stream).toList();
+  }
+
+  @Override
+  public Iterable<Event> findAllById(Iterable<Long> ids) {
+    return List.of();
+  }
+
+  @Override
+  public long count() {
+    return eventsByDay.values().stream().mapToLong(Collection::size).sum();
+  }
+
+  @Override
+  public void deleteById(Long id) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void delete(Event entity) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void deleteAllById(Iterable<? extends Long> ids) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void deleteAll(Iterable<? extends Event> entities) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void deleteAll() {
+    eventsByDay.clear();
+  }
+}
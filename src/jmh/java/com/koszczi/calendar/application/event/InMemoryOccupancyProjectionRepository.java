@@ -0,0 +1,121 @@
+package com.koszczi.calendar.application.event;
+
+import com.koszczi.calendar.model.event.CalendarDay;
+import com.koszczi.calendar.model.event.OccupancyProjection;
+import com.koszczi.calendar.model.event.OccupancyProjectionRepository;
+import com.koszczi.calendar.model.event.ReservedMask;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Thread-safe stand-in for the projection repository, the counterpart of {@link InMemoryEventRepository}.
+ */
+class InMemoryOccupancyProjectionRepository implements OccupancyProjectionRepository {
+
+  private final Map<String, NavigableMap<LocalDate, OccupancyProjection>> calendars = new ConcurrentHashMap<>();
+
+  @Override
+  public Collection<OccupancyProjection> findAllByCalendarIdAndYearAndWeek(String calendarId, int year, int week) {
+    return daysOf(calendarId).values().stream().filter(p -> p.getYear() == year && p.getWeek() == week).toList();
+  }
+
+  @Override
+  public Collection<OccupancyProjection> findAllByCalendarIdAndDateIn(String calendarId, Collection<LocalDate> dates) {
+    NavigableMap<LocalDate, OccupancyProjection> days = daysOf(calendarId);
+    return dates.stream().map(days::get).filter(Objects::nonNull).toList();
+  }
+
+  @Override
+  public Collection<OccupancyProjection> findAllByCalendarIdAndDateBetween(String calendarId, LocalDate from, LocalDate to) {
+    return List.copyOf(daysOf(calendarId).subMap(from, true, to, true).values());
+  }
+
+  @Override
+  public Collection<ReservedMask> findMasksByCalendarIdInAndDateBetween(Collection<String> calendarIds, LocalDate from, LocalDate to) {
+    return calendarIds.stream()
+        .flatMap(calendarId -> findAllByCalendarIdAndDateBetween(calendarId, from, to).stream())
+        .map(p -> new ReservedMask(p.getDate(), p.getReservedMask()))
+        .toList();
+  }
+
+  @Override
+  public Collection<OccupancyProjection> findAllByDateBetween(LocalDate from, LocalDate to) {
+    return calendars.values().stream().flatMap(days -> days.subMap(from, true, to, true).values().stream()).toList();
+  }
+
+  @Override
+  public long sumEventCountByDateBetween(LocalDate from, LocalDate to) {
+    return findAllByDateBetween(from, to).stream().mapToLong(OccupancyProjection::getEventCount).sum();
+  }
+
+  @Override
+  public <S extends OccupancyProjection> S save(S entity) {
+    daysOf(entity.getCalendarId()).put(entity.getDate(), entity);
+    return entity;
+  }
+
+  @Override
+  public <S extends OccupancyProjection> Iterable<S> saveAll(Iterable<S> entities) {
+    entities.forEach(this::save);
+    return entities;
+  }
+
+  @Override
+  public Optional<OccupancyProjection> findById(CalendarDay day) {
+    return Optional.ofNullable(daysOf(day.calendarId()).get(day.date()));
+  }
+
+  @Override
+  public boolean existsById(CalendarDay day) {
+    return findById(day).isPresent();
+  }
+
+  @Override
+  public Iterable<OccupancyProjection> findAll() {
+    return calendars.values().stream().flatMap(days -> days.values().stream()).toList();
+  }
+
+  @Override
+  public Iterable<OccupancyProjection> findAllById(Iterable<CalendarDay> days) {
+    List<OccupancyProjection> result = new ArrayList<>();
+    days.forEach(day -> findById(day).ifPresent(result::add));
+    return result;
+  }
+
+  @Override
+  public long count() {
+    return calendars.values().stream().mapToLong(Map::size).sum();
+  }
+
+  @Override
+  public void deleteById(CalendarDay day) {
+    daysOf(day.calendarId()).remove(day.date());
+  }
+
+  @Override
+  public void delete(OccupancyProjection entity) {
+    daysOf(entity.getCalendarId()).remove(entity.getDate());
+  }
+
+  @Override
+  public void deleteAllById(Iterable<? extends CalendarDay> days) {
+    days.forEach(this::deleteById);
+  }
+
+  @Override
+  public void deleteAll(Iterable<? extends OccupancyProjection> entities) {
+    entities.forEach(this::delete);
+  }
+
+  @Override
+  public void deleteAll() {
+    calendars.clear();
+  }
+
+  private NavigableMap<LocalDate, OccupancyProjection> daysOf(String calendarId) {
+    return calendars.computeIfAbsent(calendarId, c -> new ConcurrentSkipListMap<>());
+  }
+}
@@ -0,0 +1,103 @@
+package com.koszczi.calendar.application.event;
+
+import com.koszczi.calendar.model.event.RecurringEvent;
+import com.koszczi.calendar.model.event.RecurringEventRepository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Thread-safe stand-in for the JPA repository of the recurring events.
+ */
+class InMemoryRecurringEventRepository implements RecurringEventRepository {
+
+  private final Queue<RecurringEvent> recurringEvents = new ConcurrentLinkedQueue<>();
+
+  @Override
+  public Collection<RecurringEvent> findAllSpanning(String calendarId, LocalDate from, LocalDate to) {
+    return findAllSpanning(List.of(calendarId), from, to);
+  }
+
+  @Override
+  public Collection<RecurringEvent> findAllSpanning(Collection<String> calendarIds, LocalDate from, LocalDate to) {
+    return recurringEvents.stream()
+        .filter(r -> calendarIds.contains(r.getCalendarId()) && !r.getFirstDate().isAfter(to) && !r.getLastDate().isBefore(from))
+        .toList();
+  }
+
+  @Override
+  public Collection<RecurringEvent> findAllSpanning(LocalDate from, LocalDate to) {
+    return recurringEvents.stream().filter(r -> !r.getFirstDate().isAfter(to) && !r.getLastDate().isBefore(from)).toList();
+  }
+
+  @Override
+  public long countSpanning(LocalDate from, LocalDate to) {
+    return findAllSpanning(from, to).size();
+  }
+
+  @Override
+  public <S extends RecurringEvent> S save(S entity) {
+    recurringEvents.add(entity);
+    return entity;
+  }
+
+  @Override
+  public <S extends RecurringEvent> Iterable<S> saveAll(Iterable<S> entities) {
+    entities.forEach(this::save);
+    return entities;
+  }
+
+  @Override
+  public Optional<RecurringEvent> findById(Long id) {
+    return Optional.empty();
+  }
+
+  @Override
+  public boolean existsById(Long id) {
+    return false;
+  }
+
+  @Override
+  public Iterable<RecurringEvent> findAll() {
+    return List.copyOf(recurringEvents);
+  }
+
+  @Override
+  public Iterable<RecurringEvent> findAllById(Iterable<Long> ids) {
+    return List.of();
+  }
+
+  @Override
+  public long count() {
+    return recurringEvents.size();
+  }
+
+  @Override
+  public void deleteById(Long id) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void delete(RecurringEvent entity) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void deleteAllById(Iterable<? extends Long> ids) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void deleteAll(Iterable<? extends RecurringEvent> entities) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void deleteAll() {
+    recurringEvents.clear();
+  }
+}
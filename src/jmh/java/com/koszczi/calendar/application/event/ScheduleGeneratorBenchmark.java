@@ -0,0 +1,108 @@
+package com.koszczi.calendar.application.event;
+
+import com.koszczi.calendar.application.event.dto.ScheduleSlot;
+import com.koszczi.calendar.application.event.validation.EventRules;
+import com.koszczi.calendar.model.event.Event;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static com.koszczi.calendar.application.event.BenchmarkEvents.MONDAY;
+import static com.koszczi.calendar.application.event.BenchmarkEvents.ORGANIZER;
+import static com.koszczi.calendar.application.event.ScheduleGenerator.*;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScheduleGeneratorBenchmark {
+
+  @Param({"0", "4", "8", "16"})
+  private int eventsPerDay;
+
+  private final ScheduleGenerator scheduleGenerator = new ScheduleGenerator();
+  private List<Event> dailyEvents;
+  private List<Event> weeklyEvents;
+  private DayOccupancy[] weeklyOccupancies;
+
+  @Setup
+  public void setUp() {
+    dailyEvents = BenchmarkEvents.dailyEvents(MONDAY, eventsPerDay);
+    weeklyEvents = BenchmarkEvents.weeklyEvents(MONDAY, eventsPerDay);
+    weeklyOccupancies = BenchmarkEvents.weeklyOccupancies(MONDAY, eventsPerDay);
+  }
+
+  @Benchmark
+  public List<String> dailyScheduleFromEvents() {
+    return LegacyScheduleGenerator.generateDailySchedule(MONDAY, dailyEvents);
+  }
+
+  @Benchmark
+  public List<String> dailyScheduleFromOccupancy() {
+    return scheduleGenerator.generateDailySchedule(DayOccupancy.of(dailyEvents), EventRules.DEFAULTS);
+  }
+
+  @Benchmark
+  public List<ScheduleSlot> dailySlotsFromOccupancy() {
+    return scheduleGenerator.generateDailySlots(DayOccupancy.of(dailyEvents), EventRules.DEFAULTS);
+  }
+
+  @Benchmark
+  public Map<DayOfWeek, List<String>> weeklyScheduleFromEvents() {
+    return LegacyScheduleGenerator.generateWeeklySchedule(MONDAY, weeklyEvents);
+  }
+
+  @Benchmark
+  public Map<DayOfWeek, List<String>> weeklyScheduleFromOccupancy() {
+    return scheduleGenerator.generateWeeklySchedule(weeklyOccupancies, EventRules.DEFAULTS);
+  }
+
+  @Benchmark
+  public Map<DayOfWeek, List<ScheduleSlot>> weeklySlotsFromOccupancy() {
+    return scheduleGenerator.generateWeeklySlots(weeklyOccupancies, EventRules.DEFAULTS);
+  }
+
+  /**
+   * The Event based schedule generation the occupancy masks replaced, kept as the baseline of the comparison.
+   */
+  static class LegacyScheduleGenerator {
+
+    private static final LocalTime EIGHT_AM = LocalTime.of(8, 0, 0);
+    private static final LocalTime NINE_AM = LocalTime.of(9, 0, 0);
+    private static final LocalTime FIVE_PM = LocalTime.of(17, 0, 0);
+    private static final LocalTime SIX_PM = LocalTime.of(18, 0, 0);
+
+    static Map<DayOfWeek, List<String>> generateWeeklySchedule(LocalDate monday, Collection<Event> weeklyEvents) {
+      Map<DayOfWeek, List<String>> weeklySchedule = new TreeMap<>();
+      for (DayOfWeek day : EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY)) {
+        Collection<Event> dailyEvents = weeklyEvents.stream().filter(e -> day.equals(e.getDayOfWeek())).toList();
+        weeklySchedule.put(day, generateDailySchedule(monday.plusDays(day.ordinal()), dailyEvents));
+      }
+      return weeklySchedule;
+    }
+
+    static List<String> generateDailySchedule(LocalDate day, Collection<Event> dailyEvents) {
+      List<String> result = new ArrayList<>();
+      List<Event> orderedEvents = new ArrayList<>(dailyEvents.size() + 2);
+      orderedEvents.add(new Event(LocalDateTime.of(day, EIGHT_AM), LocalDateTime.of(day, NINE_AM), ORGANIZER));
+      orderedEvents.addAll(dailyEvents.stream().sorted(Comparator.comparing(Event::getStart)).toList());
+      orderedEvents.add(new Event(LocalDateTime.of(day, FIVE_PM), LocalDateTime.of(day, SIX_PM), ORGANIZER));
+
+      for (int i = 1; i < orderedEvents.size(); i++) {
+        if (!orderedEvents.get(i - 1).getEnd().equals(orderedEvents.get(i).getStart())) {
+          result.add(FREE_SLOT + orderedEvents.get(i - 1).getEnd() + " and " + orderedEvents.get(i).getStart());
+        }
+        if (i == orderedEvents.size() - 1) break;
+        result.add(RESERVED_SLOT + orderedEvents.get(i).getStart() + " and " + orderedEvents.get(i).getEnd());
+      }
+      return result;
+    }
+  }
+}
@@ -0,0 +1,94 @@
+package com.koszczi.calendar.application.event;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.koszczi.calendar.application.event.dto.ScheduleSlot;
+import com.koszczi.calendar.application.event.validation.EventRules;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.koszczi.calendar.application.event.BenchmarkEvents.MONDAY;
+
+/**
+ * Producing and consuming a weekly schedule as the text view and as typed slots. Parsing the text view includes the
+ * regex clients need to get the times back.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScheduleSerializationBenchmark {
+
+  private static final Pattern SLOT_TEXT = Pattern.compile("(Free|Reserved) slot between (\\d\\d:\\d\\d) and (\\d\\d:\\d\\d)");
+  private static final TypeReference<Map<DayOfWeek, List<String>>> TEXT_SCHEDULE = new TypeReference<>() { };
+  private static final TypeReference<Map<DayOfWeek, List<ScheduleSlot>>> TYPED_SCHEDULE = new TypeReference<>() { };
+
+  @Param({"4", "16"})
+  private int eventsPerDay;
+
+  private final ObjectMapper objectMapper = JsonMapper.builder().addModule(new JavaTimeModule()).build();
+  private final ScheduleGenerator scheduleGenerator = new ScheduleGenerator();
+  private Map<DayOfWeek, List<String>> textSchedule;
+  private Map<DayOfWeek, List<ScheduleSlot>> typedSchedule;
+  private byte[] textJson;
+  private byte[] typedJson;
+
+  @Setup
+  public void setUp() throws IOException {
+    textSchedule = scheduleGenerator.generateWeeklySchedule(BenchmarkEvents.weeklyOccupancies(MONDAY, eventsPerDay), EventRules.DEFAULTS);
+    typedSchedule = scheduleGenerator.generateWeeklySlots(BenchmarkEvents.weeklyOccupancies(MONDAY, eventsPerDay), EventRules.DEFAULTS);
+    textJson = objectMapper.writeValueAsBytes(textSchedule);
+    typedJson = objectMapper.writeValueAsBytes(typedSchedule);
+    System.out.println("eventsPerDay=" + eventsPerDay + ", text payload: " + textJson.length + " bytes, typed payload: " + typedJson.length + " bytes");
+  }
+
+  @Benchmark
+  public byte[] writeText() throws IOException {
+    return objectMapper.writeValueAsBytes(textSchedule);
+  }
+
+  @Benchmark
+  public byte[] writeTyped() throws IOException {
+    return objectMapper.writeValueAsBytes(typedSchedule);
+  }
+
+  @Benchmark
+  public List<LocalTime> readText() throws IOException {
+    List<LocalTime> times = new ArrayList<>();
+    for (List<String> slots : objectMapper.readValue(textJson, TEXT_SCHEDULE).values()) {
+      for (String slot : slots) {
+        Matcher matcher = SLOT_TEXT.matcher(slot);
+        if (matcher.matches()) {
+          times.add(LocalTime.parse(matcher.group(2)));
+          times.add(LocalTime.parse(matcher.group(3)));
+        }
+      }
+    }
+    return times;
+  }
+
+  @Benchmark
+  public List<LocalTime> readTyped() throws IOException {
+    List<LocalTime> times = new ArrayList<>();
+    for (List<ScheduleSlot> slots : objectMapper.readValue(typedJson, TYPED_SCHEDULE).values()) {
+      for (ScheduleSlot slot : slots) {
+        times.add(slot.start());
+        times.add(slot.end());
+      }
+    }
+    return times;
+  }
+}
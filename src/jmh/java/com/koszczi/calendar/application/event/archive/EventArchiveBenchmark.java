@@ -0,0 +1,76 @@
+package com.koszczi.calendar.application.event.archive;
+
+import com.koszczi.calendar.CalendarApplication;
+import com.koszczi.calendar.application.event.EventService;
+import com.koszczi.calendar.application.event.dto.EventCreationResult;
+import com.koszczi.calendar.application.event.dto.EventDto;
+import com.koszczi.calendar.infrastructure.database.StorageBenchmark;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Event creation in the upcoming weeks on H2 next to {@code history} past events, seeded like {@link StorageBenchmark},
+ * with the past kept in {@code calendar_events} or moved to the archive first. The rows left in the hot table are
+ * printed after the set up.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class EventArchiveBenchmark {
+
+  private static final int CALENDARS = 100;
+  private static final int SLOTS_PER_DAY = 16;
+
+  @Param({"0", "1000000"})
+  private int history;
+
+  @Param({"false", "true"})
+  private boolean archived;
+
+  private ConfigurableApplicationContext context;
+  private EventService eventService;
+  private LocalDate firstMonday;
+  private int created;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = new SpringApplicationBuilder(CalendarApplication.class)
+        .web(WebApplicationType.NONE)
+        .properties("logging.level.root=WARN")
+        .run("--spring.datasource.url=jdbc:h2:mem:archive-" + history + "-" + archived);
+    JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+    StorageBenchmark.seed(jdbc, history);
+    firstMonday = LocalDate.now().with(DayOfWeek.MONDAY).plusWeeks(1);
+    if (archived) context.getBean(EventArchive.class).archiveBefore(firstMonday);
+    eventService = context.getBean(EventService.class);
+    System.out.printf("%n%d past events, archived: %s, rows in calendar_events: %d%n", history, archived,
+        jdbc.queryForObject("select count(*) from calendar_events", Long.class));
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  /**
+   * Every call takes the next free half hour, going round the calendars and over the weekdays of the upcoming weeks.
+   */
+  @Benchmark
+  public EventCreationResult createUpcomingEvent() {
+    int n = created++;
+    int day = n / SLOTS_PER_DAY / CALENDARS;
+    LocalDateTime start = firstMonday.plusWeeks(day / 5).plusDays(day % 5).atTime(9, 0).plusMinutes(30L * (n % SLOTS_PER_DAY));
+    return eventService.createEvent(new EventDto(start, start.plusMinutes(30), "benchmark", "calendar-" + (n / SLOTS_PER_DAY) % CALENDARS));
+  }
+}
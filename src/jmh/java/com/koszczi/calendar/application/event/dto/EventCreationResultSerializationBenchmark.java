@@ -0,0 +1,45 @@
+package com.koszczi.calendar.application.event.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.koszczi.calendar.model.event.Event;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.koszczi.calendar.application.event.dto.EventCreationStatus.SUCCESS;
+import static com.koszczi.calendar.application.event.dto.EventCreationStatus.VALIDATION_FAILURE;
+import static com.koszczi.calendar.application.event.dto.ValidationError.*;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventCreationResultSerializationBenchmark {
+
+  private final ObjectMapper objectMapper = JsonMapper.builder().addModule(new JavaTimeModule()).build();
+
+  private final EventCreationResult success = new EventCreationResult(SUCCESS, List.of(), List.of(),
+      new Event(LocalDateTime.of(2023, 10, 11, 10, 0, 0), LocalDateTime.of(2023, 10, 11, 12, 0, 0), "benchmark"));
+  private final EventCreationResult validationFailure = new EventCreationResult(VALIDATION_FAILURE,
+      List.of(EventCreationError.of(INVALID_TIME), EventCreationError.of(OUT_OF_TIMERANGE), EventCreationError.of(OVERLAPPING_EVENTS)),
+      List.of("Event on 2023-10-13, from 09:00 to 12:00, organized by benchmark",
+          "Event on 2023-10-13, from 12:00 to 13:00, organized by benchmark"),
+      null);
+
+  @Benchmark
+  public byte[] serializeSuccess() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(success);
+  }
+
+  @Benchmark
+  public byte[] serializeValidationFailure() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(validationFailure);
+  }
+}
@@ -0,0 +1,75 @@
+package com.koszczi.calendar.application.event.export;
+
+import com.koszczi.calendar.CalendarApplication;
+import com.koszczi.calendar.model.event.Event;
+import com.koszczi.calendar.model.event.EventRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full export of a year of events from H2 into a discarding stream, the way the export endpoint writes it. Divide the
+ * event count printed at set up by the time per export for events/s; {@code -prof gc} shows the allocation does not
+ * grow with the export size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventExportBenchmark {
+
+  private static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+  private static final int DAYS = 365;
+  private static final int EVENTS_PER_DAY = 16;
+
+  @Param({"ICS", "CSV"})
+  private ExportFormat format;
+
+  private ConfigurableApplicationContext context;
+  private EventExporter eventExporter;
+
+  @Setup
+  public void setUp() {
+    context = new SpringApplicationBuilder(CalendarApplication.class)
+        .web(WebApplicationType.NONE)
+        .properties("logging.level.root=WARN")
+        .run();
+    eventExporter = context.getBean(EventExporter.class);
+    List<Event> events = new ArrayList<>();
+    for (int day = 0; day < DAYS; day++) {
+      for (int i = 0; i < EVENTS_PER_DAY; i++) {
+        LocalDateTime start = LocalDateTime.of(FIRST_DAY.plusDays(day), LocalTime.of(9, 0).plusMinutes(i * 30L));
+        events.add(new Event(start, start.plusMinutes(30), "benchmark organizer " + i));
+      }
+    }
+    context.getBean(EventRepository.class).saveAll(events);
+    System.out.println("exporting " + events.size() + " events");
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public long export() throws IOException {
+    Writer out = new BufferedWriter(new OutputStreamWriter(OutputStream.nullOutputStream(), StandardCharsets.UTF_8), 64 * 1024);
+    return eventExporter.export(Event.DEFAULT_CALENDAR, eventExporter.rangeOf(Event.DEFAULT_CALENDAR, null, null), format, out);
+  }
+}
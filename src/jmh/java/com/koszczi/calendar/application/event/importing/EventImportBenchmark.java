@@ -0,0 +1,94 @@
+package com.koszczi.calendar.application.event.importing;
+
+import com.koszczi.calendar.CalendarApplication;
+import com.koszczi.calendar.application.event.EventService;
+import com.koszczi.calendar.application.event.dto.EventDto;
+import com.koszczi.calendar.application.event.dto.ImportReport;
+import com.koszczi.calendar.application.event.export.ExportFormat;
+import com.koszczi.calendar.model.event.Event;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading a CSV file of back-to-back half-hour events on H2 through the import pipeline, against creating the same
+ * events one by one through {@code EventService.createEvent}. Every iteration loads a new range of days; divide the
+ * event count by the time per operation for events/s.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class EventImportBenchmark {
+
+  private static final int EVENTS_PER_DAY = 16;
+
+  @Param({"50000"})
+  private int events;
+
+  private ConfigurableApplicationContext context;
+  private EventImporter eventImporter;
+  private EventService eventService;
+  private LocalDate nextDay = LocalDate.of(2030, 1, 7);
+  private List<EventDto> eventDtos;
+  private String csv;
+
+  @Setup
+  public void setUp() {
+    context = new SpringApplicationBuilder(CalendarApplication.class)
+        .web(WebApplicationType.NONE)
+        .properties("logging.level.root=WARN")
+        .run();
+    eventImporter = context.getBean(EventImporter.class);
+    eventService = context.getBean(EventService.class);
+  }
+
+  @Setup(Level.Iteration)
+  public void nextRange() {
+    eventDtos = new ArrayList<>(events);
+    StringBuilder file = new StringBuilder("id,date,start,end,organizer\r\n");
+    while (eventDtos.size() < events) {
+      if (nextDay.getDayOfWeek().compareTo(DayOfWeek.FRIDAY) <= 0) {
+        for (int i = 0; i < EVENTS_PER_DAY && eventDtos.size() < events; i++) {
+          LocalDateTime start = LocalDateTime.of(nextDay, LocalTime.of(9, 0).plusMinutes(i * 30L));
+          eventDtos.add(new EventDto(start, start.plusMinutes(30), "benchmark"));
+          file.append(eventDtos.size()).append(',').append(nextDay).append(',').append(start.toLocalTime())
+              .append(',').append(start.toLocalTime().plusMinutes(30)).append(",benchmark\r\n");
+        }
+      }
+      nextDay = nextDay.plusDays(1);
+    }
+    csv = file.toString();
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public ImportReport importFile() throws IOException {
+    ImportReport report = eventImporter.importEvents(new StringReader(csv), ExportFormat.CSV, Event.DEFAULT_CALENDAR);
+    if (report.imported() != events) throw new IllegalStateException("Imported " + report.imported() + " of " + events);
+    return report;
+  }
+
+  @Benchmark
+  public int createOneByOne() {
+    eventDtos.forEach(eventService::createEvent);
+    return eventDtos.size();
+  }
+}
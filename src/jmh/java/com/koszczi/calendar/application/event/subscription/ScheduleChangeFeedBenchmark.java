@@ -0,0 +1,58 @@
+package com.koszczi.calendar.application.event.subscription;
+
+import com.koszczi.calendar.model.event.Event;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time from publishing one event to every subscriber of its week having received it, the sinks only count. The other
+ * subscribers watch other days of the calendar and must cost nothing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScheduleChangeFeedBenchmark {
+
+  private static final LocalDate DAY = LocalDate.of(2024, 3, 5);
+  private static final int OTHER_SUBSCRIBERS = 10_000;
+
+  @Param({"1", "1000", "10000"})
+  private int subscribers;
+
+  private ScheduleChangeFeed scheduleChangeFeed;
+  private Event event;
+  private volatile CountDownLatch delivered;
+
+  @Setup
+  public void setUp() {
+    scheduleChangeFeed = new ScheduleChangeFeed(new SimpleMeterRegistry());
+    event = new Event(DAY.atTime(10, 0), DAY.atTime(11, 0), "organizer");
+    for (int i = 0; i < subscribers; i++) {
+      scheduleChangeFeed.subscribe(Event.DEFAULT_CALENDAR, Set.of(), event.getYear(), Set.of(event.getWeek()), change -> delivered.countDown(), failure -> { });
+    }
+    for (int i = 0; i < OTHER_SUBSCRIBERS; i++) {
+      scheduleChangeFeed.subscribe(Event.DEFAULT_CALENDAR, Set.of(DAY.plusDays(7 + i % 365)), 0, Set.of(), change -> delivered.countDown(), failure -> { });
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    scheduleChangeFeed.shutdown();
+  }
+
+  @Benchmark
+  public void fanOut() throws InterruptedException {
+    delivered = new CountDownLatch(subscribers);
+    scheduleChangeFeed.publish(event);
+    delivered.await();
+  }
+}
@@ -0,0 +1,35 @@
+package com.koszczi.calendar.application.event.validation;
+
+import com.koszczi.calendar.application.event.dto.EventDto;
+import com.koszczi.calendar.application.event.dto.ValidationError;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventValidatorBenchmark {
+
+  private final EventValidator eventValidator = new EventValidator(CalendarRules.defaults());
+
+  private final EventDto validEvent = new EventDto(
+      LocalDateTime.of(2023, 10, 13, 10, 0, 0), LocalDateTime.of(2023, 10, 13, 12, 0, 0), "benchmark");
+  private final EventDto invalidEvent = new EventDto(
+      LocalDateTime.of(2023, 10, 14, 5, 10, 0), LocalDateTime.of(2023, 10, 14, 18, 0, 10), "benchmark");
+
+  @Benchmark
+  public Set<ValidationError> validateValidDto() {
+    return eventValidator.validateDto(validEvent);
+  }
+
+  @Benchmark
+  public Set<ValidationError> validateInvalidDto() {
+    return eventValidator.validateDto(invalidEvent);
+  }
+}
@@ -0,0 +1,114 @@
+package com.koszczi.calendar.infrastructure.database;
+
+import com.koszczi.calendar.CalendarApplication;
+import com.koszczi.calendar.application.event.EventService;
+import com.koszczi.calendar.application.event.dto.ScheduleSlot;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Start up to the first served schedule with a stored calendar of {@code events} half-hour events, 16 a day in 100
+ * calendars. The file store opens the database as it was left; the in-memory store starts empty, so it loads the events
+ * on every start, as it would have to from an export. The heap used after a full GC is printed after every iteration.
+ * Run with {@code -p events=10000000} for the large calendar, seeding it takes a few minutes.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class StorageBenchmark {
+
+  private static final int EVENTS_PER_DAY = 16;
+  private static final int CALENDARS = 100;
+  private static final LocalDate FIRST_MONDAY = LocalDate.of(2000, 1, 3);
+
+  @Param({"mem", "file"})
+  private String storage;
+
+  @Param({"1000000"})
+  private int events;
+
+  private Path storageDir;
+  private ConfigurableApplicationContext context;
+  private int starts;
+
+  @Setup(Level.Trial)
+  public void seedFiles() throws IOException {
+    storageDir = Files.createTempDirectory("calendar-storage");
+    if (!storage.equals("file")) return;
+    try (ConfigurableApplicationContext seeding = start()) {
+      seed(seeding.getBean(JdbcTemplate.class), events);
+    }
+  }
+
+  @Benchmark
+  public List<ScheduleSlot> startAndServeFirstSchedule() {
+    context = start();
+    if (storage.equals("mem")) seed(context.getBean(JdbcTemplate.class), events);
+    return context.getBean(EventService.class).collectDailySlots("calendar-0", FIRST_MONDAY);
+  }
+
+  @TearDown(Level.Iteration)
+  public void stop() {
+    System.gc();
+    long heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    System.out.printf("%n%s store, %d events: %d MB of heap used after start%n", storage, events, heap >> 20);
+    context.close();
+  }
+
+  @TearDown(Level.Trial)
+  public void deleteFiles() throws IOException {
+    try (Stream<Path> files = Files.walk(storageDir)) {
+      files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+    }
+  }
+
+  private ConfigurableApplicationContext start() {
+    SpringApplicationBuilder builder = new SpringApplicationBuilder(CalendarApplication.class)
+        .web(WebApplicationType.NONE)
+        .properties("logging.level.root=WARN");
+    if (storage.equals("file")) return builder.profiles("file").run("--calendar.storage.dir=" + storageDir);
+    return builder.run("--spring.datasource.url=jdbc:h2:mem:storage-" + starts++);
+  }
+
+  /**
+   * Inserts the events and their day projections with two set based statements, event {@code x} is slot
+   * {@code x % 16} of day {@code x / 16}, the days going round the calendars and over the weekdays from 2000.
+   */
+  public static void seed(JdbcTemplate jdbc, int events) {
+    String days = """
+        select x, 'calendar-' || mod(x / %1$d, %2$d) as calendar_id,
+          dateadd(day, 7 * (x / %1$d / %2$d / 5) + mod(x / %1$d / %2$d, 5), date '%3$s') as event_date
+        from (select x - 1 as x from system_range(1, %4$d))
+        """.formatted(EVENTS_PER_DAY, CALENDARS, FIRST_MONDAY, events);
+    jdbc.update("""
+        insert into calendar_events (id, calendar_id, calendar_year, week_of_year, day_of_week, date, event_start, event_end, organizer, version)
+        select x + 1, calendar_id, year(event_date), iso_week(event_date), iso_day_of_week(event_date) - 1, event_date,
+          cast(dateadd(minute, 30 * mod(x, %1$d), timestamp '2000-01-01 09:00:00') as time),
+          cast(dateadd(minute, 30 * mod(x, %1$d) + 30, timestamp '2000-01-01 09:00:00') as time), 'benchmark', 0
+        from (%2$s)
+        """.formatted(EVENTS_PER_DAY, days));
+    jdbc.update("""
+        insert into calendar_occupancy (calendar_id, date, calendar_year, week_of_year, day_of_week, reserved_mask, start_mask, event_count, version)
+        select calendar_id, event_date, year(event_date), iso_week(event_date), iso_day_of_week(event_date) - 1, 65535, 65535, %1$d, 0
+        from (%2$s) where mod(x, %1$d) = 0
+        """.formatted(EVENTS_PER_DAY, days));
+    // the pooled id generator hands out the 50 ids below the sequence value
+    jdbc.execute("alter sequence calendar_events_seq restart with " + (events + 51));
+  }
+}
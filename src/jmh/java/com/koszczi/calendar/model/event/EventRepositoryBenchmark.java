@@ -0,0 +1,90 @@
+package com.koszczi.calendar.model.event;
+
+import com.koszczi.calendar.CalendarApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity query against slot projection query of a calendar day on H2, with the same events in every calendar so a
+ * growing number of calendars shows whether the queries of one calendar stay flat. Run with {@code -prof gc} for the
+ * heap allocated per query.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventRepositoryBenchmark {
+
+  private static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+  private static final int DAYS = 256;
+
+  @Param({"4", "16"})
+  private int eventsPerDay;
+
+  @Param({"1", "16"})
+  private int calendars;
+
+  private ConfigurableApplicationContext context;
+  private EventRepository eventRepository;
+
+  @Setup
+  public void setUp() {
+    context = new SpringApplicationBuilder(CalendarApplication.class)
+        .web(WebApplicationType.NONE)
+        .properties("logging.level.root=WARN")
+        .run();
+    eventRepository = context.getBean(EventRepository.class);
+    List<Event> events = new ArrayList<>();
+    int minutesPerEvent = 8 * 60 / eventsPerDay;
+    for (int calendar = 0; calendar < calendars; calendar++) {
+      for (int day = 0; day < DAYS; day++) {
+        for (int i = 0; i < eventsPerDay; i++) {
+          LocalDateTime start = LocalDateTime.of(FIRST_DAY.plusDays(day), LocalTime.of(9, 0).plusMinutes((long) i * minutesPerEvent));
+          events.add(new Event(calendarId(calendar), start, start.plusMinutes(30), "benchmark"));
+        }
+      }
+      eventRepository.saveAll(events);
+      events.clear();
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public Collection<Event> findAllByCalendarIdAndDate() {
+    return eventRepository.findAllByCalendarIdAndDate(randomCalendar(), randomDay());
+  }
+
+  @Benchmark
+  public Collection<EventSlot> findSlotsByCalendarIdAndDate() {
+    return eventRepository.findSlotsByCalendarIdAndDate(randomCalendar(), randomDay());
+  }
+
+  private static String calendarId(int calendar) {
+    return calendar == 0 ? Event.DEFAULT_CALENDAR : "calendar-" + calendar;
+  }
+
+  private String randomCalendar() {
+    return calendarId(ThreadLocalRandom.current().nextInt(calendars));
+  }
+
+  private static LocalDate randomDay() {
+    return FIRST_DAY.plusDays(ThreadLocalRandom.current().nextInt(DAYS));
+  }
+}
@@ -0,0 +1,94 @@
+package com.koszczi.calendar.web.event;
+
+import com.koszczi.calendar.CalendarApplication;
+import jakarta.servlet.*;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load test of the web tier: 400 concurrent clients, twice the default Tomcat pool, request free slots of random days
+ * so most requests miss the cache and block on the database. Compare the sampled p99 of the platform and virtual
+ * thread runs; the highest number of requests the server was handling at the same time is printed at tear down.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(400)
+@State(Scope.Benchmark)
+public class WebThreadingBenchmark {
+
+  private static final LocalDate FIRST_DAY = LocalDate.of(2000, 1, 3);
+  private static final int DAYS = 50_000;
+
+  @Param({"false", "true"})
+  private boolean virtualThreads;
+
+  private ConfigurableApplicationContext context;
+  private HttpClient httpClient;
+  private String baseUri;
+
+  @Setup
+  public void setUp() {
+    context = new SpringApplicationBuilder(CalendarApplication.class, ConcurrencyProbe.class)
+        .properties("server.port=0", "spring.threads.virtual.enabled=" + virtualThreads, "logging.level.root=WARN")
+        .run();
+    int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+    baseUri = "http://localhost:" + port + "/events/dailyFreeSlots?day=";
+    httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    ConcurrencyProbe.reset();
+  }
+
+  @TearDown
+  public void tearDown() {
+    System.out.println("virtualThreads=" + virtualThreads + ", max concurrent requests: " + ConcurrencyProbe.maxInFlight());
+    context.close();
+  }
+
+  @Benchmark
+  public int dailyFreeSlots() throws IOException, InterruptedException {
+    LocalDate day = FIRST_DAY.plusDays(ThreadLocalRandom.current().nextInt(DAYS));
+    HttpRequest request = HttpRequest.newBuilder(URI.create(baseUri + day)).GET().build();
+    return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+  }
+
+  /**
+   * Counts the requests being handled by the server, registered as an additional source of the benchmarked application.
+   */
+  public static class ConcurrencyProbe implements Filter {
+
+    private static final AtomicInteger inFlight = new AtomicInteger();
+    private static final AtomicInteger maxInFlight = new AtomicInteger();
+
+    static void reset() {
+      maxInFlight.set(0);
+    }
+
+    static int maxInFlight() {
+      return maxInFlight.get();
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+      maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+      try {
+        chain.doFilter(request, response);
+      } finally {
+        inFlight.decrementAndGet();
+      }
+    }
+  }
+}
@@ -0,0 +1,128 @@
+package com.koszczi.calendar.application.event;
+
+import com.koszczi.calendar.model.event.Event;
+
+import java.time.LocalTime;
+import java.util.Collection;
+
+/**
+ * Occupancy of one day on the 30-minute grid between 09:00 and 17:00: bit {@code i} of the masks stands for the slot
+ * starting {@code i * 30} minutes after nine. Besides the reserved slots the slots where an event starts are kept too,
+ * so back-to-back events still show up as separate reserved runs, together with the id of the event starting there.
+ */
+public final class DayOccupancy {
+
+  public static final LocalTime DAY_START = LocalTime.of(9, 0, 0);
+  public static final int SLOT_MINUTES = 30;
+  public static final int SLOTS_PER_DAY = 16;
+
+  private static final int DAY_START_MINUTE = DAY_START.getHour() * 60;
+
+  private long reserved;
+  private long starts;
+  private long[] eventIds;
+
+  public static DayOccupancy of(long reserved, long starts, long[] eventIds) {
+    DayOccupancy occupancy = new DayOccupancy();
+    occupancy.reserved = reserved;
+    occupancy.starts = starts;
+    occupancy.eventIds = eventIds == null ? null : eventIds.clone();
+    return occupancy;
+  }
+
+  public static DayOccupancy of(Collection<Event> events) {
+    DayOccupancy occupancy = new DayOccupancy();
+    for (Event event : events) occupancy.reserve(event);
+    return occupancy;
+  }
+
+  public void reserve(Event event) {
+    int from = reserveSlots(event.getStart(), event.getEnd());
+    if (from < 0 || event.getId() == null) return;
+    if (eventIds == null) eventIds = new long[SLOTS_PER_DAY];
+    eventIds[from] = event.getId();
+  }
+
+  public void reserve(LocalTime start, LocalTime end) {
+    reserveSlots(start, end);
+  }
+
+  public long[] eventIds() {
+    return eventIds == null ? null : eventIds.clone();
+  }
+
+  public Long eventIdAt(int slot) {
+    return eventIds == null || eventIds[slot] == 0 ? null : eventIds[slot];
+  }
+
+  public boolean isFree(int from, int to) {
+    return (reserved & rangeMask(from, to)) == 0;
+  }
+
+  public long reservedMask() {
+    return reserved;
+  }
+
+  public long startMask() {
+    return starts;
+  }
+
+  public void forEachRun(SlotRunConsumer consumer) {
+    forEachRun(0, SLOTS_PER_DAY, consumer);
+  }
+
+  /**
+   * The runs between two slots only, cut at both ends.
+   */
+  public void forEachRun(int fromSlot, int toSlot, SlotRunConsumer consumer) {
+    int slot = fromSlot;
+    while (slot < toSlot) {
+      boolean isReserved = (reserved & (1L << slot)) != 0;
+      long stops = isReserved
+          ? (~reserved | starts) & (-1L << (slot + 1))
+          : reserved & (-1L << slot);
+      int end = stops == 0 ? toSlot : Math.min(Long.numberOfTrailingZeros(stops), toSlot);
+      consumer.accept(slot, end, isReserved);
+      slot = end;
+    }
+  }
+
+  public static LocalTime timeOf(int slot) {
+    return DAY_START.plusMinutes((long) slot * SLOT_MINUTES);
+  }
+
+  private int reserveSlots(LocalTime start, LocalTime end) {
+    int from = slotFloor(start);
+    int to = slotCeil(end);
+    if (from >= to) return -1;
+    reserved |= rangeMask(from, to);
+    starts |= 1L << from;
+    return from;
+  }
+
+  static long rangeMask(int from, int to) {
+    return (-1L << from) & ~(-1L << to);
+  }
+
+  private static int slotFloor(LocalTime time) {
+    return clamp(Math.floorDiv(minutesFromDayStart(time), SLOT_MINUTES));
+  }
+
+  private static int slotCeil(LocalTime time) {
+    return clamp(Math.floorDiv(minutesFromDayStart(time) + SLOT_MINUTES - 1, SLOT_MINUTES));
+  }
+
+  private static int minutesFromDayStart(LocalTime time) {
+    int minutes = time.getHour() * 60 + time.getMinute() - DAY_START_MINUTE;
+    return time.getSecond() == 0 && time.getNano() == 0 ? minutes : minutes + 1;
+  }
+
+  private static int clamp(int slot) {
+    return Math.max(0, Math.min(SLOTS_PER_DAY, slot));
+  }
+
+  @FunctionalInterface
+  public interface SlotRunConsumer {
+    void accept(int fromSlot, int toSlot, boolean reserved);
+  }
+}
@@ -0,0 +1,112 @@
+package com.koszczi.calendar.application.event;
+
+import com.koszczi.calendar.application.event.dto.EventCreationError;
+import com.koszczi.calendar.application.event.dto.EventCreationResult;
+import com.koszczi.calendar.application.event.dto.EventCreationStatus;
+import com.koszczi.calendar.application.event.dto.ImportReport;
+import com.koszczi.calendar.application.event.dto.ValidationError;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Meters of the event operations. All meters are registered up front, recording does not look anything up in the registry.
+ */
+@Service
+public class EventMetrics {
+
+  public static final String CREATE_TIMER = "calendar.events.create";
+  public static final String CREATE_STAGE_TIMER = "calendar.events.create.stage";
+  public static final String BATCH_CREATE_TIMER = "calendar.events.create.batch";
+  public static final String BATCH_ITEM_COUNTER = "calendar.events.create.batch.items";
+  public static final String VALIDATION_ERROR_COUNTER = "calendar.events.validation.errors";
+  public static final String READ_TIMER = "calendar.events.read";
+  public static final String IMPORT_TIMER = "calendar.events.import";
+  public static final String IMPORT_ROW_COUNTER = "calendar.events.import.rows";
+
+  public enum Stage { VALIDATION, OVERLAP_CHECK, PERSISTENCE }
+
+  public enum Operation { WEEKLY_SCHEDULE, DAILY_FREE_SLOTS, WEEKLY_SLOTS, DAILY_SLOTS, EVENT_LOOKUP, FREE_SLOT_SEARCH, AVAILABILITY_SEARCH }
+
+  private final MeterRegistry meterRegistry;
+  private final Map<EventCreationStatus, Timer> creationTimers = new EnumMap<>(EventCreationStatus.class);
+  private final Map<EventCreationStatus, Counter> batchItemCounters = new EnumMap<>(EventCreationStatus.class);
+  private final Map<String, Counter> validationErrorCounters = new HashMap<>();
+  private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+  private final Map<Operation, Timer> readTimers = new EnumMap<>(Operation.class);
+  private final Timer batchCreationTimer;
+  private final Timer importTimer;
+  private final Counter importedRowCounter;
+  private final Counter rejectedRowCounter;
+
+  public EventMetrics(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+    for (EventCreationStatus status : EventCreationStatus.values()) {
+      creationTimers.put(status, Timer.builder(CREATE_TIMER).tag("status", status.name()).register(meterRegistry));
+      batchItemCounters.put(status, Counter.builder(BATCH_ITEM_COUNTER).tag("status", status.name()).register(meterRegistry));
+    }
+    for (ValidationError error : ValidationError.values()) {
+      validationErrorCounters.put(error.name(), Counter.builder(VALIDATION_ERROR_COUNTER).tag("code", error.name()).register(meterRegistry));
+    }
+    for (Stage stage : Stage.values()) {
+      stageTimers.put(stage, Timer.builder(CREATE_STAGE_TIMER).tag("stage", tagValue(stage)).register(meterRegistry));
+    }
+    for (Operation operation : Operation.values()) {
+      readTimers.put(operation, Timer.builder(READ_TIMER).tag("operation", tagValue(operation)).register(meterRegistry));
+    }
+    batchCreationTimer = Timer.builder(BATCH_CREATE_TIMER).register(meterRegistry);
+    importTimer = Timer.builder(IMPORT_TIMER).register(meterRegistry);
+    importedRowCounter = Counter.builder(IMPORT_ROW_COUNTER).tag("status", "imported").register(meterRegistry);
+    rejectedRowCounter = Counter.builder(IMPORT_ROW_COUNTER).tag("status", "rejected").register(meterRegistry);
+  }
+
+  public Timer.Sample startTimer() {
+    return Timer.start(meterRegistry);
+  }
+
+  public void recordCreation(Timer.Sample sample, EventCreationResult result) {
+    sample.stop(creationTimers.get(result.status()));
+    countValidationErrors(result.errors());
+  }
+
+  public void recordBatchCreation(Timer.Sample sample, Collection<EventCreationResult> results) {
+    sample.stop(batchCreationTimer);
+    for (EventCreationResult result : results) {
+      batchItemCounters.get(result.status()).increment();
+      countValidationErrors(result.errors());
+    }
+  }
+
+  public void recordImport(Timer.Sample sample, ImportReport report) {
+    sample.stop(importTimer);
+    importedRowCounter.increment(report.imported());
+    rejectedRowCounter.increment(report.rejected());
+  }
+
+  public <T> T time(Stage stage, Supplier<T> action) {
+    return stageTimers.get(stage).record(action);
+  }
+
+  public <T> T time(Operation operation, Supplier<T> action) {
+    return readTimers.get(operation).record(action);
+  }
+
+  private void countValidationErrors(Collection<EventCreationError> errors) {
+    for (EventCreationError error : errors) {
+      Counter counter = validationErrorCounters.get(error.errorCode());
+      if (counter != null) counter.increment();
+    }
+  }
+
+  private static String tagValue(Enum<?> value) {
+    return value.name().toLowerCase(Locale.ROOT);
+  }
+}
@@ -1,99 +1,262 @@
 package com.koszczi.calendar.application.event;
 
+import com.koszczi.calendar.application.event.dto.DateRange;
 import com.koszczi.calendar.application.event.dto.EventCreationError;
 import com.koszczi.calendar.application.event.dto.ValidationError;
 import com.koszczi.calendar.application.event.dto.EventCreationResult;
 import com.koszczi.calendar.application.event.dto.EventDto;
+import com.koszczi.calendar.application.event.dto.FreeSlot;
+import com.koszczi.calendar.application.event.dto.ScheduleSlot;
+import com.koszczi.calendar.application.event.index.EventIndex;
+import com.koszczi.calendar.application.event.locking.DateLocks;
+import com.koszczi.calendar.application.event.projection.OccupancyProjector;
+import com.koszczi.calendar.application.event.subscription.ScheduleChangeFeed;
+import com.koszczi.calendar.application.event.validation.CalendarRules;
+import com.koszczi.calendar.application.event.validation.EventRules;
 import com.koszczi.calendar.application.event.validation.EventValidator;
+import com.koszczi.calendar.model.event.CalendarDay;
 import com.koszczi.calendar.model.event.Event;
-import com.koszczi.calendar.model.event.EventRepository;
+import com.koszczi.calendar.model.event.EventSlot;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.temporal.IsoFields;
-import java.time.temporal.TemporalAdjusters;
 import java.util.*;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
+import static com.koszczi.calendar.application.event.EventMetrics.Operation.*;
+import static com.koszczi.calendar.application.event.EventMetrics.Stage.*;
 import static com.koszczi.calendar.application.event.dto.ValidationError.OVERLAPPING_EVENTS;
 import static com.koszczi.calendar.application.event.dto.EventCreationStatus.*;
+import static java.time.temporal.ChronoUnit.DAYS;
 
 @RequiredArgsConstructor
 @Slf4j
 @Service
 public class EventService {
 
-  private final EventRepository eventRepository;
+  public static final int MAX_FREE_SLOT_SEARCH_DAYS = 366;
+  public static final int MAX_AVAILABILITY_CALENDARS = 500;
+
+  private final EventWriter eventWriter;
+  private final OccupancyProjector occupancyProjector;
   private final EventValidator eventValidator;
+  private final CalendarRules calendarRules;
   private final ScheduleGenerator scheduleGenerator;
+  private final EventIndex eventIndex;
+  private final DateLocks dateLocks;
+  private final ScheduleCacheInvalidator scheduleCacheInvalidator;
+  private final ScheduleChangeFeed scheduleChangeFeed;
+  private final EventMetrics eventMetrics;
 
   public EventCreationResult createEvent(EventDto eventDto) {
-    try {
-      Set<ValidationError> validationErrors = eventValidator.validateDto(eventDto);
-      Event newEvent = new Event(eventDto.startDateTime(), eventDto.endDateTime(), eventDto.organizer());
-      List<String> overLappingEvents = collectOverlappingEvents(newEvent);
-      if (!overLappingEvents.isEmpty()) validationErrors.add(OVERLAPPING_EVENTS);
+    Timer.Sample sample = eventMetrics.startTimer();
+    EventCreationResult result = tryCreateEvent(eventDto);
+    eventMetrics.recordCreation(sample, result);
+    return result;
+  }
 
-      if (validationErrors.isEmpty()) {
-        newEvent = eventRepository.save(newEvent);
-        return new EventCreationResult(SUCCESS, List.of(), List.of(), newEvent);
-      } else {
-        return new EventCreationResult(VALIDATION_FAILURE, validationErrors.stream().map(EventCreationError::of).toList(), overLappingEvents, null);
-      }
+  public List<EventCreationResult> createEvents(List<EventDto> eventDtos) {
+    Timer.Sample sample = eventMetrics.startTimer();
+    List<EventCreationResult> results = tryCreateEvents(eventDtos);
+    eventMetrics.recordBatchCreation(sample, results);
+    return results;
+  }
 
+  private EventCreationResult tryCreateEvent(EventDto eventDto) {
+    try {
+      Set<ValidationError> validationErrors = eventMetrics.time(VALIDATION, () -> eventValidator.validateDto(eventDto));
+      Event newEvent = new Event(eventDto.calendarId(), eventDto.startDateTime(), eventDto.endDateTime(), eventDto.organizer());
+      return dateLocks.withLock(CalendarDay.of(newEvent), () -> saveIfNotOverlapping(newEvent, validationErrors));
     } catch (Exception e) {
       log.error("Error creating calendar event", e);
       return new EventCreationResult(ERROR, List.of(), List.of(), null);
     }
   }
 
-  public Map<DayOfWeek, List<String>> generateWeeklySchedule(int year, int week) {
-    Map<DayOfWeek, List<String>> weeklySchedule = new TreeMap<>();
-    EnumSet<DayOfWeek> daysOfWeek = EnumSet.allOf(DayOfWeek.class);
-    Collection<Event> weeklyEvents = eventRepository.findAllByYearAndWeek(year, week);
-    for (DayOfWeek day: daysOfWeek) {
-      if (DayOfWeek.SATURDAY.equals(day))
-        break;
-      LocalDate actualDate = generateDateFromYearWeekAndDay(year, week, day);
-      Collection<Event> dailyEvents = weeklyEvents.stream().filter(e -> day.equals(e.getDayOfWeek())).toList();
-      weeklySchedule.put(day, scheduleGenerator.generateDailySchedule(actualDate, dailyEvents));
+  private List<EventCreationResult> tryCreateEvents(List<EventDto> eventDtos) {
+    EventCreationResult[] results = new EventCreationResult[eventDtos.size()];
+    Map<CalendarDay, List<PendingEvent>> pendingEventsByDay = new LinkedHashMap<>();
+    for (int i = 0; i < eventDtos.size(); i++) {
+      try {
+        EventDto eventDto = eventDtos.get(i);
+        Set<ValidationError> validationErrors = eventMetrics.time(VALIDATION, () -> eventValidator.validateDto(eventDto));
+        Event newEvent = new Event(eventDto.calendarId(), eventDto.startDateTime(), eventDto.endDateTime(), eventDto.organizer());
+        pendingEventsByDay.computeIfAbsent(CalendarDay.of(newEvent), d -> new ArrayList<>()).add(new PendingEvent(i, newEvent, validationErrors));
+      } catch (Exception e) {
+        log.error("Error creating calendar event", e);
+        results[i] = new EventCreationResult(ERROR, List.of(), List.of(), null);
+      }
     }
-    return weeklySchedule;
+
+    pendingEventsByDay.forEach((day, pendingEvents) -> {
+      try {
+        dateLocks.withLock(day, () -> saveDailyBatch(pendingEvents, results));
+      } catch (Exception e) {
+        log.error("Error creating calendar events of {}", day, e);
+        pendingEvents.stream()
+            .filter(p -> results[p.position()] == null)
+            .forEach(p -> results[p.position()] = new EventCreationResult(ERROR, List.of(), List.of(), null));
+      }
+    });
+    return Arrays.asList(results);
   }
 
-  public List<String> collectFreeSlotsForDay(LocalDate day) {
-    Collection<Event> dailyEvents= eventRepository.findAllByDate(day);
-    return scheduleGenerator.generateDailySchedule(day, dailyEvents)
-        .stream()
-        .filter(s -> !s.contains(ScheduleGenerator.RESERVED_SLOT))
-        .toList();
+  @Cacheable(cacheNames = ScheduleCacheInvalidator.WEEKLY_SCHEDULE_CACHE, sync = true)
+  public Map<DayOfWeek, List<String>> generateWeeklySchedule(String calendarId, int year, int week) {
+    return eventMetrics.time(WEEKLY_SCHEDULE,
+        () -> scheduleGenerator.generateWeeklySchedule(occupancyProjector.findWeek(calendarId, year, week), calendarRules.forCalendar(calendarId)));
   }
 
-  public String findEventForTime(LocalDateTime time) {
-    return eventRepository
-        .findAllByDate(time.toLocalDate())
-        .stream()
-        .filter(e -> !time.toLocalTime().isBefore(e.getStart()) && !time.toLocalTime().isAfter(e.getEnd()))
-        .findFirst()
-        .map(Event::toString)
-        .orElseGet(() -> "Not reserved");
+  @Cacheable(cacheNames = ScheduleCacheInvalidator.DAILY_FREE_SLOTS_CACHE, sync = true)
+  public List<String> collectFreeSlotsForDay(String calendarId, LocalDate day) {
+    return eventMetrics.time(DAILY_FREE_SLOTS,
+        () -> scheduleGenerator.generateFreeSlots(occupancyProjector.findDay(new CalendarDay(calendarId, day)), calendarRules.forCalendar(calendarId)));
+  }
+
+  @Cacheable(cacheNames = ScheduleCacheInvalidator.WEEKLY_SLOTS_CACHE, sync = true)
+  public Map<DayOfWeek, List<ScheduleSlot>> generateWeeklySlots(String calendarId, int year, int week) {
+    return eventMetrics.time(WEEKLY_SLOTS,
+        () -> scheduleGenerator.generateWeeklySlots(occupancyProjector.findWeek(calendarId, year, week), calendarRules.forCalendar(calendarId)));
+  }
+
+  @Cacheable(cacheNames = ScheduleCacheInvalidator.DAILY_SLOTS_CACHE, sync = true)
+  public List<ScheduleSlot> collectDailySlots(String calendarId, LocalDate day) {
+    return eventMetrics.time(DAILY_SLOTS,
+        () -> scheduleGenerator.generateDailySlots(occupancyProjector.findDay(new CalendarDay(calendarId, day)), calendarRules.forCalendar(calendarId)));
+  }
+
+  public Stream<FreeSlot> findFreeSlots(String calendarId, DateRange range, int minDuration) {
+    EventRules rules = calendarRules.forCalendar(calendarId);
+    int minSlots = validateFreeSlotQuery(range, minDuration, rules);
+    Map<LocalDate, DayOccupancy> occupancies = eventMetrics.time(FREE_SLOT_SEARCH, () -> occupancyProjector.findRange(calendarId, range));
+    return range.from().datesUntil(range.to().plusDays(1))
+        .filter(rules::isBookable)
+        .flatMap(d -> scheduleGenerator.generateFreeSlotWindows(d, occupancies.getOrDefault(d, new DayOccupancy()), minSlots, rules).stream());
+  }
+
+  /**
+   * Windows of the range free in all of the calendars, found by or-ing the reserved slot masks of their days, within the
+   * rules every one of the calendars allows.
+   */
+  public Stream<FreeSlot> findCommonFreeSlots(Collection<String> calendarIds, DateRange range, int minDuration) {
+    EventRules rules = calendarRules.forCalendars(calendarIds);
+    int minSlots = validateFreeSlotQuery(range, minDuration, rules);
+    if (calendarIds.isEmpty() || calendarIds.size() > MAX_AVAILABILITY_CALENDARS)
+      throw new InvalidQueryException("Between 1 and " + MAX_AVAILABILITY_CALENDARS + " calendars can be searched at once");
+
+    long[] reserved = eventMetrics.time(AVAILABILITY_SEARCH, () -> occupancyProjector.findReservedMasks(calendarIds, range));
+    LocalDate from = range.from();
+    return IntStream.range(0, reserved.length)
+        .filter(i -> rules.isBookable(from.plusDays(i)))
+        .mapToObj(i -> scheduleGenerator.generateFreeSlotWindows(from.plusDays(i), DayOccupancy.of(reserved[i], 0L, null), minSlots, rules))
+        .flatMap(List::stream);
+  }
+
+  public String findEventForTime(String calendarId, LocalDateTime time) {
+    return eventMetrics.time(EVENT_LOOKUP, () -> eventIndex
+        .findEventAt(new CalendarDay(calendarId, time.toLocalDate()), time.toLocalTime())
+        .map(EventSlot::toString)
+        .orElseGet(() -> "Not reserved"));
+  }
+
+  /**
+   * @return the minimum duration in slots, whole granularity steps of the rules
+   */
+  private static int validateFreeSlotQuery(DateRange range, int minDuration, EventRules rules) {
+    if (range.from().until(range.to(), DAYS) >= MAX_FREE_SLOT_SEARCH_DAYS)
+      throw new InvalidQueryException("The range can be at most " + MAX_FREE_SLOT_SEARCH_DAYS + " days long");
+    if (minDuration < rules.minDuration() || minDuration > rules.maxDuration())
+      throw new InvalidQueryException("The minimum duration must be between " + rules.minDuration() + " and " + rules.maxDuration() + " minutes");
+    return rules.slotsFor(minDuration);
+  }
+
+  private EventCreationResult saveIfNotOverlapping(Event newEvent, Set<ValidationError> validationErrors) {
+    List<String> overLappingEvents = eventMetrics.time(OVERLAP_CHECK, () -> collectOverlappingEvents(newEvent));
+    if (!overLappingEvents.isEmpty()) validationErrors = withOverlap(validationErrors);
+
+    if (validationErrors.isEmpty()) {
+      Event savedEvent = eventMetrics.time(PERSISTENCE, () -> eventWriter.save(newEvent));
+      announce(List.of(savedEvent));
+      return new EventCreationResult(SUCCESS, List.of(), List.of(), savedEvent);
+    } else {
+      return new EventCreationResult(VALIDATION_FAILURE, validationErrors.stream().map(EventCreationError::of).toList(), overLappingEvents, null);
+    }
+  }
+
+  private void saveDailyBatch(List<PendingEvent> pendingEvents, EventCreationResult[] results) {
+    List<PendingEvent> acceptedEvents = new ArrayList<>();
+    for (PendingEvent pendingEvent : pendingEvents) {
+      Event newEvent = pendingEvent.event();
+      List<String> overLappingEvents = new ArrayList<>(eventMetrics.time(OVERLAP_CHECK, () -> collectOverlappingEvents(newEvent)));
+      acceptedEvents.stream()
+          .map(PendingEvent::event)
+          .filter(e -> eventValidator.eventsOverLap(newEvent, e))
+          .forEach(e -> overLappingEvents.add(e.toString()));
+
+      Set<ValidationError> validationErrors = pendingEvent.validationErrors();
+      if (!overLappingEvents.isEmpty()) validationErrors = withOverlap(validationErrors);
+      if (validationErrors.isEmpty()) {
+        acceptedEvents.add(pendingEvent);
+      } else {
+        results[pendingEvent.position()] = new EventCreationResult(VALIDATION_FAILURE,
+            validationErrors.stream().map(EventCreationError::of).toList(), overLappingEvents, null);
+      }
+    }
+
+    if (acceptedEvents.isEmpty()) return;
+    List<Event> eventsToSave = acceptedEvents.stream().map(PendingEvent::event).toList();
+    List<Event> savedEvents = List.copyOf(eventMetrics.time(PERSISTENCE, () -> eventWriter.saveAll(eventsToSave)));
+    for (int i = 0; i < acceptedEvents.size(); i++) {
+      results[acceptedEvents.get(i).position()] = new EventCreationResult(SUCCESS, List.of(), List.of(), savedEvents.get(i));
+    }
+    announce(savedEvents);
   }
 
-  private LocalDate generateDateFromYearWeekAndDay(int year, int week, DayOfWeek dayOfWeek) {
-    return LocalDate.of(year, 1, 1)
-        .with(IsoFields.WEEK_OF_WEEK_BASED_YEAR, week)
-        .with(TemporalAdjusters.previousOrSame(dayOfWeek));
+  /**
+   * Adds saved events of one day to the index, evicts the cached schedules and notifies the subscribers. The events are
+   * stored whatever fails here, so a failure does not fail their creation: it is logged, and the day is dropped from the
+   * index and the caches to be reloaded from the stored events.
+   */
+  private void announce(List<Event> savedEvents) {
+    try {
+      for (Event savedEvent : savedEvents) {
+        eventIndex.add(savedEvent);
+        scheduleCacheInvalidator.evictSchedulesOf(savedEvent);
+        scheduleChangeFeed.publish(savedEvent);
+      }
+    } catch (Exception e) {
+      CalendarDay day = CalendarDay.of(savedEvents.get(0));
+      try {
+        eventIndex.evict(day);
+        scheduleCacheInvalidator.evictSchedulesOf(savedEvents.get(0));
+      } catch (Exception repairFailure) {
+        e.addSuppressed(repairFailure);
+      }
+      log.error("Error announcing the calendar events saved on {}", day, e);
+    }
   }
 
   private List<String> collectOverlappingEvents(Event newEvent) {
-    return eventRepository.findAllByDate(newEvent.getDate())
+    return eventIndex.findOverlapCandidates(CalendarDay.of(newEvent), newEvent.getStart(), newEvent.getEnd())
         .stream()
         .filter(e -> eventValidator.eventsOverLap(newEvent, e))
-        .map(Event::toString)
+        .map(EventSlot::toString)
         .toList();
 
   }
+
+  private static Set<ValidationError> withOverlap(Set<ValidationError> validationErrors) {
+    Set<ValidationError> errors = EnumSet.of(OVERLAPPING_EVENTS);
+    errors.addAll(validationErrors);
+    return errors;
+  }
+
+  private record PendingEvent(int position, Event event, Set<ValidationError> validationErrors) { }
 }
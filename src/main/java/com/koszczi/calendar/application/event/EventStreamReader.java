@@ -0,0 +1,92 @@
+package com.koszczi.calendar.application.event;
+
+import com.koszczi.calendar.application.event.archive.EventArchive;
+import com.koszczi.calendar.application.event.dto.DateRange;
+import com.koszczi.calendar.model.event.Event;
+import com.koszczi.calendar.model.event.EventRepository;
+import com.koszczi.calendar.model.event.EventSlot;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Hands the events of a calendar in a date range over one by one, ordered by date and start. Every event is detached once it was
+ * consumed, so neither the persistence context nor the caller holds more than the current row. Slot projections are
+ * not managed at all and are the cheaper choice when the entity is not needed.
+ * Ranges reaching into the archived weeks merge the ordered rows of the hot table and of the {@link EventArchive}.
+ */
+@RequiredArgsConstructor
+@Service
+public class EventStreamReader {
+
+  private final EventRepository eventRepository;
+  private final EventArchive eventArchive;
+  private final EntityManager entityManager;
+
+  /**
+   * The range between the bounds, a missing one replaced by the first or last stored date of the calendar, so an
+   * unbounded side leaves no event out however far from today it lies.
+   */
+  @Transactional(readOnly = true)
+  public DateRange rangeOf(String calendarId, LocalDate from, LocalDate to) {
+    LocalDate first = from != null ? from : Stream.of(eventRepository.findFirstDate(calendarId), eventArchive.findFirstDate(calendarId),
+        Optional.ofNullable(to)).flatMap(Optional::stream).min(Comparator.naturalOrder()).orElse(LocalDate.EPOCH);
+    LocalDate last = to != null ? to : Stream.of(eventRepository.findLastDate(calendarId), eventArchive.findLastDate(calendarId),
+        Optional.of(first)).flatMap(Optional::stream).max(Comparator.naturalOrder()).orElseThrow();
+    return new DateRange(first, last);
+  }
+
+  @Transactional(readOnly = true)
+  public void forEachEvent(String calendarId, DateRange range, Consumer<Event> action) {
+    try (Stream<Event> events = eventRepository.streamAllByCalendarIdAndDateBetweenOrderByDateAscStartAsc(calendarId, range.from(), range.to());
+         Stream<Event> archivedEvents = eventArchive.streamEvents(calendarId, range).map(archivedEvent -> {
+           entityManager.detach(archivedEvent);
+           return archivedEvent.toEvent();
+         })) {
+      forEachMerged(events.iterator(), archivedEvents.iterator(), Event::getDate, Event::getStart, event -> {
+        action.accept(event);
+        entityManager.detach(event);
+      });
+    }
+  }
+
+  @Transactional(readOnly = true)
+  public void forEachSlot(String calendarId, DateRange range, Consumer<EventSlot> action) {
+    try (Stream<EventSlot> slots = eventRepository.streamSlotsByCalendarIdAndDateBetweenOrderByDateAscStartAsc(calendarId, range.from(), range.to());
+         Stream<EventSlot> archivedSlots = eventArchive.streamSlots(calendarId, range)) {
+      forEachMerged(slots.iterator(), archivedSlots.iterator(), EventSlot::date, EventSlot::start, action);
+    }
+  }
+
+  /**
+   * Events of a calendar never overlap, so rows of both tables with the same date and start are the same event, read
+   * twice while it was being moved.
+   */
+  private static <T> void forEachMerged(Iterator<T> hot, Iterator<T> archived, Function<T, LocalDate> date,
+                                        Function<T, LocalTime> start, Consumer<T> action) {
+    Comparator<T> order = Comparator.comparing(date).thenComparing(start);
+    T nextHot = hot.hasNext() ? hot.next() : null;
+    T nextArchived = archived.hasNext() ? archived.next() : null;
+    while (nextHot != null || nextArchived != null) {
+      int comparison = nextHot == null ? 1 : nextArchived == null ? -1 : order.compare(nextHot, nextArchived);
+      if (comparison <= 0) {
+        action.accept(nextHot);
+        nextHot = hot.hasNext() ? hot.next() : null;
+      }
+      if (comparison >= 0) {
+        if (comparison > 0) action.accept(nextArchived);
+        nextArchived = archived.hasNext() ? archived.next() : null;
+      }
+    }
+  }
+}
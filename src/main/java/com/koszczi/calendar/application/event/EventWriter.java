@@ -0,0 +1,37 @@
+package com.koszczi.calendar.application.event;
+
+import com.koszczi.calendar.application.event.projection.OccupancyProjector;
+import com.koszczi.calendar.model.event.Event;
+import com.koszczi.calendar.model.event.EventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Inserts events together with the occupancy projection of their days, in one transaction.
+ */
+@RequiredArgsConstructor
+@Service
+public class EventWriter {
+
+  private final EventRepository eventRepository;
+  private final OccupancyProjector occupancyProjector;
+
+  @Transactional
+  public Event save(Event event) {
+    Event savedEvent = eventRepository.save(event);
+    occupancyProjector.project(List.of(savedEvent));
+    return savedEvent;
+  }
+
+  @Transactional
+  public List<Event> saveAll(List<Event> events) {
+    List<Event> savedEvents = new ArrayList<>(events.size());
+    eventRepository.saveAll(events).forEach(savedEvents::add);
+    occupancyProjector.project(savedEvents);
+    return savedEvents;
+  }
+}
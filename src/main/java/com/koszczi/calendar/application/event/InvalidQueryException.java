@@ -0,0 +1,8 @@
+package com.koszczi.calendar.application.event;
+
+public class InvalidQueryException extends RuntimeException {
+
+  public InvalidQueryException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,63 @@
+package com.koszczi.calendar.application.event;
+
+import com.koszczi.calendar.application.event.validation.EventRules;
+import com.koszczi.calendar.model.event.Event;
+import com.koszczi.calendar.model.event.IsoWeeks;
+import com.koszczi.calendar.model.event.RecurringEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.stereotype.Service;
+
+/**
+ * Evicts the cached schedules a new event shows up in: the schedules of its day and of its week in its calendar, in both
+ * formats. The {@link ScheduleStamps} of the day and week move with them, invalidating the copies cached by clients.
+ */
+@RequiredArgsConstructor
+@Service
+public class ScheduleCacheInvalidator {
+
+  public static final String WEEKLY_SCHEDULE_CACHE = "weeklySchedule";
+  public static final String DAILY_FREE_SLOTS_CACHE = "dailyFreeSlots";
+  public static final String WEEKLY_SLOTS_CACHE = "weeklySlots";
+  public static final String DAILY_SLOTS_CACHE = "dailySlots";
+
+  private final CacheManager cacheManager;
+  private final ScheduleStamps scheduleStamps;
+
+  public void evictSchedulesOf(Event event) {
+    SimpleKey day = new SimpleKey(event.getCalendarId(), event.getDate());
+    SimpleKey week = new SimpleKey(event.getCalendarId(), event.getYear(), event.getWeek());
+    evict(DAILY_FREE_SLOTS_CACHE, day);
+    evict(DAILY_SLOTS_CACHE, day);
+    evict(WEEKLY_SCHEDULE_CACHE, week);
+    evict(WEEKLY_SLOTS_CACHE, week);
+    scheduleStamps.touch(event.getCalendarId(), event.getDate(), event.getYear(), event.getWeek());
+  }
+
+  /**
+   * Evicts the schedules of every occurrence, at most two years of days and weeks.
+   *
+   * @param rules the rules of the calendar of the event
+   */
+  public void evictSchedulesOf(RecurringEvent recurringEvent, EventRules rules) {
+    String calendarId = recurringEvent.getCalendarId();
+    recurringEvent.occurrencesBetween(recurringEvent.getFirstDate(), recurringEvent.getLastDate(), rules::isBookable).forEach(date -> {
+      int year = IsoWeeks.yearOf(date);
+      int weekOfYear = IsoWeeks.weekOf(date);
+      SimpleKey day = new SimpleKey(calendarId, date);
+      SimpleKey week = new SimpleKey(calendarId, year, weekOfYear);
+      evict(DAILY_FREE_SLOTS_CACHE, day);
+      evict(DAILY_SLOTS_CACHE, day);
+      evict(WEEKLY_SCHEDULE_CACHE, week);
+      evict(WEEKLY_SLOTS_CACHE, week);
+      scheduleStamps.touch(calendarId, date, year, weekOfYear);
+    });
+  }
+
+  private void evict(String cacheName, Object key) {
+    Cache cache = cacheManager.getCache(cacheName);
+    if (cache != null) cache.evict(key);
+  }
+}
@@ -1,66 +1,117 @@
 package com.koszczi.calendar.application.event;
 
-import com.koszczi.calendar.model.event.Event;
+import com.koszczi.calendar.application.event.dto.FreeSlot;
+import com.koszczi.calendar.application.event.dto.ScheduleSlot;
+import com.koszczi.calendar.application.event.validation.EventRules;
 import org.springframework.stereotype.Service;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static com.koszczi.calendar.application.event.DayOccupancy.SLOTS_PER_DAY;
+import static com.koszczi.calendar.application.event.DayOccupancy.timeOf;
+import static com.koszczi.calendar.application.event.dto.SlotType.FREE;
+import static com.koszczi.calendar.application.event.dto.SlotType.RESERVED;
 
 @Service
 public class ScheduleGenerator {
 
-  public static final String DUMMY_CREATOR = "DOES NOT MATTER";
   public static final String FREE_SLOT = "Free slot between ";
   public static final String RESERVED_SLOT = "Reserved slot between ";
-  private static final LocalTime EIGHT_AM = LocalTime.of(8, 0, 0);
-  private static final LocalTime NINE_AM = LocalTime.of(9, 0, 0);
-  private static final LocalTime FIVE_PM = LocalTime.of(17, 0, 0);
-  private static final LocalTime SIX_PM = LocalTime.of(18, 0, 0);
+  private static final DayOfWeek[] DAYS = DayOfWeek.values();
+
+  private static final String[][] FREE_SLOT_TEXTS = slotTexts(FREE_SLOT);
+  private static final String[][] RESERVED_SLOT_TEXTS = slotTexts(RESERVED_SLOT);
+  private static final ScheduleSlot[][] FREE_SLOTS = freeSlots();
 
-  public List<String> generateDailySchedule(LocalDate day, Collection<Event> dailyEvents) {
+  /**
+   * The schedule within the working hours of the rules.
+   */
+  public List<String> generateDailySchedule(DayOccupancy occupancy, EventRules rules) {
     List<String> result = new ArrayList<>();
-    List<Event> orderedEvents = getOrderedListOfEventsWithDummyAtMorningAndEvening(day, dailyEvents);
-    for (int i = 1; i < orderedEvents.size(); i++) {
-      if (!orderedEvents.get(i - 1).getEnd().equals(orderedEvents.get(i).getStart())) {
-        result.add((new StringBuilder()).append(FREE_SLOT)
-            .append(orderedEvents.get(i - 1).getEnd())
-            .append(" and ")
-            .append(orderedEvents.get(i).getStart())
-            .toString()
-        );
-      }
-      if (i == orderedEvents.size() - 1) {
-        break;
-      }
-      else {
-        result.add((new StringBuilder()).append(RESERVED_SLOT)
-            .append(orderedEvents.get(i).getStart())
-            .append(" and ")
-            .append(orderedEvents.get(i).getEnd())
-            .toString()
-        );
-      }
-    }
+    occupancy.forEachRun(rules.firstSlot(), rules.lastSlot(), (from, to, reserved) -> result.add(reserved ? RESERVED_SLOT_TEXTS[from][to] : FREE_SLOT_TEXTS[from][to]));
     return result;
   }
 
-  private List<Event> getOrderedListOfEventsWithDummyAtMorningAndEvening(LocalDate day, Collection<Event> rawEventCollection) {
-    List<Event> events = new ArrayList<>(rawEventCollection.size() + 2);
-    LocalDateTime morningDummyEventStart = LocalDateTime.of(day, EIGHT_AM);
-    LocalDateTime morningDummyEventEnd = LocalDateTime.of(day, NINE_AM);
-    events.add(new Event(morningDummyEventStart, morningDummyEventEnd, DUMMY_CREATOR));
+  public List<ScheduleSlot> generateDailySlots(DayOccupancy occupancy, EventRules rules) {
+    List<ScheduleSlot> result = new ArrayList<>();
+    occupancy.forEachRun(rules.firstSlot(), rules.lastSlot(), (from, to, reserved) -> result.add(reserved
+        ? new ScheduleSlot(timeOf(from), timeOf(to), RESERVED, occupancy.eventIdAt(from))
+        : FREE_SLOTS[from][to]));
+    return result;
+  }
 
-    events.addAll(rawEventCollection.stream().sorted(Comparator.comparing(Event::getStart)).toList());
+  public List<String> generateFreeSlots(DayOccupancy occupancy, EventRules rules) {
+    List<String> result = new ArrayList<>();
+    occupancy.forEachRun(rules.firstSlot(), rules.lastSlot(), (from, to, reserved) -> {
+      if (!reserved) result.add(FREE_SLOT_TEXTS[from][to]);
+    });
+    return result;
+  }
 
-    LocalDateTime eveningDummyEventStart = LocalDateTime.of(day, FIVE_PM);
-    LocalDateTime eveningDummyEventEnd = LocalDateTime.of(day, SIX_PM);
-    events.add(new Event(eveningDummyEventStart, eveningDummyEventEnd, DUMMY_CREATOR));
+  /**
+   * Free windows of at least {@code minSlots} slots within the working hours, none on days that cannot be booked. The
+   * windows are narrowed to the granularity of the rules, so every one of them can be booked as it is.
+   */
+  public List<FreeSlot> generateFreeSlotWindows(LocalDate day, DayOccupancy occupancy, int minSlots, EventRules rules) {
+    if (!rules.isBookable(day)) return List.of();
+    int origin = rules.firstSlot();
+    int step = rules.granularitySlots();
+    List<FreeSlot> result = new ArrayList<>();
+    occupancy.forEachRun(origin, rules.lastSlot(), (from, to, reserved) -> {
+      if (reserved) return;
+      int start = origin + Math.ceilDiv(from - origin, step) * step;
+      int end = origin + Math.floorDiv(to - origin, step) * step;
+      if (end - start >= minSlots) result.add(new FreeSlot(day, timeOf(start), timeOf(end)));
+    });
+    return result;
+  }
 
-    return events;
+  /**
+   * @param occupancies occupancies of the seven days of the week indexed by {@code DayOfWeek.ordinal()}, the working days
+   *                    of the rules are listed
+   */
+  public Map<DayOfWeek, List<String>> generateWeeklySchedule(DayOccupancy[] occupancies, EventRules rules) {
+    Map<DayOfWeek, List<String>> weeklySchedule = new TreeMap<>();
+    for (DayOfWeek day : DAYS) {
+      if (rules.isWorkingDay(day)) weeklySchedule.put(day, generateDailySchedule(occupancies[day.ordinal()], rules));
+    }
+    return weeklySchedule;
+  }
+
+  /**
+   * @param occupancies occupancies of the seven days of the week indexed by {@code DayOfWeek.ordinal()}, the working days
+   *                    of the rules are listed
+   */
+  public Map<DayOfWeek, List<ScheduleSlot>> generateWeeklySlots(DayOccupancy[] occupancies, EventRules rules) {
+    Map<DayOfWeek, List<ScheduleSlot>> weeklySlots = new TreeMap<>();
+    for (DayOfWeek day : DAYS) {
+      if (rules.isWorkingDay(day)) weeklySlots.put(day, generateDailySlots(occupancies[day.ordinal()], rules));
+    }
+    return weeklySlots;
+  }
+
+  private static String[][] slotTexts(String prefix) {
+    String[][] texts = new String[SLOTS_PER_DAY + 1][SLOTS_PER_DAY + 1];
+    for (int from = 0; from < SLOTS_PER_DAY; from++) {
+      for (int to = from + 1; to <= SLOTS_PER_DAY; to++) {
+        texts[from][to] = prefix + timeOf(from) + " and " + timeOf(to);
+      }
+    }
+    return texts;
+  }
+
+  private static ScheduleSlot[][] freeSlots() {
+    ScheduleSlot[][] slots = new ScheduleSlot[SLOTS_PER_DAY + 1][SLOTS_PER_DAY + 1];
+    for (int from = 0; from < SLOTS_PER_DAY; from++) {
+      for (int to = from + 1; to <= SLOTS_PER_DAY; to++) {
+        slots[from][to] = new ScheduleSlot(timeOf(from), timeOf(to), FREE, null);
+      }
+    }
+    return slots;
   }
 }
@@ -0,0 +1,81 @@
+package com.koszczi.calendar.application.event;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Change stamps of the schedules, the entity tags clients validate their copies with. Every change of a day takes the
+ * next value of one clock as the stamp of the day, of its week and of its calendar, moved by the
+ * {@link ScheduleCacheInvalidator} right after the cached schedules are evicted. Reading a stamp is a map lookup, so an
+ * unchanged schedule is confirmed without reading any event. The stamps live in memory, a restart changes every tag.
+ * <p>
+ * At most {@code calendar.stamps.maximum-size} stamps are kept. Evicting one raises the floor every missing stamp reads
+ * as to at least the evicted value, so the tag of an evicted day never goes back to one handed out before its last
+ * change. Days without a stamp of their own only get a new tag more often than needed.
+ */
+@Service
+public class ScheduleStamps {
+
+  private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+  private final AtomicLong clock = new AtomicLong();
+  private final AtomicLong evicted = new AtomicLong();
+  private final Cache<SimpleKey, Long> stamps;
+
+  public ScheduleStamps(@Value("${calendar.stamps.maximum-size:100000}") long maximumSize) {
+    this.stamps = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .evictionListener((SimpleKey key, Long stamp, RemovalCause cause) -> evicted.accumulateAndGet(stamp, Math::max))
+        .build();
+  }
+
+  public String dayTag(String calendarId, LocalDate date) {
+    return tagOf(stampOf(new SimpleKey(calendarId, date)));
+  }
+
+  public String weekTag(String calendarId, int year, int week) {
+    return tagOf(stampOf(new SimpleKey(calendarId, year, week)));
+  }
+
+  /**
+   * A tag changing with any day of the calendars, for queries over ranges of days.
+   */
+  public String calendarsTag(Collection<String> calendarIds) {
+    long stamp = 0;
+    for (String calendarId : calendarIds) stamp = Math.max(stamp, stampOf(new SimpleKey(calendarId)));
+    return tagOf(stamp);
+  }
+
+  void touch(String calendarId, LocalDate date, int year, int week) {
+    long stamp = clock.incrementAndGet();
+    stamps.put(new SimpleKey(calendarId, date), stamp);
+    stamps.put(new SimpleKey(calendarId, year, week), stamp);
+    stamps.put(new SimpleKey(calendarId), stamp);
+  }
+
+  /**
+   * Removes the stamps over the maximum size right away instead of on a later access.
+   */
+  void cleanUp() {
+    stamps.cleanUp();
+  }
+
+  /**
+   * The eviction listener runs before the entry leaves the map, so the floor read after a miss covers the missing stamp.
+   */
+  private long stampOf(SimpleKey key) {
+    Long stamp = stamps.getIfPresent(key);
+    return stamp != null ? stamp : evicted.get();
+  }
+
+  private String tagOf(long stamp) {
+    return epoch + "-" + stamp;
+  }
+}
@@ -0,0 +1,95 @@
+package com.koszczi.calendar.application.event.archive;
+
+import com.koszczi.calendar.application.event.dto.DateRange;
+import com.koszczi.calendar.model.event.ArchivedEvent;
+import com.koszczi.calendar.model.event.ArchivedEventRepository;
+import com.koszczi.calendar.model.event.EventRepository;
+import com.koszczi.calendar.model.event.EventSlot;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * The events of past weeks moved from {@code calendar_events} to {@code calendar_events_archive}, so the hot table and
+ * its indexes only hold the recent and upcoming weeks. Readers of a day query the hot table first and the archive second:
+ * a move commits after the days it covers were marked archived here, so an event missing from the first query is always
+ * found by the second. An event may then be read from both tables. Days after the archived ones never query the archive.
+ * Events created on archived days go to the hot table and are moved by the next run.
+ */
+@RequiredArgsConstructor
+@Service
+public class EventArchive {
+
+  private final ArchivedEventRepository archivedEventRepository;
+  private final EventRepository eventRepository;
+
+  private volatile LocalDate archivedBefore = LocalDate.MIN;
+
+  @PostConstruct
+  void loadArchivedDays() {
+    archivedEventRepository.findLastDate().ifPresent(last -> archivedBefore = last.plusDays(1));
+  }
+
+  public boolean covers(LocalDate date) {
+    return date.isBefore(archivedBefore);
+  }
+
+  public Optional<LocalDate> findFirstDate(String calendarId) {
+    return covers(LocalDate.MIN) ? archivedEventRepository.findFirstDate(calendarId) : Optional.empty();
+  }
+
+  public Optional<LocalDate> findLastDate(String calendarId) {
+    return covers(LocalDate.MIN) ? archivedEventRepository.findLastDate(calendarId) : Optional.empty();
+  }
+
+  public Collection<EventSlot> findSlots(String calendarId, LocalDate date) {
+    return covers(date) ? archivedEventRepository.findSlotsByCalendarIdAndDate(calendarId, date) : List.of();
+  }
+
+  public Collection<EventSlot> findSlots(String calendarId, Collection<LocalDate> dates) {
+    List<LocalDate> archivedDates = dates.stream().filter(this::covers).toList();
+    return archivedDates.isEmpty() ? List.of() : archivedEventRepository.findSlotsByCalendarIdAndDateIn(calendarId, archivedDates);
+  }
+
+  public Collection<EventSlot> findSlots(String calendarId, DateRange range, LocalTime startsBefore, LocalTime endsAfter) {
+    if (!covers(range.from())) return List.of();
+    return archivedEventRepository.findSlotsByCalendarIdAndDateBetweenAndStartBeforeAndEndAfter(
+        calendarId, range.from(), range.to(), startsBefore, endsAfter);
+  }
+
+  /**
+   * Archived events of the range ordered by date and start, to be merged with the ones of the hot table.
+   */
+  public Stream<ArchivedEvent> streamEvents(String calendarId, DateRange range) {
+    if (!covers(range.from())) return Stream.empty();
+    return archivedEventRepository.streamAllByCalendarIdAndDateBetweenOrderByDateAscStartAsc(calendarId, range.from(), range.to());
+  }
+
+  public Stream<EventSlot> streamSlots(String calendarId, DateRange range) {
+    if (!covers(range.from())) return Stream.empty();
+    return archivedEventRepository.streamSlotsByCalendarIdAndDateBetweenOrderByDateAscStartAsc(calendarId, range.from(), range.to());
+  }
+
+  /**
+   * Moves the events before a day to the archive one week at a time, returns the number of events moved.
+   */
+  public int archiveBefore(LocalDate before) {
+    LocalDate first = eventRepository.findFirstDate().orElse(before);
+    if (!first.isBefore(before)) return 0;
+    if (before.isAfter(archivedBefore)) archivedBefore = before;
+    int moved = 0;
+    for (LocalDate from = first; from.isBefore(before); from = from.plusWeeks(1)) {
+      LocalDate to = from.plusWeeks(1).isBefore(before) ? from.plusWeeks(1) : before;
+      archivedEventRepository.copyEventsBetween(from, to);
+      moved += archivedEventRepository.deleteArchivedEventsBetween(from, to);
+    }
+    return moved;
+  }
+}
@@ -0,0 +1,36 @@
+package com.koszczi.calendar.application.event.archive;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+/**
+ * Moves the events of the weeks ending more than {@code calendar.archive.keep-weeks} weeks ago to the {@link EventArchive}
+ * when it is set, shortly after start up and then every {@code calendar.archive.interval}.
+ */
+@Service
+@ConditionalOnProperty("calendar.archive.keep-weeks")
+@RequiredArgsConstructor
+@Slf4j
+public class EventArchiver {
+
+  private final EventArchive eventArchive;
+
+  @Value("${calendar.archive.keep-weeks}")
+  private int keepWeeks;
+
+  @Scheduled(initialDelayString = "${calendar.archive.initial-delay:PT1M}", fixedDelayString = "${calendar.archive.interval:PT1H}")
+  public void archive() {
+    LocalDate before = LocalDate.now().with(DayOfWeek.MONDAY).minusWeeks(Math.max(keepWeeks, 0));
+    long started = System.nanoTime();
+    int moved = eventArchive.archiveBefore(before);
+    if (moved > 0)
+      log.info("Archived {} events before {} in {} ms", moved, before, (System.nanoTime() - started) / 1_000_000);
+  }
+}
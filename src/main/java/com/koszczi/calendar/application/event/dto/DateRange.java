@@ -0,0 +1,13 @@
+package com.koszczi.calendar.application.event.dto;
+
+import com.koszczi.calendar.application.event.InvalidQueryException;
+
+import java.time.LocalDate;
+
+public record DateRange(LocalDate from, LocalDate to) {
+
+  public DateRange {
+    if (from == null || to == null) throw new InvalidQueryException("Both ends of the range are required");
+    if (to.isBefore(from)) throw new InvalidQueryException("The end of the range must not be before its start");
+  }
+}
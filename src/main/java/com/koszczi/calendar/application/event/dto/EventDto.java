@@ -1,5 +1,19 @@
 package com.koszczi.calendar.application.event.dto;
 
+import com.koszczi.calendar.model.event.Event;
+
 import java.time.LocalDateTime;
 
-public record EventDto(LocalDateTime startDateTime, LocalDateTime endDateTime, String organizer) { }
+/**
+ * An event to create. Without a calendar id the event goes to the {@link Event#DEFAULT_CALENDAR default calendar}.
+ */
+public record EventDto(LocalDateTime startDateTime, LocalDateTime endDateTime, String organizer, String calendarId) {
+
+  public EventDto {
+    if (calendarId == null) calendarId = Event.DEFAULT_CALENDAR;
+  }
+
+  public EventDto(LocalDateTime startDateTime, LocalDateTime endDateTime, String organizer) {
+    this(startDateTime, endDateTime, organizer, null);
+  }
+}
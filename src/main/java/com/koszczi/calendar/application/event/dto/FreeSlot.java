@@ -0,0 +1,6 @@
+package com.koszczi.calendar.application.event.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+public record FreeSlot(LocalDate date, LocalTime start, LocalTime end) { }
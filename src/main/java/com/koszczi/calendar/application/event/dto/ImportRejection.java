@@ -0,0 +1,9 @@
+package com.koszczi.calendar.application.event.dto;
+
+import java.util.Collection;
+
+/**
+ * A row of an import that was not stored. {@code line} is the line of the file the row starts on.
+ */
+public record ImportRejection(long line, EventCreationStatus status, Collection<EventCreationError> errors,
+                              Collection<String> overlappingEvents) { }
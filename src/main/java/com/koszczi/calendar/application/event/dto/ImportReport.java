@@ -0,0 +1,9 @@
+package com.koszczi.calendar.application.event.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of an import. {@code rejections} holds the rejected rows in line order, up to the first
+ * {@code EventImporter.MAX_REPORTED_REJECTIONS} of them; {@code rejected} counts all of them.
+ */
+public record ImportReport(long rows, long imported, long rejected, List<ImportRejection> rejections) { }
@@ -0,0 +1,7 @@
+package com.koszczi.calendar.application.event.dto;
+
+import com.koszczi.calendar.model.event.RecurringEvent;
+import java.util.Collection;
+
+public record RecurringEventCreationResult(EventCreationStatus status, Collection<EventCreationError> errors,
+                                           Collection<String> overlappingEvents, RecurringEvent newEvent) { }
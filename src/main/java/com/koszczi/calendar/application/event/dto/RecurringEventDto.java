@@ -0,0 +1,24 @@
+package com.koszczi.calendar.application.event.dto;
+
+import com.koszczi.calendar.model.event.Event;
+import com.koszczi.calendar.model.event.Recurrence;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A recurring event to create: the first occurrence and how it repeats, ending after {@code count} occurrences or on
+ * {@code until}. Without an interval the event repeats every day, week or month.
+ */
+public record RecurringEventDto(LocalDateTime startDateTime, LocalDateTime endDateTime, String organizer, String calendarId,
+                                Recurrence recurrence, Integer interval, Integer count, LocalDate until) {
+
+  public RecurringEventDto {
+    if (calendarId == null) calendarId = Event.DEFAULT_CALENDAR;
+    if (interval == null) interval = 1;
+  }
+
+  public EventDto firstOccurrence() {
+    return new EventDto(startDateTime, endDateTime, organizer, calendarId);
+  }
+}
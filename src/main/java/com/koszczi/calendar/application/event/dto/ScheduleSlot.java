@@ -0,0 +1,11 @@
+package com.koszczi.calendar.application.event.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalTime;
+
+/**
+ * One run of a schedule. Reserved runs carry the id of the event starting the run, free runs have none.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ScheduleSlot(LocalTime start, LocalTime end, SlotType type, Long eventId) { }
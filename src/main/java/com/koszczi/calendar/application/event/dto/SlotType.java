@@ -0,0 +1,6 @@
+package com.koszczi.calendar.application.event.dto;
+
+public enum SlotType {
+  FREE,
+  RESERVED
+}
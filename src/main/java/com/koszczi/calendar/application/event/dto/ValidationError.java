@@ -3,12 +3,15 @@ package com.koszczi.calendar.application.event.dto;
 import lombok.Getter;
 
 public enum ValidationError {
-  EVENT_TOO_SHORT("Event must be at least 30 minutes long"),
+  EVENT_TOO_SHORT("Event is too short"),
   EVENT_TOO_LONG("Event is too long"),
-  INVALID_TIME("Events can start/end at XX:00:00 or XX:30:00"),
-  NOT_WEEKDAY("Events can be created only for weekdays"),
-  OUT_OF_TIMERANGE("Events can be created between 9:30 and 17:00"),
-  OVERLAPPING_EVENTS("Event would overlap with other event(s)");
+  INVALID_TIME("Events must start and end on the time grid of the calendar"),
+  NOT_WEEKDAY("Events can be created only on the working days of the calendar"),
+  HOLIDAY("Events cannot be created on holidays"),
+  OUT_OF_TIMERANGE("Events can be created only within the working hours of the calendar"),
+  OVERLAPPING_EVENTS("Event would overlap with other event(s)"),
+  INVALID_CALENDAR("Calendar ids are 1 to 64 letters, digits, '.', '_' or '-'"),
+  INVALID_RECURRENCE("Recurring events repeat every 1 to 12 days, weeks or months, up to 500 times or until a date within two years");
 
   @Getter
   private String defaultMessage;
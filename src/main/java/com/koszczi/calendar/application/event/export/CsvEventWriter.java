@@ -0,0 +1,53 @@
+package com.koszczi.calendar.application.event.export;
+
+import com.koszczi.calendar.model.event.EventSlot;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * RFC 4180 CSV, one event per line: {@code id,date,start,end,organizer}.
+ */
+class CsvEventWriter extends EventExportWriter {
+
+  static final String HEADER = "id,date,start,end,organizer\r\n";
+
+  CsvEventWriter(Writer out) {
+    super(out);
+  }
+
+  @Override
+  void begin() throws IOException {
+    out.write(HEADER);
+  }
+
+  @Override
+  void write(EventSlot event) throws IOException {
+    out.write(String.valueOf(event.id()));
+    out.write(',');
+    writeDate(event.date(), true);
+    out.write(',');
+    writeTime(event.start(), true);
+    out.write(',');
+    writeTime(event.end(), true);
+    out.write(',');
+    writeField(event.organizer());
+    out.write("\r\n");
+  }
+
+  @Override
+  void end() {
+  }
+
+  private void writeField(String value) throws IOException {
+    if (value == null) return;
+    boolean quoted = value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+    if (!quoted) {
+      out.write(value);
+      return;
+    }
+    out.write('"');
+    out.write(value.replace("\"", "\"\""));
+    out.write('"');
+  }
+}
@@ -0,0 +1,54 @@
+package com.koszczi.calendar.application.event.export;
+
+import com.koszczi.calendar.model.event.EventSlot;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Base of the export formats. Dates and times are written digit by digit, without formatters or intermediate strings,
+ * as the export runs once per event.
+ */
+abstract class EventExportWriter {
+
+  protected final Writer out;
+
+  EventExportWriter(Writer out) {
+    this.out = out;
+  }
+
+  abstract void begin() throws IOException;
+
+  abstract void write(EventSlot event) throws IOException;
+
+  abstract void end() throws IOException;
+
+  protected void writeDigits(int value, int digits) throws IOException {
+    for (int divisor = pow10(digits - 1); divisor > 0; divisor /= 10) {
+      out.write('0' + value / divisor % 10);
+    }
+  }
+
+  protected void writeDate(LocalDate date, boolean separated) throws IOException {
+    writeDigits(date.getYear(), 4);
+    if (separated) out.write('-');
+    writeDigits(date.getMonthValue(), 2);
+    if (separated) out.write('-');
+    writeDigits(date.getDayOfMonth(), 2);
+  }
+
+  protected void writeTime(LocalTime time, boolean separated) throws IOException {
+    writeDigits(time.getHour(), 2);
+    if (separated) out.write(':');
+    writeDigits(time.getMinute(), 2);
+    if (!separated) writeDigits(time.getSecond(), 2);
+  }
+
+  private static int pow10(int exponent) {
+    int result = 1;
+    for (int i = 0; i < exponent; i++) result *= 10;
+    return result;
+  }
+}
@@ -0,0 +1,55 @@
+package com.koszczi.calendar.application.event.export;
+
+import com.koszczi.calendar.application.event.EventStreamReader;
+import com.koszczi.calendar.application.event.dto.DateRange;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.time.Clock;
+import java.time.LocalDate;
+
+/**
+ * Streams the events of a calendar in a range, in date and start order, into an export format. Nothing but the current row is held,
+ * the given writer is expected to be buffered. The export time written into the formats comes from the given clock.
+ */
+@RequiredArgsConstructor
+@Service
+public class EventExporter {
+
+  private final EventStreamReader eventStreamReader;
+  private final Clock clock;
+
+  /**
+   * The range of the optional bounds, reaching the first or last event of the calendar on the missing sides.
+   */
+  public DateRange rangeOf(String calendarId, LocalDate from, LocalDate to) {
+    return eventStreamReader.rangeOf(calendarId, from, to);
+  }
+
+  /**
+   * @return the number of exported events
+   */
+  public long export(String calendarId, DateRange range, ExportFormat format, Writer out) throws IOException {
+    EventExportWriter writer = format.writerFor(out, clock.instant());
+    long[] count = new long[1];
+    writer.begin();
+    try {
+      eventStreamReader.forEachSlot(calendarId, range, event -> {
+        try {
+          writer.write(event);
+          count[0]++;
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    writer.end();
+    out.flush();
+    return count[0];
+  }
+}
@@ -0,0 +1,33 @@
+package com.koszczi.calendar.application.event.export;
+
+import java.io.Writer;
+import java.time.Instant;
+
+public enum ExportFormat {
+
+  ICS("text/calendar", "ics"),
+  CSV("text/csv", "csv");
+
+  private final String contentType;
+  private final String fileExtension;
+
+  ExportFormat(String contentType, String fileExtension) {
+    this.contentType = contentType;
+    this.fileExtension = fileExtension;
+  }
+
+  public String contentType() {
+    return contentType;
+  }
+
+  public String fileExtension() {
+    return fileExtension;
+  }
+
+  EventExportWriter writerFor(Writer out, Instant exportTime) {
+    return switch (this) {
+      case ICS -> new IcsEventWriter(out, exportTime);
+      case CSV -> new CsvEventWriter(out);
+    };
+  }
+}
@@ -0,0 +1,82 @@
+package com.koszczi.calendar.application.event.export;
+
+import com.koszczi.calendar.model.event.EventSlot;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * RFC 5545 iCalendar with one VEVENT per event. Times are floating local times, as the events carry no zone.
+ */
+class IcsEventWriter extends EventExportWriter {
+
+  static final String UID_DOMAIN = "@calendar.koszczi.com";
+  private static final int MAX_LINE_LENGTH = 75;
+
+  private final LocalDateTime exportTime;
+
+  IcsEventWriter(Writer out, Instant exportTime) {
+    super(out);
+    this.exportTime = LocalDateTime.ofInstant(exportTime, ZoneOffset.UTC);
+  }
+
+  @Override
+  void begin() throws IOException {
+    out.write("BEGIN:VCALENDAR\r\nVERSION:2.0\r\nPRODID:-//koszczi//calendar//EN\r\n");
+  }
+
+  @Override
+  void write(EventSlot event) throws IOException {
+    out.write("BEGIN:VEVENT\r\nUID:");
+    out.write(String.valueOf(event.id()));
+    out.write(UID_DOMAIN);
+    out.write("\r\nDTSTAMP:");
+    writeDate(exportTime.toLocalDate(), false);
+    out.write('T');
+    writeTime(exportTime.toLocalTime(), false);
+    out.write("Z\r\nDTSTART:");
+    writeDate(event.date(), false);
+    out.write('T');
+    writeTime(event.start(), false);
+    out.write("\r\nDTEND:");
+    writeDate(event.date(), false);
+    out.write('T');
+    writeTime(event.end(), false);
+    out.write("\r\n");
+    writeTextLine("SUMMARY:", event.organizer() == null ? "" : event.organizer());
+    out.write("END:VEVENT\r\n");
+  }
+
+  @Override
+  void end() throws IOException {
+    out.write("END:VCALENDAR\r\n");
+  }
+
+  private void writeTextLine(String name, String value) throws IOException {
+    out.write(name);
+    int lineLength = name.length();
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      String escaped = switch (c) {
+        case '\\' -> "\\\\";
+        case ';' -> "\\;";
+        case ',' -> "\\,";
+        case '\n' -> "\\n";
+        case '\r' -> "";
+        default -> null;
+      };
+      int length = escaped == null ? 1 : escaped.length();
+      if (lineLength + length > MAX_LINE_LENGTH) {
+        out.write("\r\n ");
+        lineLength = 1;
+      }
+      if (escaped == null) out.write(c);
+      else out.write(escaped);
+      lineLength += length;
+    }
+    out.write("\r\n");
+  }
+}
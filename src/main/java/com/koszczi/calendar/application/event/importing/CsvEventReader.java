@@ -0,0 +1,87 @@
+package com.koszczi.calendar.application.event.importing;
+
+import com.koszczi.calendar.application.event.dto.EventDto;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RFC 4180 CSV as exported: {@code id,date,start,end,organizer}, the header line being optional. The id column is
+ * ignored, imported events get new ids.
+ */
+class CsvEventReader extends EventImportReader {
+
+  static final String HEADER = "id,date,start,end,organizer";
+  private static final int FIELDS = 5;
+
+  private boolean started;
+
+  CsvEventReader(BufferedReader in) {
+    super(in);
+  }
+
+  @Override
+  ImportedRow next() throws IOException {
+    String line = readLine();
+    if (!started) {
+      started = true;
+      if (line != null && line.equalsIgnoreCase(HEADER)) line = readLine();
+    }
+    while (line != null && line.isEmpty()) line = readLine();
+    if (line == null) return null;
+
+    long firstLine = lineNumber;
+    List<String> fields = new ArrayList<>(FIELDS);
+    StringBuilder field = new StringBuilder();
+    boolean quoted = false;
+    int i = 0;
+    while (true) {
+      if (i == line.length()) {
+        if (!quoted) break;
+        line = readLine();
+        if (line == null) return ImportedRow.unreadable(firstLine, "Unterminated quoted field");
+        field.append('\n');
+        i = 0;
+        continue;
+      }
+      char c = line.charAt(i++);
+      if (quoted) {
+        if (c != '"') {
+          field.append(c);
+        } else if (i < line.length() && line.charAt(i) == '"') {
+          field.append('"');
+          i++;
+        } else {
+          quoted = false;
+        }
+      } else if (c == '"') {
+        quoted = true;
+      } else if (c == ',') {
+        fields.add(field.toString());
+        field.setLength(0);
+      } else {
+        field.append(c);
+      }
+    }
+    fields.add(field.toString());
+    return toRow(firstLine, fields);
+  }
+
+  private static ImportedRow toRow(long line, List<String> fields) {
+    if (fields.size() != FIELDS)
+      return ImportedRow.unreadable(line, "Expected " + FIELDS + " fields but found " + fields.size());
+    String dateField = fields.get(1);
+    LocalDate date = dateField.length() == 10 ? parseDate(dateField, 0, true) : null;
+    if (date == null) return ImportedRow.unreadable(line, "Invalid date: " + dateField);
+    LocalTime start = parseTime(fields.get(2), 0, fields.get(2).length(), true);
+    if (start == null) return ImportedRow.unreadable(line, "Invalid start: " + fields.get(2));
+    LocalTime end = parseTime(fields.get(3), 0, fields.get(3).length(), true);
+    if (end == null) return ImportedRow.unreadable(line, "Invalid end: " + fields.get(3));
+    return ImportedRow.of(line, new EventDto(LocalDateTime.of(date, start), LocalDateTime.of(date, end), fields.get(4)));
+  }
+}
@@ -0,0 +1,91 @@
+package com.koszczi.calendar.application.event.importing;
+
+import com.koszczi.calendar.application.event.export.ExportFormat;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Base of the import formats, reading the files the export writes. Like the writers, dates and times are parsed digit
+ * by digit instead of through formatters.
+ */
+abstract class EventImportReader {
+
+  protected final BufferedReader in;
+  protected long lineNumber;
+
+  EventImportReader(BufferedReader in) {
+    this.in = in;
+  }
+
+  static EventImportReader of(ExportFormat format, BufferedReader in) {
+    return switch (format) {
+      case ICS -> new IcsEventReader(in);
+      case CSV -> new CsvEventReader(in);
+    };
+  }
+
+  /**
+   * @return the next row or {@code null} at the end of the input
+   */
+  abstract ImportedRow next() throws IOException;
+
+  protected String readLine() throws IOException {
+    String line = in.readLine();
+    if (line != null) lineNumber++;
+    return line;
+  }
+
+  /**
+   * @return the value of the digits or -1 if any of them is not a digit
+   */
+  protected static int parseDigits(CharSequence text, int from, int digits) {
+    if (from + digits > text.length()) return -1;
+    int value = 0;
+    for (int i = from; i < from + digits; i++) {
+      int digit = text.charAt(i) - '0';
+      if (digit < 0 || digit > 9) return -1;
+      value = value * 10 + digit;
+    }
+    return value;
+  }
+
+  /**
+   * Parses {@code yyyy-MM-dd} or, without separators, {@code yyyyMMdd}; {@code null} if the text is neither.
+   */
+  protected static LocalDate parseDate(CharSequence text, int from, boolean separated) {
+    int step = separated ? 1 : 0;
+    int length = 8 + 2 * step;
+    if (text.length() < from + length) return null;
+    if (separated && (text.charAt(from + 4) != '-' || text.charAt(from + 7) != '-')) return null;
+    int year = parseDigits(text, from, 4);
+    int month = parseDigits(text, from + 4 + step, 2);
+    int day = parseDigits(text, from + 6 + 2 * step, 2);
+    if (year < 0 || month < 0 || day < 0) return null;
+    try {
+      return LocalDate.of(year, month, day);
+    } catch (DateTimeException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Parses {@code HH:mm} with optional {@code :ss} or, without separators, {@code HHmmss}; {@code null} if the text is
+   * neither.
+   */
+  protected static LocalTime parseTime(CharSequence text, int from, int to, boolean separated) {
+    int step = separated ? 1 : 0;
+    int length = to - from;
+    boolean withSeconds = length == 6 + 2 * step;
+    if (!withSeconds && (!separated || length != 5)) return null;
+    if (separated && (text.charAt(from + 2) != ':' || withSeconds && text.charAt(from + 5) != ':')) return null;
+    int hour = parseDigits(text, from, 2);
+    int minute = parseDigits(text, from + 2 + step, 2);
+    int second = withSeconds ? parseDigits(text, from + 4 + 2 * step, 2) : 0;
+    if (hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) return null;
+    return LocalTime.of(hour, minute, second);
+  }
+}
@@ -0,0 +1,314 @@
+package com.koszczi.calendar.application.event.importing;
+
+import com.koszczi.calendar.application.event.EventMetrics;
+import com.koszczi.calendar.application.event.EventWriter;
+import com.koszczi.calendar.application.event.ScheduleCacheInvalidator;
+import com.koszczi.calendar.application.event.dto.EventCreationError;
+import com.koszczi.calendar.application.event.dto.EventCreationStatus;
+import com.koszczi.calendar.application.event.dto.EventDto;
+import com.koszczi.calendar.application.event.dto.ImportRejection;
+import com.koszczi.calendar.application.event.dto.ImportReport;
+import com.koszczi.calendar.application.event.dto.ValidationError;
+import com.koszczi.calendar.application.event.export.ExportFormat;
+import com.koszczi.calendar.application.event.index.EventIndex;
+import com.koszczi.calendar.application.event.locking.DateLocks;
+import com.koszczi.calendar.application.event.subscription.ScheduleChangeFeed;
+import com.koszczi.calendar.application.event.validation.EventValidator;
+import com.koszczi.calendar.model.event.CalendarDay;
+import com.koszczi.calendar.model.event.Event;
+import com.koszczi.calendar.model.event.EventSlot;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+import static com.koszczi.calendar.application.event.dto.EventCreationStatus.ERROR;
+import static com.koszczi.calendar.application.event.dto.EventCreationStatus.VALIDATION_FAILURE;
+import static com.koszczi.calendar.application.event.dto.ValidationError.OVERLAPPING_EVENTS;
+
+/**
+ * Bulk import of an ICS or CSV file as a pipeline of concurrent stages connected by bounded queues of row chunks:
+ * <ol>
+ *   <li>parsing, on one thread, as the input is read sequentially,</li>
+ *   <li>validation with {@link EventValidator#validateDto}, on one thread per core,</li>
+ *   <li>overlap resolution, on {@link #PARTITIONS} threads each owning the days of one partition. An accepted event is
+ *   added to the {@link EventIndex} under the lock of its day right away, so it blocks overlapping rows of the import
+ *   and concurrent creations before it is stored,</li>
+ *   <li>persistence in batches of up to {@link #CHUNK_SIZE} events, one thread per partition, holding the locks of the
+ *   days of the batch.</li>
+ * </ol>
+ * A full queue blocks the stage feeding it, so a fast parser cannot run ahead of the database. Of two rows overlapping
+ * each other the one resolved first is imported. All rows go to the calendar the import is run for.
+ */
+@RequiredArgsConstructor
+@Slf4j
+@Service
+public class EventImporter {
+
+  public static final int MAX_REPORTED_REJECTIONS = 10_000;
+  public static final String UNREADABLE_ROW = "UNREADABLE_ROW";
+
+  static final int CHUNK_SIZE = 1000;
+  static final int QUEUE_CAPACITY = 16;
+  // divides the lock stripes, so the partitions never contend for each other's locks
+  static final int PARTITIONS = 4;
+
+  private final EventValidator eventValidator;
+  private final EventWriter eventWriter;
+  private final EventIndex eventIndex;
+  private final DateLocks dateLocks;
+  private final ScheduleCacheInvalidator scheduleCacheInvalidator;
+  private final ScheduleChangeFeed scheduleChangeFeed;
+  private final EventMetrics eventMetrics;
+  private final int validators = Runtime.getRuntime().availableProcessors();
+
+  public ImportReport importEvents(Reader in, ExportFormat format, String calendarId) throws IOException {
+    Timer.Sample sample = eventMetrics.startTimer();
+    EventImportReader reader = EventImportReader.of(format, in instanceof BufferedReader buffered ? buffered : new BufferedReader(in));
+    ImportReport report = new ImportRun(reader, calendarId).run();
+    eventMetrics.recordImport(sample, report);
+    return report;
+  }
+
+  private static int partitionOf(CalendarDay day) {
+    return DateLocks.stripeOf(day) % PARTITIONS;
+  }
+
+  private record PendingEvent(long line, Event event) { }
+
+  @FunctionalInterface
+  private interface Stage {
+    void run() throws Exception;
+  }
+
+  /**
+   * State of one import. An empty chunk marks the end of the input on every queue.
+   */
+  private class ImportRun {
+
+    private final EventImportReader reader;
+    private final String calendarId;
+    private final BlockingQueue<List<ImportedRow>> parsedRows = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final List<BlockingQueue<List<PendingEvent>>> validatedEvents = new ArrayList<>(PARTITIONS);
+    private final List<BlockingQueue<List<PendingEvent>>> acceptedEvents = new ArrayList<>(PARTITIONS);
+    private final AtomicInteger runningValidators = new AtomicInteger(validators);
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder imported = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final Lock rejectionLock = new ReentrantLock();
+    // the reported rejections with the highest line on top, so a lower line can replace it once the report is full
+    private final PriorityQueue<ImportRejection> rejections = new PriorityQueue<>(Comparator.comparingLong(ImportRejection::line).reversed());
+    // accepted events added to the index but not saved yet, by identity as unsaved events are all equal
+    private final Set<Event> reservedEvents = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+    private ExecutorService executor;
+
+    ImportRun(EventImportReader reader, String calendarId) {
+      this.reader = reader;
+      this.calendarId = calendarId;
+      for (int i = 0; i < PARTITIONS; i++) {
+        validatedEvents.add(new ArrayBlockingQueue<>(QUEUE_CAPACITY));
+        acceptedEvents.add(new ArrayBlockingQueue<>(QUEUE_CAPACITY));
+      }
+    }
+
+    ImportReport run() throws IOException {
+      // the stages spend most of their time blocked on the queues and the database, virtual threads cost no pool per import
+      ThreadFactory threadFactory = Thread.ofVirtual().name("event-import-", 0).factory();
+      try (ExecutorService stages = Executors.newThreadPerTaskExecutor(threadFactory)) {
+        executor = stages;
+        submit(this::parse);
+        for (int i = 0; i < validators; i++) submit(this::validate);
+        for (int i = 0; i < PARTITIONS; i++) {
+          int partition = i;
+          submit(() -> resolve(partition));
+          submit(() -> persist(partition));
+        }
+      }
+
+      Throwable cause = failure.get();
+      if (cause != null) releaseReservations();
+      if (cause instanceof IOException e) throw e;
+      if (cause instanceof UncheckedIOException e) throw e.getCause();
+      if (cause != null) throw new IllegalStateException("Error importing calendar events", cause);
+
+      List<ImportRejection> reportedRejections = new ArrayList<>(rejections);
+      reportedRejections.sort(Comparator.comparingLong(ImportRejection::line));
+      return new ImportReport(rows.sum(), imported.sum(), rejected.sum(), reportedRejections);
+    }
+
+    private void submit(Stage stage) {
+      try {
+        executor.execute(() -> {
+          try {
+            stage.run();
+          } catch (Throwable e) {
+            // the first failure stops the import, the others are the interrupts of the stages stopped by it
+            if (failure.compareAndSet(null, e)) executor.shutdownNow();
+          }
+        });
+      } catch (RejectedExecutionException e) {
+        if (failure.get() == null) throw e;
+      }
+    }
+
+    private void parse() throws IOException, InterruptedException {
+      List<ImportedRow> chunk = new ArrayList<>(CHUNK_SIZE);
+      for (ImportedRow row = reader.next(); row != null; row = reader.next()) {
+        rows.increment();
+        if (row.error() != null) {
+          reject(row.line(), VALIDATION_FAILURE, List.of(new EventCreationError(UNREADABLE_ROW, row.error())), List.of());
+          continue;
+        }
+        chunk.add(row);
+        if (chunk.size() == CHUNK_SIZE) {
+          parsedRows.put(chunk);
+          chunk = new ArrayList<>(CHUNK_SIZE);
+        }
+      }
+      if (!chunk.isEmpty()) parsedRows.put(chunk);
+      for (int i = 0; i < validators; i++) parsedRows.put(List.of());
+    }
+
+    private void validate() throws InterruptedException {
+      for (List<ImportedRow> chunk = parsedRows.take(); !chunk.isEmpty(); chunk = parsedRows.take()) {
+        List<List<PendingEvent>> partitions = new ArrayList<>(PARTITIONS);
+        for (int i = 0; i < PARTITIONS; i++) partitions.add(new ArrayList<>(chunk.size() / PARTITIONS + 1));
+        for (ImportedRow row : chunk) {
+          EventDto eventDto = new EventDto(row.event().startDateTime(), row.event().endDateTime(), row.event().organizer(), calendarId);
+          Set<ValidationError> validationErrors = eventValidator.validateDto(eventDto);
+          if (!validationErrors.isEmpty()) {
+            reject(row.line(), VALIDATION_FAILURE, validationErrors.stream().map(EventCreationError::of).toList(), List.of());
+            continue;
+          }
+          Event event = new Event(eventDto.calendarId(), eventDto.startDateTime(), eventDto.endDateTime(), eventDto.organizer());
+          partitions.get(partitionOf(CalendarDay.of(event))).add(new PendingEvent(row.line(), event));
+        }
+        for (int i = 0; i < PARTITIONS; i++) {
+          if (!partitions.get(i).isEmpty()) validatedEvents.get(i).put(partitions.get(i));
+        }
+      }
+      if (runningValidators.decrementAndGet() == 0) {
+        for (BlockingQueue<List<PendingEvent>> queue : validatedEvents) queue.put(List.of());
+      }
+    }
+
+    private void resolve(int partition) throws InterruptedException {
+      BlockingQueue<List<PendingEvent>> in = validatedEvents.get(partition);
+      BlockingQueue<List<PendingEvent>> out = acceptedEvents.get(partition);
+      for (List<PendingEvent> chunk = in.take(); !chunk.isEmpty(); chunk = in.take()) {
+        eventIndex.load(calendarId, chunk.stream().map(p -> p.event().getDate()).collect(Collectors.toSet()));
+        List<PendingEvent> accepted = new ArrayList<>(chunk.size());
+        for (PendingEvent pendingEvent : chunk) {
+          Event event = pendingEvent.event();
+          List<String> overlappingEvents = dateLocks.withLock(CalendarDay.of(event), () -> reserveIfNotOverlapping(event));
+          if (overlappingEvents.isEmpty()) accepted.add(pendingEvent);
+          else reject(pendingEvent.line(), VALIDATION_FAILURE, List.of(EventCreationError.of(OVERLAPPING_EVENTS)), overlappingEvents);
+        }
+        if (!accepted.isEmpty()) out.put(accepted);
+      }
+      out.put(List.of());
+    }
+
+    private List<String> reserveIfNotOverlapping(Event event) {
+      List<String> overlappingEvents = eventIndex.findOverlapCandidates(CalendarDay.of(event), event.getStart(), event.getEnd())
+          .stream()
+          .filter(e -> eventValidator.eventsOverLap(event, e))
+          .map(EventSlot::toString)
+          .toList();
+      if (overlappingEvents.isEmpty()) {
+        eventIndex.reserve(event);
+        reservedEvents.add(event);
+      }
+      return overlappingEvents;
+    }
+
+    private void persist(int partition) throws InterruptedException {
+      BlockingQueue<List<PendingEvent>> in = acceptedEvents.get(partition);
+      boolean ended = false;
+      while (!ended) {
+        List<PendingEvent> batch = new ArrayList<>(in.take());
+        ended = batch.isEmpty();
+        List<PendingEvent> chunk;
+        while (!ended && batch.size() < CHUNK_SIZE && (chunk = in.poll()) != null) {
+          ended = chunk.isEmpty();
+          batch.addAll(chunk);
+        }
+        if (!batch.isEmpty()) save(batch);
+      }
+    }
+
+    private void save(List<PendingEvent> batch) {
+      List<Event> events = batch.stream().map(PendingEvent::event).toList();
+      Map<CalendarDay, Event> eventsByDay = new HashMap<>();
+      events.forEach(e -> eventsByDay.putIfAbsent(CalendarDay.of(e), e));
+      try {
+        List<Event> savedEvents = dateLocks.withLocks(eventsByDay.keySet(), () -> eventWriter.saveAll(events));
+        savedEvents.forEach(eventIndex::add);
+        eventsByDay.values().forEach(scheduleCacheInvalidator::evictSchedulesOf);
+        savedEvents.forEach(scheduleChangeFeed::publish);
+        imported.add(savedEvents.size());
+      } catch (Exception e) {
+        log.error("Error importing calendar events", e);
+        dateLocks.withLocks(eventsByDay.keySet(), () -> {
+          events.forEach(eventIndex::remove);
+          return null;
+        });
+        batch.forEach(p -> reject(p.line(), ERROR, List.of(), List.of()));
+      } finally {
+        events.forEach(this::release);
+      }
+    }
+
+    /**
+     * Removes the events the stopped stages accepted but never saved from the index, where they would block their time
+     * until a restart.
+     */
+    private void releaseReservations() {
+      List<Event> events = List.copyOf(reservedEvents);
+      Set<CalendarDay> days = events.stream().map(CalendarDay::of).collect(Collectors.toSet());
+      dateLocks.withLocks(days, () -> {
+        events.forEach(eventIndex::remove);
+        return null;
+      });
+      events.forEach(this::release);
+    }
+
+    private void release(Event event) {
+      if (reservedEvents.remove(event)) eventIndex.release(event);
+    }
+
+    private void reject(long line, EventCreationStatus status, Collection<EventCreationError> errors, Collection<String> overlappingEvents) {
+      rejected.increment();
+      rejectionLock.lock();
+      try {
+        if (rejections.size() < MAX_REPORTED_REJECTIONS) {
+          rejections.add(new ImportRejection(line, status, errors, overlappingEvents));
+        } else if (line < rejections.peek().line()) {
+          rejections.poll();
+          rejections.add(new ImportRejection(line, status, errors, overlappingEvents));
+        }
+      } finally {
+        rejectionLock.unlock();
+      }
+    }
+  }
+}
@@ -0,0 +1,173 @@
+package com.koszczi.calendar.application.event.importing;
+
+import com.koszczi.calendar.application.event.dto.EventDto;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Locale;
+
+/**
+ * RFC 5545 iCalendar, one row per VEVENT made of its DTSTART, DTEND (or DURATION) and SUMMARY as the organizer.
+ * Floating times are taken as they are, UTC and TZID times are converted to the zone of the server. All-day events
+ * cannot be imported.
+ */
+class IcsEventReader extends EventImportReader {
+
+  private String lookahead;
+  private long lookaheadLine;
+  private long contentLine;
+
+  IcsEventReader(BufferedReader in) {
+    super(in);
+  }
+
+  @Override
+  ImportedRow next() throws IOException {
+    String line;
+    while ((line = readContentLine()) != null) {
+      if (line.equalsIgnoreCase("BEGIN:VEVENT")) return readEvent(contentLine);
+    }
+    return null;
+  }
+
+  private ImportedRow readEvent(long firstLine) throws IOException {
+    Property start = null;
+    Property end = null;
+    Property duration = null;
+    String summary = null;
+    String line;
+    while ((line = readContentLine()) != null && !line.equalsIgnoreCase("END:VEVENT")) {
+      Property property = Property.parse(line);
+      if (property == null) continue;
+      switch (property.name()) {
+        case "DTSTART" -> start = property;
+        case "DTEND" -> end = property;
+        case "DURATION" -> duration = property;
+        case "SUMMARY" -> summary = unescape(property.value());
+        default -> { }
+      }
+    }
+    if (line == null) return ImportedRow.unreadable(firstLine, "VEVENT is not closed");
+    if (start == null) return ImportedRow.unreadable(firstLine, "DTSTART is missing");
+    if (end == null && duration == null) return ImportedRow.unreadable(firstLine, "DTEND is missing");
+    if ("DATE".equalsIgnoreCase(start.valueType()) || start.value().length() == 8)
+      return ImportedRow.unreadable(firstLine, "All-day events are not supported");
+
+    LocalDateTime startDateTime = parseDateTime(start);
+    if (startDateTime == null) return ImportedRow.unreadable(firstLine, "Invalid DTSTART: " + start.value());
+    LocalDateTime endDateTime;
+    if (end != null) {
+      endDateTime = parseDateTime(end);
+      if (endDateTime == null) return ImportedRow.unreadable(firstLine, "Invalid DTEND: " + end.value());
+    } else {
+      try {
+        endDateTime = startDateTime.plus(Duration.parse(duration.value()));
+      } catch (DateTimeException e) {
+        return ImportedRow.unreadable(firstLine, "Invalid DURATION: " + duration.value());
+      }
+    }
+    return ImportedRow.of(firstLine, new EventDto(startDateTime, endDateTime, summary));
+  }
+
+  /**
+   * Reads a content line with its folded continuation lines appended, keeping the physical line it starts on.
+   */
+  private String readContentLine() throws IOException {
+    String line;
+    if (lookahead != null) {
+      line = lookahead;
+      contentLine = lookaheadLine;
+      lookahead = null;
+    } else {
+      line = readLine();
+      contentLine = lineNumber;
+    }
+    if (line == null) return null;
+
+    StringBuilder unfolded = null;
+    String next;
+    while ((next = readLine()) != null && !next.isEmpty() && (next.charAt(0) == ' ' || next.charAt(0) == '\t')) {
+      if (unfolded == null) unfolded = new StringBuilder(line);
+      unfolded.append(next, 1, next.length());
+    }
+    lookahead = next;
+    lookaheadLine = lineNumber;
+    return unfolded == null ? line : unfolded.toString();
+  }
+
+  private static LocalDateTime parseDateTime(Property property) {
+    String value = property.value();
+    boolean utc = value.length() == 16 && value.charAt(15) == 'Z';
+    if (value.length() != 15 && !utc || value.charAt(8) != 'T') return null;
+    LocalDate date = parseDate(value, 0, false);
+    LocalTime time = parseTime(value, 9, 15, false);
+    if (date == null || time == null) return null;
+
+    LocalDateTime dateTime = LocalDateTime.of(date, time);
+    if (!utc && property.zone() == null) return dateTime;
+    try {
+      ZoneId zone = utc ? ZoneOffset.UTC : ZoneId.of(property.zone());
+      return dateTime.atZone(zone).withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+    } catch (DateTimeException e) {
+      return null;
+    }
+  }
+
+  private static String unescape(String text) {
+    if (text.indexOf('\\') < 0) return text;
+    StringBuilder unescaped = new StringBuilder(text.length());
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c == '\\' && i + 1 < text.length()) {
+        char escaped = text.charAt(++i);
+        unescaped.append(escaped == 'n' || escaped == 'N' ? '\n' : escaped);
+      } else {
+        unescaped.append(c);
+      }
+    }
+    return unescaped.toString();
+  }
+
+  private record Property(String name, String value, String zone, String valueType) {
+
+    /**
+     * Splits {@code NAME;PARAM=x;PARAM="y:z":value}, {@code null} if the line has no value.
+     */
+    static Property parse(String line) {
+      int nameEnd = 0;
+      while (nameEnd < line.length() && line.charAt(nameEnd) != ';' && line.charAt(nameEnd) != ':') nameEnd++;
+      if (nameEnd == line.length()) return null;
+      String name = line.substring(0, nameEnd).toUpperCase(Locale.ROOT);
+
+      String zone = null;
+      String valueType = null;
+      int i = nameEnd;
+      while (line.charAt(i) == ';') {
+        int paramStart = i + 1;
+        boolean quoted = false;
+        i = paramStart;
+        while (i < line.length() && (quoted || line.charAt(i) != ';' && line.charAt(i) != ':')) {
+          if (line.charAt(i) == '"') quoted = !quoted;
+          i++;
+        }
+        if (i == line.length()) return null;
+        String param = line.substring(paramStart, i);
+        int equals = param.indexOf('=');
+        if (equals > 0) {
+          String paramName = param.substring(0, equals).toUpperCase(Locale.ROOT);
+          String paramValue = param.substring(equals + 1).replace("\"", "");
+          if (paramName.equals("TZID")) zone = paramValue;
+          else if (paramName.equals("VALUE")) valueType = paramValue;
+        }
+      }
+      return new Property(name, line.substring(i + 1), zone, valueType);
+    }
+  }
+}
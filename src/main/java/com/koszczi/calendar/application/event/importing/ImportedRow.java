@@ -0,0 +1,17 @@
+package com.koszczi.calendar.application.event.importing;
+
+import com.koszczi.calendar.application.event.dto.EventDto;
+
+/**
+ * A parsed row, either an event or the reason it could not be read.
+ */
+record ImportedRow(long line, EventDto event, String error) {
+
+  static ImportedRow of(long line, EventDto event) {
+    return new ImportedRow(line, event, null);
+  }
+
+  static ImportedRow unreadable(long line, String error) {
+    return new ImportedRow(line, null, error);
+  }
+}
@@ -0,0 +1,209 @@
+package com.koszczi.calendar.application.event.index;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.koszczi.calendar.application.event.archive.EventArchive;
+import com.koszczi.calendar.application.event.validation.CalendarRules;
+import com.koszczi.calendar.application.event.validation.EventRules;
+import com.koszczi.calendar.model.event.CalendarDay;
+import com.koszczi.calendar.model.event.Event;
+import com.koszczi.calendar.model.event.EventRepository;
+import com.koszczi.calendar.model.event.EventSlot;
+import com.koszczi.calendar.model.event.RecurringEvent;
+import com.koszczi.calendar.model.event.RecurringEventRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory index of the stored events, partitioned by calendar into one start-ordered map of slot projections per day,
+ * so the size of one calendar never affects the lookups of another.
+ * A day is loaded from the repository on first access, together with its archived events and the occurrences of the
+ * recurring events on it, and every saved event has to be added through {@link #add(Event)} or {@link #add(RecurringEvent)}.
+ * <p>
+ * At most {@code calendar.index.maximum-days} days are kept, an evicted day is reloaded on its next access. The days
+ * holding events reserved through {@link #reserve(Event)} stay loaded until every reservation is released, they are
+ * not stored anywhere else.
+ */
+@Service
+public class EventIndex {
+
+  private final EventRepository eventRepository;
+  private final RecurringEventRepository recurringEventRepository;
+  private final EventArchive eventArchive;
+  private final CalendarRules calendarRules;
+  private final Cache<CalendarDay, NavigableMap<LocalTime, EventSlot>> days;
+  private final ConcurrentMap<CalendarDay, ReservedDay> reservedDays = new ConcurrentHashMap<>();
+
+  public EventIndex(EventRepository eventRepository, RecurringEventRepository recurringEventRepository,
+                    EventArchive eventArchive, CalendarRules calendarRules,
+                    @Value("${calendar.index.maximum-days:100000}") long maximumDays) {
+    this.eventRepository = eventRepository;
+    this.recurringEventRepository = recurringEventRepository;
+    this.eventArchive = eventArchive;
+    this.calendarRules = calendarRules;
+    this.days = Caffeine.newBuilder().maximumSize(maximumDays).build();
+  }
+
+  public List<EventSlot> findOverlapCandidates(CalendarDay day, LocalTime start, LocalTime end) {
+    NavigableMap<LocalTime, EventSlot> dailyEvents = eventsOf(day);
+    List<EventSlot> candidates = new ArrayList<>();
+    Map.Entry<LocalTime, EventSlot> previous = dailyEvents.lowerEntry(start);
+    if (previous != null) candidates.add(previous.getValue());
+    if (start.isBefore(end)) candidates.addAll(dailyEvents.subMap(start, true, end, false).values());
+    return candidates;
+  }
+
+  public Optional<EventSlot> findEventAt(CalendarDay day, LocalTime time) {
+    NavigableMap<LocalTime, EventSlot> dailyEvents = eventsOf(day);
+    Map.Entry<LocalTime, EventSlot> previous = dailyEvents.lowerEntry(time);
+    if (previous != null && !time.isAfter(previous.getValue().end())) return Optional.of(previous.getValue());
+    return Optional.ofNullable(dailyEvents.get(time));
+  }
+
+  public void add(Event event) {
+    eventsOf(CalendarDay.of(event)).put(event.getStart(), EventSlot.of(event));
+  }
+
+  /**
+   * Adds an event not saved yet and keeps its day loaded until {@link #release(Event)}, so the next checks see it.
+   */
+  public void reserve(Event event) {
+    CalendarDay day = CalendarDay.of(event);
+    NavigableMap<LocalTime, EventSlot> dailyEvents = eventsOf(day);
+    dailyEvents.put(event.getStart(), EventSlot.of(event));
+    reservedDays.merge(day, new ReservedDay(dailyEvents, 1), (reserved, added) -> new ReservedDay(reserved.events(), reserved.reservations() + 1));
+  }
+
+  /**
+   * Ends a reservation, after the event was added as saved or removed. The day becomes evictable with its last one.
+   */
+  public void release(Event event) {
+    reservedDays.computeIfPresent(CalendarDay.of(event), (day, reserved) -> {
+      if (reserved.reservations() > 1) return new ReservedDay(reserved.events(), reserved.reservations() - 1);
+      // every change of the day went to the reserved map, it replaces any copy reloaded while the day was evicted
+      days.put(day, reserved.events());
+      return null;
+    });
+  }
+
+  /**
+   * Adds the occurrences of a recurring event on the days already loaded, the other days pick them up when loaded.
+   */
+  public void add(RecurringEvent recurringEvent) {
+    EventRules rules = calendarRules.forCalendar(recurringEvent.getCalendarId());
+    loadedDaysOf(recurringEvent.getCalendarId()).forEach((date, dailyEvents) -> {
+      if (recurringEvent.occursOn(date, rules::isBookable)) dailyEvents.put(recurringEvent.getStart(), recurringEvent.slotOn(date));
+    });
+  }
+
+  /**
+   * Events on the loaded days of a calendar overlapping an occurrence of a recurring event.
+   */
+  public List<EventSlot> findLoadedOverlaps(RecurringEvent recurringEvent) {
+    List<EventSlot> overlaps = new ArrayList<>();
+    EventRules rules = calendarRules.forCalendar(recurringEvent.getCalendarId());
+    loadedDaysOf(recurringEvent.getCalendarId()).forEach((date, dailyEvents) -> {
+      if (!recurringEvent.occursOn(date, rules::isBookable)) return;
+      Map.Entry<LocalTime, EventSlot> previous = dailyEvents.lowerEntry(recurringEvent.getStart());
+      if (previous != null && previous.getValue().end().isAfter(recurringEvent.getStart())) overlaps.add(previous.getValue());
+      overlaps.addAll(dailyEvents.subMap(recurringEvent.getStart(), true, recurringEvent.getEnd(), false).values());
+    });
+    return overlaps;
+  }
+
+  /**
+   * Loads the days of a calendar not loaded yet with one query, for callers about to touch many days.
+   */
+  public void load(String calendarId, Collection<LocalDate> dates) {
+    Map<LocalDate, NavigableMap<LocalTime, EventSlot>> loadedDays = new HashMap<>();
+    for (LocalDate date : dates) {
+      if (loadedEventsOf(new CalendarDay(calendarId, date)) == null) loadedDays.put(date, new ConcurrentSkipListMap<>());
+    }
+    if (loadedDays.isEmpty()) return;
+    eventRepository.findSlotsByCalendarIdAndDateIn(calendarId, loadedDays.keySet())
+        .forEach(e -> loadedDays.get(e.date()).put(e.start(), e));
+    eventArchive.findSlots(calendarId, loadedDays.keySet())
+        .forEach(e -> loadedDays.get(e.date()).put(e.start(), e));
+    LocalDate from = Collections.min(loadedDays.keySet());
+    LocalDate to = Collections.max(loadedDays.keySet());
+    EventRules rules = calendarRules.forCalendar(calendarId);
+    for (RecurringEvent recurringEvent : recurringEventRepository.findAllSpanning(calendarId, from, to)) {
+      loadedDays.forEach((date, dailyEvents) -> {
+        if (recurringEvent.occursOn(date, rules::isBookable)) dailyEvents.put(recurringEvent.getStart(), recurringEvent.slotOn(date));
+      });
+    }
+    loadedDays.forEach((date, dailyEvents) -> days.asMap().putIfAbsent(new CalendarDay(calendarId, date), dailyEvents));
+  }
+
+  /**
+   * Drops a loaded day, the next access reloads it from the stored events. A day holding reservations stays loaded.
+   */
+  public void evict(CalendarDay day) {
+    days.invalidate(day);
+  }
+
+  public void remove(Event event) {
+    NavigableMap<LocalTime, EventSlot> dailyEvents = loadedEventsOf(CalendarDay.of(event));
+    if (dailyEvents != null) dailyEvents.remove(event.getStart());
+  }
+
+  /**
+   * Removes the days over the maximum size right away instead of on a later access.
+   */
+  void cleanUp() {
+    days.cleanUp();
+  }
+
+  private Map<LocalDate, NavigableMap<LocalTime, EventSlot>> loadedDaysOf(String calendarId) {
+    Map<LocalDate, NavigableMap<LocalTime, EventSlot>> loadedDays = new HashMap<>();
+    days.asMap().forEach((day, dailyEvents) -> {
+      if (day.calendarId().equals(calendarId)) loadedDays.put(day.date(), dailyEvents);
+    });
+    reservedDays.forEach((day, reserved) -> {
+      if (day.calendarId().equals(calendarId)) loadedDays.put(day.date(), reserved.events());
+    });
+    return loadedDays;
+  }
+
+  private NavigableMap<LocalTime, EventSlot> loadedEventsOf(CalendarDay day) {
+    ReservedDay reserved = reservedDays.get(day);
+    return reserved != null ? reserved.events() : days.getIfPresent(day);
+  }
+
+  private NavigableMap<LocalTime, EventSlot> eventsOf(CalendarDay day) {
+    NavigableMap<LocalTime, EventSlot> dailyEvents = loadedEventsOf(day);
+    if (dailyEvents != null) return dailyEvents;
+    // loaded outside the cache's compute: its bin lock is a monitor and would pin a virtual thread during the query
+    NavigableMap<LocalTime, EventSlot> loadedEvents = load(day);
+    dailyEvents = days.asMap().putIfAbsent(day, loadedEvents);
+    return dailyEvents != null ? dailyEvents : loadedEvents;
+  }
+
+  private NavigableMap<LocalTime, EventSlot> load(CalendarDay day) {
+    NavigableMap<LocalTime, EventSlot> dailyEvents = new ConcurrentSkipListMap<>();
+    eventRepository.findSlotsByCalendarIdAndDate(day.calendarId(), day.date()).forEach(e -> dailyEvents.put(e.start(), e));
+    eventArchive.findSlots(day.calendarId(), day.date()).forEach(e -> dailyEvents.put(e.start(), e));
+    EventRules rules = calendarRules.forCalendar(day.calendarId());
+    recurringEventRepository.findAllSpanning(day.calendarId(), day.date(), day.date()).stream()
+        .filter(r -> r.occursOn(day.date(), rules::isBookable))
+        .forEach(r -> dailyEvents.put(r.getStart(), r.slotOn(day.date())));
+    return dailyEvents;
+  }
+
+  private record ReservedDay(NavigableMap<LocalTime, EventSlot> events, int reservations) {
+  }
+}
@@ -0,0 +1,110 @@
+package com.koszczi.calendar.application.event.locking;
+
+import com.koszczi.calendar.model.event.CalendarDay;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Striped locks keyed by calendar day: work on the same day of a calendar is serialised, other days only contend when
+ * they share a stripe. Consecutive days of a calendar always map to different stripes.
+ * <p>
+ * Every day lock also holds the shared side of a striped calendar lock, whose exclusive side
+ * {@link #withCalendarLock(String, Supplier)} takes for work spanning any number of days of one calendar. That work only
+ * waits for and blocks the calendars of its calendar stripe. Calendar locks are always taken before day locks and both
+ * in ascending stripe order, so no two callers deadlock.
+ */
+@Service
+public class DateLocks {
+
+  public static final int STRIPES = 64;
+
+  private final Lock[] locks = new Lock[STRIPES];
+  private final ReadWriteLock[] calendarLocks = new ReadWriteLock[STRIPES];
+
+  public DateLocks() {
+    for (int i = 0; i < STRIPES; i++) {
+      locks[i] = new ReentrantLock();
+      calendarLocks[i] = new ReentrantReadWriteLock();
+    }
+  }
+
+  public <T> T withLock(CalendarDay day, Supplier<T> action) {
+    Lock calendarLock = calendarLocks[calendarStripeOf(day.calendarId())].readLock();
+    Lock lock = locks[stripeOf(day)];
+    calendarLock.lock();
+    lock.lock();
+    try {
+      return action.get();
+    } finally {
+      lock.unlock();
+      calendarLock.unlock();
+    }
+  }
+
+  public void withLock(CalendarDay day, Runnable action) {
+    withLock(day, () -> {
+      action.run();
+      return null;
+    });
+  }
+
+  /**
+   * Holds the locks of all the given days.
+   */
+  public <T> T withLocks(Collection<CalendarDay> days, Supplier<T> action) {
+    boolean[] calendarStripes = new boolean[STRIPES];
+    boolean[] stripes = new boolean[STRIPES];
+    for (CalendarDay day : days) {
+      calendarStripes[calendarStripeOf(day.calendarId())] = true;
+      stripes[stripeOf(day)] = true;
+    }
+    int calendarsLocked = 0;
+    int locked = 0;
+    try {
+      for (; calendarsLocked < STRIPES; calendarsLocked++) {
+        if (calendarStripes[calendarsLocked]) calendarLocks[calendarsLocked].readLock().lock();
+      }
+      for (; locked < STRIPES; locked++) {
+        if (stripes[locked]) locks[locked].lock();
+      }
+      return action.get();
+    } finally {
+      for (int i = locked - 1; i >= 0; i--) {
+        if (stripes[i]) locks[i].unlock();
+      }
+      for (int i = calendarsLocked - 1; i >= 0; i--) {
+        if (calendarStripes[i]) calendarLocks[i].readLock().unlock();
+      }
+    }
+  }
+
+  /**
+   * Holds every day of a calendar, for work whose days are too many to lock one by one.
+   */
+  public <T> T withCalendarLock(String calendarId, Supplier<T> action) {
+    Lock calendarLock = calendarLocks[calendarStripeOf(calendarId)].writeLock();
+    calendarLock.lock();
+    try {
+      return action.get();
+    } finally {
+      calendarLock.unlock();
+    }
+  }
+
+  /**
+   * The stripe of a day, {@code stripeOf(day) % n} is the same for every {@code n} dividing {@link #STRIPES}.
+   */
+  public static int stripeOf(CalendarDay day) {
+    return (int) Math.floorMod(day.date().toEpochDay() + day.calendarId().hashCode(), STRIPES);
+  }
+
+  private static int calendarStripeOf(String calendarId) {
+    return Math.floorMod(calendarId.hashCode(), STRIPES);
+  }
+}
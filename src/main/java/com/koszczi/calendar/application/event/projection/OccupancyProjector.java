@@ -0,0 +1,146 @@
+package com.koszczi.calendar.application.event.projection;
+
+import com.koszczi.calendar.application.event.DayOccupancy;
+import com.koszczi.calendar.application.event.dto.DateRange;
+import com.koszczi.calendar.application.event.validation.CalendarRules;
+import com.koszczi.calendar.application.event.validation.EventRules;
+import com.koszczi.calendar.model.event.CalendarDay;
+import com.koszczi.calendar.model.event.Event;
+import com.koszczi.calendar.model.event.IsoWeeks;
+import com.koszczi.calendar.model.event.OccupancyProjection;
+import com.koszczi.calendar.model.event.OccupancyProjectionRepository;
+import com.koszczi.calendar.model.event.RecurringEvent;
+import com.koszczi.calendar.model.event.RecurringEventRepository;
+import com.koszczi.calendar.model.event.ReservedMask;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.*;
+
+import static java.time.temporal.ChronoUnit.DAYS;
+
+/**
+ * Maintains the occupancy projection per calendar day and reads the schedules from it, so schedule reads never load events.
+ * Writes join the transaction inserting the events, callers hold the lock of the day.
+ * Recurring events are not projected, their occurrences are laid over the projections of the days read.
+ */
+@RequiredArgsConstructor
+@Service
+public class OccupancyProjector {
+
+  private final OccupancyProjectionRepository occupancyProjectionRepository;
+  private final RecurringEventRepository recurringEventRepository;
+  private final CalendarRules calendarRules;
+
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void project(Collection<Event> savedEvents) {
+    Map<CalendarDay, List<Event>> eventsByDay = new HashMap<>();
+    Map<String, Set<LocalDate>> datesByCalendar = new HashMap<>();
+    for (Event event : savedEvents) {
+      eventsByDay.computeIfAbsent(CalendarDay.of(event), d -> new ArrayList<>()).add(event);
+      datesByCalendar.computeIfAbsent(event.getCalendarId(), c -> new HashSet<>()).add(event.getDate());
+    }
+
+    Map<CalendarDay, OccupancyProjection> projections = new HashMap<>();
+    datesByCalendar.forEach((calendarId, dates) -> occupancyProjectionRepository.findAllByCalendarIdAndDateIn(calendarId, dates)
+        .forEach(p -> projections.put(new CalendarDay(p.getCalendarId(), p.getDate()), p)));
+
+    eventsByDay.forEach((day, events) -> {
+      OccupancyProjection projection = projections.computeIfAbsent(day, d -> new OccupancyProjection(events.get(0)));
+      DayOccupancy occupancy = toOccupancy(projection);
+      events.forEach(occupancy::reserve);
+      projection.update(occupancy.reservedMask(), occupancy.startMask(), occupancy.eventIds(), events.size());
+      occupancyProjectionRepository.save(projection);
+    });
+  }
+
+  public DayOccupancy findDay(CalendarDay day) {
+    DayOccupancy occupancy = occupancyProjectionRepository.findById(day).map(OccupancyProjector::toOccupancy).orElseGet(DayOccupancy::new);
+    EventRules rules = calendarRules.forCalendar(day.calendarId());
+    for (RecurringEvent recurringEvent : recurringEventRepository.findAllSpanning(day.calendarId(), day.date(), day.date())) {
+      if (recurringEvent.occursOn(day.date(), rules::isBookable)) occupancy.reserve(recurringEvent.getStart(), recurringEvent.getEnd());
+    }
+    return occupancy;
+  }
+
+  /**
+   * Occupancies of a week of a calendar indexed by {@code DayOfWeek.ordinal()}, days without events are empty.
+   */
+  public DayOccupancy[] findWeek(String calendarId, int year, int week) {
+    DayOccupancy[] occupancies = new DayOccupancy[7];
+    for (OccupancyProjection projection : occupancyProjectionRepository.findAllByCalendarIdAndYearAndWeek(calendarId, year, week)) {
+      occupancies[projection.getDayOfWeek().ordinal()] = toOccupancy(projection);
+    }
+    for (int i = 0; i < occupancies.length; i++) {
+      if (occupancies[i] == null) occupancies[i] = new DayOccupancy();
+    }
+    List<LocalDate> dates = IsoWeeks.datesOf(year, week);
+    if (dates.isEmpty()) return occupancies;
+    EventRules rules = calendarRules.forCalendar(calendarId);
+    for (RecurringEvent recurringEvent : recurringEventRepository.findAllSpanning(calendarId, dates.get(0), dates.get(dates.size() - 1))) {
+      dates.stream().filter(date -> recurringEvent.occursOn(date, rules::isBookable)).forEach(date ->
+          occupancies[date.getDayOfWeek().ordinal()].reserve(recurringEvent.getStart(), recurringEvent.getEnd()));
+    }
+    return occupancies;
+  }
+
+  /**
+   * Occupancies of the days of the range having events in the calendar.
+   */
+  public Map<LocalDate, DayOccupancy> findRange(String calendarId, DateRange range) {
+    Map<LocalDate, DayOccupancy> occupancies = new HashMap<>();
+    for (OccupancyProjection projection : occupancyProjectionRepository.findAllByCalendarIdAndDateBetween(calendarId, range.from(), range.to())) {
+      occupancies.put(projection.getDate(), toOccupancy(projection));
+    }
+    EventRules rules = calendarRules.forCalendar(calendarId);
+    for (RecurringEvent recurringEvent : recurringEventRepository.findAllSpanning(calendarId, range.from(), range.to())) {
+      recurringEvent.occurrencesBetween(range.from(), range.to(), rules::isBookable).forEach(date -> occupancies
+          .computeIfAbsent(date, d -> new DayOccupancy())
+          .reserve(recurringEvent.getStart(), recurringEvent.getEnd()));
+    }
+    return occupancies;
+  }
+
+  /**
+   * Occupancies of the days of the range having events, in all of the calendars.
+   */
+  public Map<CalendarDay, DayOccupancy> findAll(DateRange range) {
+    Map<CalendarDay, DayOccupancy> occupancies = new HashMap<>();
+    for (OccupancyProjection projection : occupancyProjectionRepository.findAllByDateBetween(range.from(), range.to())) {
+      occupancies.put(new CalendarDay(projection.getCalendarId(), projection.getDate()), toOccupancy(projection));
+    }
+    for (RecurringEvent recurringEvent : recurringEventRepository.findAllSpanning(range.from(), range.to())) {
+      EventRules rules = calendarRules.forCalendar(recurringEvent.getCalendarId());
+      recurringEvent.occurrencesBetween(range.from(), range.to(), rules::isBookable).forEach(date -> occupancies
+          .computeIfAbsent(new CalendarDay(recurringEvent.getCalendarId(), date), d -> new DayOccupancy())
+          .reserve(recurringEvent.getStart(), recurringEvent.getEnd()));
+    }
+    return occupancies;
+  }
+
+  /**
+   * Union of the reserved slots of the calendars on each day of the range, indexed by the number of days since its start.
+   * Read with two queries however many calendars are given, one for the projections and one for the recurring events.
+   */
+  public long[] findReservedMasks(Collection<String> calendarIds, DateRange range) {
+    long[] masks = new long[(int) range.from().until(range.to(), DAYS) + 1];
+    for (ReservedMask mask : occupancyProjectionRepository.findMasksByCalendarIdInAndDateBetween(calendarIds, range.from(), range.to())) {
+      masks[(int) range.from().until(mask.date(), DAYS)] |= mask.reservedMask();
+    }
+    for (RecurringEvent recurringEvent : recurringEventRepository.findAllSpanning(calendarIds, range.from(), range.to())) {
+      DayOccupancy occurrence = new DayOccupancy();
+      occurrence.reserve(recurringEvent.getStart(), recurringEvent.getEnd());
+      EventRules rules = calendarRules.forCalendar(recurringEvent.getCalendarId());
+      recurringEvent.occurrencesBetween(range.from(), range.to(), rules::isBookable)
+          .forEach(date -> masks[(int) range.from().until(date, DAYS)] |= occurrence.reservedMask());
+    }
+    return masks;
+  }
+
+  private static DayOccupancy toOccupancy(OccupancyProjection projection) {
+    return DayOccupancy.of(projection.getReservedMask(), projection.getStartMask(), projection.getEventIds());
+  }
+}
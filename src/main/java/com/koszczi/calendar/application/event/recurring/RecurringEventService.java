@@ -0,0 +1,121 @@
+package com.koszczi.calendar.application.event.recurring;
+
+import com.koszczi.calendar.application.event.EventMetrics;
+import com.koszczi.calendar.application.event.ScheduleCacheInvalidator;
+import com.koszczi.calendar.application.event.archive.EventArchive;
+import com.koszczi.calendar.application.event.dto.DateRange;
+import com.koszczi.calendar.application.event.dto.EventCreationError;
+import com.koszczi.calendar.application.event.dto.RecurringEventCreationResult;
+import com.koszczi.calendar.application.event.dto.RecurringEventDto;
+import com.koszczi.calendar.application.event.dto.ValidationError;
+import com.koszczi.calendar.application.event.index.EventIndex;
+import com.koszczi.calendar.application.event.locking.DateLocks;
+import com.koszczi.calendar.application.event.subscription.ScheduleChangeFeed;
+import com.koszczi.calendar.application.event.validation.CalendarRules;
+import com.koszczi.calendar.application.event.validation.EventRules;
+import com.koszczi.calendar.application.event.validation.EventValidator;
+import com.koszczi.calendar.model.event.EventRepository;
+import com.koszczi.calendar.model.event.EventSlot;
+import com.koszczi.calendar.model.event.RecurringEvent;
+import com.koszczi.calendar.model.event.RecurringEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static com.koszczi.calendar.application.event.EventMetrics.Stage.*;
+import static com.koszczi.calendar.application.event.dto.EventCreationStatus.*;
+import static com.koszczi.calendar.application.event.dto.ValidationError.OVERLAPPING_EVENTS;
+
+/**
+ * Creates recurring events as one rule each. The overlap check never expands the occurrences up front: the stored events
+ * are read with one query over the time of day and the days of the rule, then filtered by the rule, other rules are
+ * compared rule by rule. Occurrences skip the days events cannot be booked on in the calendar, as given by its
+ * {@link CalendarRules}. The check and the save hold the calendar lock of the {@link DateLocks}, so however long the rule
+ * runs, creation only waits in the calendars sharing its lock stripe.
+ */
+@RequiredArgsConstructor
+@Slf4j
+@Service
+public class RecurringEventService {
+
+  private final RecurringEventRepository recurringEventRepository;
+  private final EventRepository eventRepository;
+  private final EventArchive eventArchive;
+  private final EventValidator eventValidator;
+  private final CalendarRules calendarRules;
+  private final EventIndex eventIndex;
+  private final DateLocks dateLocks;
+  private final ScheduleCacheInvalidator scheduleCacheInvalidator;
+  private final ScheduleChangeFeed scheduleChangeFeed;
+  private final EventMetrics eventMetrics;
+
+  public RecurringEventCreationResult createRecurringEvent(RecurringEventDto recurringEventDto) {
+    try {
+      Set<ValidationError> validationErrors = eventMetrics.time(VALIDATION, () -> eventValidator.validateRecurringDto(recurringEventDto));
+      if (!validationErrors.isEmpty())
+        return new RecurringEventCreationResult(VALIDATION_FAILURE, validationErrors.stream().map(EventCreationError::of).toList(), List.of(), null);
+
+      EventRules rules = calendarRules.forCalendar(recurringEventDto.calendarId());
+      RecurringEvent newEvent = new RecurringEvent(recurringEventDto.calendarId(), recurringEventDto.startDateTime(),
+          recurringEventDto.endDateTime(), recurringEventDto.organizer(), recurringEventDto.recurrence(),
+          recurringEventDto.interval(), recurringEventDto.count(), recurringEventDto.until(), rules::isBookable);
+      return dateLocks.withCalendarLock(newEvent.getCalendarId(), () -> saveIfNotOverlapping(newEvent, rules));
+    } catch (Exception e) {
+      log.error("Error creating recurring calendar event", e);
+      return new RecurringEventCreationResult(ERROR, List.of(), List.of(), null);
+    }
+  }
+
+  private RecurringEventCreationResult saveIfNotOverlapping(RecurringEvent newEvent, EventRules rules) {
+    List<String> overlappingEvents = eventMetrics.time(OVERLAP_CHECK, () -> collectOverlappingEvents(newEvent, rules));
+    if (!overlappingEvents.isEmpty())
+      return new RecurringEventCreationResult(VALIDATION_FAILURE, List.of(EventCreationError.of(OVERLAPPING_EVENTS)), overlappingEvents, null);
+
+    RecurringEvent savedEvent = eventMetrics.time(PERSISTENCE, () -> recurringEventRepository.save(newEvent));
+    eventIndex.add(savedEvent);
+    scheduleCacheInvalidator.evictSchedulesOf(savedEvent, rules);
+    scheduleChangeFeed.publish(savedEvent, rules);
+    return new RecurringEventCreationResult(SUCCESS, List.of(), List.of(), savedEvent);
+  }
+
+  /**
+   * Stored and archived events and other recurring events overlapping an occurrence, plus the events on the loaded days of
+   * the index, which also holds the events of running imports not stored yet. A recurring event is reported by its first
+   * overlapping occurrence.
+   */
+  private List<String> collectOverlappingEvents(RecurringEvent newEvent, EventRules rules) {
+    String calendarId = newEvent.getCalendarId();
+    Stream<EventSlot> storedEvents = eventRepository
+        .findSlotsByCalendarIdAndDateBetweenAndStartBeforeAndEndAfter(calendarId, newEvent.getFirstDate(), newEvent.getLastDate(), newEvent.getEnd(), newEvent.getStart())
+        .stream()
+        .filter(e -> newEvent.occursOn(e.date(), rules::isBookable));
+    Stream<EventSlot> archivedEvents = eventArchive
+        .findSlots(calendarId, new DateRange(newEvent.getFirstDate(), newEvent.getLastDate()), newEvent.getEnd(), newEvent.getStart())
+        .stream()
+        .filter(e -> newEvent.occursOn(e.date(), rules::isBookable));
+    Stream<EventSlot> recurringEvents = recurringEventRepository.findAllSpanning(calendarId, newEvent.getFirstDate(), newEvent.getLastDate())
+        .stream()
+        .filter(r -> r.overlapsInTime(newEvent.getStart(), newEvent.getEnd()))
+        .flatMap(r -> firstCommonDate(newEvent, r, rules).map(r::slotOn).stream());
+    Set<String> overlappingEvents = new LinkedHashSet<>();
+    Stream.of(storedEvents, archivedEvents, recurringEvents, eventIndex.findLoadedOverlaps(newEvent).stream())
+        .flatMap(s -> s)
+        .sorted(Comparator.comparing(EventSlot::date).thenComparing(EventSlot::start))
+        .forEach(e -> overlappingEvents.add(e.toString()));
+    return List.copyOf(overlappingEvents);
+  }
+
+  private static Optional<LocalDate> firstCommonDate(RecurringEvent newEvent, RecurringEvent other, EventRules rules) {
+    return newEvent.occurrencesBetween(other.getFirstDate(), other.getLastDate(), rules::isBookable)
+        .filter(date -> other.occursOn(date, rules::isBookable))
+        .findFirst();
+  }
+}
@@ -0,0 +1,80 @@
+package com.koszczi.calendar.application.event.snapshot;
+
+import com.koszczi.calendar.application.event.DayOccupancy;
+import com.koszczi.calendar.application.event.dto.DateRange;
+import com.koszczi.calendar.model.event.CalendarDay;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.*;
+
+import static java.time.temporal.ChronoUnit.DAYS;
+
+/**
+ * The occupancy of the days of a range having events, in all of the calendars, together with the number of events and of
+ * recurring events of the range it was read with. Written per calendar and day as the two slot masks followed by the ids
+ * of the events starting in the slots of the start mask, about 30 bytes for a day with one event.
+ */
+public record ScheduleSnapshot(long eventCount, long recurringEventCount, DateRange range, Map<CalendarDay, DayOccupancy> days) {
+
+  static final int MAGIC = 0x43414c53;
+  static final int FORMAT_VERSION = 1;
+
+  public void writeTo(DataOutput out) throws IOException {
+    Map<String, SortedMap<LocalDate, DayOccupancy>> calendars = new TreeMap<>();
+    days.forEach((day, occupancy) -> calendars.computeIfAbsent(day.calendarId(), c -> new TreeMap<>()).put(day.date(), occupancy));
+
+    out.writeInt(MAGIC);
+    out.writeInt(FORMAT_VERSION);
+    out.writeLong(eventCount);
+    out.writeLong(recurringEventCount);
+    out.writeLong(range.from().toEpochDay());
+    out.writeLong(range.to().toEpochDay());
+    out.writeInt(calendars.size());
+    for (Map.Entry<String, SortedMap<LocalDate, DayOccupancy>> calendar : calendars.entrySet()) {
+      out.writeUTF(calendar.getKey());
+      out.writeInt(calendar.getValue().size());
+      for (Map.Entry<LocalDate, DayOccupancy> day : calendar.getValue().entrySet()) {
+        DayOccupancy occupancy = day.getValue();
+        out.writeInt((int) range.from().until(day.getKey(), DAYS));
+        out.writeLong(occupancy.reservedMask());
+        out.writeLong(occupancy.startMask());
+        for (long starts = occupancy.startMask(); starts != 0; starts &= starts - 1) {
+          Long eventId = occupancy.eventIdAt(Long.numberOfTrailingZeros(starts));
+          out.writeLong(eventId == null ? 0 : eventId);
+        }
+      }
+    }
+  }
+
+  public static ScheduleSnapshot readFrom(DataInput in) throws IOException {
+    if (in.readInt() != MAGIC) throw new IOException("Not a schedule snapshot");
+    int version = in.readInt();
+    if (version != FORMAT_VERSION) throw new IOException("Unsupported schedule snapshot version " + version);
+    long eventCount = in.readLong();
+    long recurringEventCount = in.readLong();
+    DateRange range = new DateRange(LocalDate.ofEpochDay(in.readLong()), LocalDate.ofEpochDay(in.readLong()));
+    Map<CalendarDay, DayOccupancy> days = new HashMap<>();
+    int calendarCount = in.readInt();
+    for (int c = 0; c < calendarCount; c++) {
+      String calendarId = in.readUTF();
+      int dayCount = in.readInt();
+      for (int d = 0; d < dayCount; d++) {
+        LocalDate date = range.from().plusDays(in.readInt());
+        long reserved = in.readLong();
+        long starts = in.readLong();
+        long[] eventIds = null;
+        for (long remaining = starts; remaining != 0; remaining &= remaining - 1) {
+          long eventId = in.readLong();
+          if (eventId == 0) continue;
+          if (eventIds == null) eventIds = new long[DayOccupancy.SLOTS_PER_DAY];
+          eventIds[Long.numberOfTrailingZeros(remaining)] = eventId;
+        }
+        days.put(new CalendarDay(calendarId, date), DayOccupancy.of(reserved, starts, eventIds));
+      }
+    }
+    return new ScheduleSnapshot(eventCount, recurringEventCount, range, days);
+  }
+}
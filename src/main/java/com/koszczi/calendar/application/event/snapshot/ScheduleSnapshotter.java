@@ -0,0 +1,154 @@
+package com.koszczi.calendar.application.event.snapshot;
+
+import com.koszczi.calendar.application.event.DayOccupancy;
+import com.koszczi.calendar.application.event.ScheduleCacheInvalidator;
+import com.koszczi.calendar.application.event.ScheduleGenerator;
+import com.koszczi.calendar.application.event.dto.DateRange;
+import com.koszczi.calendar.application.event.projection.OccupancyProjector;
+import com.koszczi.calendar.application.event.validation.CalendarRules;
+import com.koszczi.calendar.application.event.validation.EventRules;
+import com.koszczi.calendar.model.event.CalendarDay;
+import com.koszczi.calendar.model.event.IsoWeeks;
+import com.koszczi.calendar.model.event.OccupancyProjectionRepository;
+import com.koszczi.calendar.model.event.RecurringEventRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Keeps a {@link ScheduleSnapshot} of the current and the upcoming weeks in {@code calendar.snapshot.file} when it is set,
+ * rewritten every {@code calendar.snapshot.interval} and at shut down. At start up, before the web server takes requests,
+ * the daily and weekly schedules of every calendar in the snapshot are generated from it into the schedule caches, unless
+ * the events of its range changed since it was written.
+ */
+@Service
+@ConditionalOnProperty("calendar.snapshot.file")
+@RequiredArgsConstructor
+@Slf4j
+public class ScheduleSnapshotter implements SmartInitializingSingleton {
+
+  public static final int MAX_SNAPSHOT_WEEKS = 52;
+
+  private final OccupancyProjector occupancyProjector;
+  private final OccupancyProjectionRepository occupancyProjectionRepository;
+  private final RecurringEventRepository recurringEventRepository;
+  private final ScheduleGenerator scheduleGenerator;
+  private final CalendarRules calendarRules;
+  private final CacheManager cacheManager;
+
+  @Value("${calendar.snapshot.file}")
+  private Path file;
+
+  @Value("${calendar.snapshot.weeks:4}")
+  private int weeks;
+
+  @Override
+  public void afterSingletonsInstantiated() {
+    warmUp();
+  }
+
+  /**
+   * Reads the snapshot and fills the schedule caches from it, returns the number of schedules cached.
+   */
+  public int warmUp() {
+    if (!Files.exists(file)) return 0;
+    long started = System.nanoTime();
+    ScheduleSnapshot snapshot;
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      snapshot = ScheduleSnapshot.readFrom(in);
+    } catch (IOException e) {
+      log.warn("Could not read the schedule snapshot {}", file, e);
+      return 0;
+    }
+    DateRange range = snapshot.range();
+    if (snapshot.eventCount() != occupancyProjectionRepository.sumEventCountByDateBetween(range.from(), range.to())
+        || snapshot.recurringEventCount() != recurringEventRepository.countSpanning(range.from(), range.to())) {
+      log.info("Skipped the schedule snapshot {}, events of {} - {} were created since it was written", file, range.from(), range.to());
+      return 0;
+    }
+    int cached = cache(snapshot);
+    log.info("Cached {} schedules from the snapshot {} in {} ms", cached, file, (System.nanoTime() - started) / 1_000_000);
+    return cached;
+  }
+
+  @Scheduled(initialDelayString = "${calendar.snapshot.interval:PT10M}", fixedDelayString = "${calendar.snapshot.interval:PT10M}")
+  @PreDestroy
+  public void write() {
+    LocalDate monday = LocalDate.now().with(DayOfWeek.MONDAY);
+    DateRange range = new DateRange(monday, monday.plusWeeks(Math.min(Math.max(weeks, 1), MAX_SNAPSHOT_WEEKS)).minusDays(1));
+    // counted before reading the occupancies, so events created meanwhile make the snapshot stale instead of missing from it
+    long eventCount = occupancyProjectionRepository.sumEventCountByDateBetween(range.from(), range.to());
+    long recurringEventCount = recurringEventRepository.countSpanning(range.from(), range.to());
+    ScheduleSnapshot snapshot = new ScheduleSnapshot(eventCount, recurringEventCount, range, occupancyProjector.findAll(range));
+
+    Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+    try {
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+        snapshot.writeTo(out);
+      }
+      Files.move(temporary, file, REPLACE_EXISTING, ATOMIC_MOVE);
+      log.debug("Wrote the schedule snapshot of {} calendar days to {}", snapshot.days().size(), file);
+    } catch (IOException e) {
+      log.warn("Could not write the schedule snapshot {}", file, e);
+    }
+  }
+
+  private int cache(ScheduleSnapshot snapshot) {
+    DateRange range = snapshot.range();
+    Set<String> calendarIds = new LinkedHashSet<>();
+    Set<List<Integer>> weeksOfRange = new LinkedHashSet<>();
+    snapshot.days().keySet().forEach(day -> calendarIds.add(day.calendarId()));
+    range.from().datesUntil(range.to().plusDays(1)).forEach(date -> weeksOfRange.add(List.of(IsoWeeks.yearOf(date), IsoWeeks.weekOf(date))));
+
+    int cached = 0;
+    for (String calendarId : calendarIds) {
+      EventRules rules = calendarRules.forCalendar(calendarId);
+      for (LocalDate date = range.from(); !date.isAfter(range.to()); date = date.plusDays(1)) {
+        SimpleKey day = new SimpleKey(calendarId, date);
+        cached += put(ScheduleCacheInvalidator.DAILY_SLOTS_CACHE, day, scheduleGenerator.generateDailySlots(occupancyOf(snapshot, calendarId, date), rules));
+        cached += put(ScheduleCacheInvalidator.DAILY_FREE_SLOTS_CACHE, day, scheduleGenerator.generateFreeSlots(occupancyOf(snapshot, calendarId, date), rules));
+      }
+      for (List<Integer> yearAndWeek : weeksOfRange) {
+        List<LocalDate> dates = IsoWeeks.datesOf(yearAndWeek.get(0), yearAndWeek.get(1));
+        // weeks cut by the range are left to be read from the database
+        if (dates.get(0).isBefore(range.from()) || dates.get(6).isAfter(range.to())) continue;
+        DayOccupancy[] occupancies = new DayOccupancy[7];
+        dates.forEach(date -> occupancies[date.getDayOfWeek().ordinal()] = occupancyOf(snapshot, calendarId, date));
+        SimpleKey week = new SimpleKey(calendarId, yearAndWeek.get(0), yearAndWeek.get(1));
+        cached += put(ScheduleCacheInvalidator.WEEKLY_SCHEDULE_CACHE, week, scheduleGenerator.generateWeeklySchedule(occupancies, rules));
+        cached += put(ScheduleCacheInvalidator.WEEKLY_SLOTS_CACHE, week, scheduleGenerator.generateWeeklySlots(occupancies, rules));
+      }
+    }
+    return cached;
+  }
+
+  private static DayOccupancy occupancyOf(ScheduleSnapshot snapshot, String calendarId, LocalDate date) {
+    DayOccupancy occupancy = snapshot.days().get(new CalendarDay(calendarId, date));
+    return occupancy == null ? new DayOccupancy() : occupancy;
+  }
+
+  private int put(String cacheName, SimpleKey key, Object schedule) {
+    Cache cache = cacheManager.getCache(cacheName);
+    return cache != null && cache.putIfAbsent(key, schedule) == null ? 1 : 0;
+  }
+}
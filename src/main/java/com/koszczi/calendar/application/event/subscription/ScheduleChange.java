@@ -0,0 +1,9 @@
+package com.koszczi.calendar.application.event.subscription;
+
+import com.koszczi.calendar.model.event.EventSlot;
+
+/**
+ * An event that showed up in a schedule, sent to the subscribers of its day or week. Occurrences of recurring events
+ * have no id.
+ */
+public record ScheduleChange(String calendarId, int year, int week, EventSlot event) { }
@@ -0,0 +1,119 @@
+package com.koszczi.calendar.application.event.subscription;
+
+import com.koszczi.calendar.application.event.InvalidQueryException;
+import com.koszczi.calendar.application.event.validation.EventRules;
+import com.koszczi.calendar.model.event.Event;
+import com.koszczi.calendar.model.event.EventSlot;
+import com.koszczi.calendar.model.event.IsoWeeks;
+import com.koszczi.calendar.model.event.RecurringEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes the events created to the subscribers of their days and weeks. Subscriptions are indexed by the same
+ * {@code (calendarId, date)} and {@code (calendarId, year, week)} keys as the cached schedules, so publishing is two map
+ * lookups per event and costs nothing without subscribers. Publishing only queues the change, the sending runs on virtual
+ * threads, so callers holding a day lock never wait for a connection.
+ */
+@Service
+public class ScheduleChangeFeed {
+
+  public static final String SUBSCRIPTION_GAUGE = "calendar.schedule.subscriptions";
+  public static final int MAX_SUBSCRIBED_KEYS = 64;
+
+  private final ConcurrentMap<SimpleKey, Set<ScheduleSubscription>> subscriptions = new ConcurrentHashMap<>();
+  private final AtomicInteger subscriptionCount = new AtomicInteger();
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+  public ScheduleChangeFeed(MeterRegistry meterRegistry) {
+    Gauge.builder(SUBSCRIPTION_GAUGE, subscriptionCount, AtomicInteger::get).register(meterRegistry);
+  }
+
+  /**
+   * Subscribes to the changes of days and of weeks of a calendar, the weeks numbered like {@link Event#getWeek()}.
+   *
+   * @param endListener told when the feed drops the subscriber, not when it is closed by the subscriber
+   */
+  public ScheduleSubscription subscribe(String calendarId, Collection<LocalDate> days, int year, Collection<Integer> weeks,
+                                        ScheduleSubscription.ScheduleChangeSink sink, ScheduleSubscription.ScheduleEndListener endListener) {
+    if (days.isEmpty() && weeks.isEmpty() || days.size() + weeks.size() > MAX_SUBSCRIBED_KEYS)
+      throw new InvalidQueryException("Between 1 and " + MAX_SUBSCRIBED_KEYS + " days and weeks can be subscribed to at once");
+    List<SimpleKey> keys = new ArrayList<>();
+    days.forEach(day -> keys.add(dayKey(calendarId, day)));
+    weeks.forEach(week -> keys.add(weekKey(calendarId, year, week)));
+    ScheduleSubscription subscription = new ScheduleSubscription(List.copyOf(keys), sink, endListener, executor, this::unsubscribe);
+    subscriptionCount.incrementAndGet();
+    // added inside compute, so a concurrent unsubscribe can never drop the set being added to
+    keys.forEach(key -> subscriptions.compute(key, (k, subscribers) -> {
+      Set<ScheduleSubscription> keySubscribers = subscribers != null ? subscribers : ConcurrentHashMap.newKeySet();
+      keySubscribers.add(subscription);
+      return keySubscribers;
+    }));
+    return subscription;
+  }
+
+  public void publish(Event event) {
+    publish(event.getCalendarId(), event.getYear(), event.getWeek(), EventSlot.of(event));
+  }
+
+  /**
+   * @param rules the rules of the calendar of the event
+   */
+  public void publish(RecurringEvent recurringEvent, EventRules rules) {
+    if (subscriptions.isEmpty()) return;
+    recurringEvent.occurrencesBetween(recurringEvent.getFirstDate(), recurringEvent.getLastDate(), rules::isBookable).forEach(date ->
+        publish(recurringEvent.getCalendarId(), IsoWeeks.yearOf(date), IsoWeeks.weekOf(date), recurringEvent.slotOn(date)));
+  }
+
+  public int subscriptionCount() {
+    return subscriptionCount.get();
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    subscriptions.values().stream().flatMap(Set::stream).distinct().toList().forEach(subscription -> subscription.end(null));
+    executor.shutdownNow();
+  }
+
+  private void publish(String calendarId, int year, int week, EventSlot slot) {
+    Set<ScheduleSubscription> daySubscribers = subscriptions.get(dayKey(calendarId, slot.date()));
+    Set<ScheduleSubscription> weekSubscribers = subscriptions.get(weekKey(calendarId, year, week));
+    if (daySubscribers == null && weekSubscribers == null) return;
+    Set<ScheduleSubscription> subscribers = new LinkedHashSet<>();
+    if (daySubscribers != null) subscribers.addAll(daySubscribers);
+    if (weekSubscribers != null) subscribers.addAll(weekSubscribers);
+    ScheduleChange change = new ScheduleChange(calendarId, year, week, slot);
+    subscribers.forEach(s -> s.offer(change));
+  }
+
+  private void unsubscribe(ScheduleSubscription subscription) {
+    subscriptionCount.decrementAndGet();
+    subscription.keys().forEach(key -> subscriptions.computeIfPresent(key, (k, subscribers) -> {
+      subscribers.remove(subscription);
+      return subscribers.isEmpty() ? null : subscribers;
+    }));
+  }
+
+  private static SimpleKey dayKey(String calendarId, LocalDate date) {
+    return new SimpleKey(calendarId, date);
+  }
+
+  private static SimpleKey weekKey(String calendarId, int year, int week) {
+    return new SimpleKey(calendarId, year, week);
+  }
+}
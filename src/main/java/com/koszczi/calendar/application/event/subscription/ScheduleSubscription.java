@@ -0,0 +1,108 @@
+package com.koszczi.calendar.application.event.subscription;
+
+import org.springframework.cache.interceptor.SimpleKey;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * One subscriber of the {@link ScheduleChangeFeed}. Changes are queued and sent by at most one task at a time, so they
+ * arrive in order and a slow connection only holds up its own queue. A subscriber falling more than
+ * {@link #MAX_PENDING_CHANGES} changes behind, or failing to receive one, is closed and its {@link ScheduleEndListener}
+ * told so, off the thread publishing the change.
+ */
+public final class ScheduleSubscription {
+
+  public static final int MAX_PENDING_CHANGES = 1000;
+
+  private final List<SimpleKey> keys;
+  private final ScheduleChangeSink sink;
+  private final Executor executor;
+  private final Consumer<ScheduleSubscription> onClose;
+  private final ScheduleEndListener endListener;
+  private final Queue<ScheduleChange> pendingChanges = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger pendingCount = new AtomicInteger();
+  private final AtomicBoolean draining = new AtomicBoolean();
+  private final AtomicBoolean closed = new AtomicBoolean();
+
+  ScheduleSubscription(List<SimpleKey> keys, ScheduleChangeSink sink, ScheduleEndListener endListener, Executor executor,
+                       Consumer<ScheduleSubscription> onClose) {
+    this.keys = keys;
+    this.sink = sink;
+    this.endListener = endListener;
+    this.executor = executor;
+    this.onClose = onClose;
+  }
+
+  void offer(ScheduleChange change) {
+    if (closed.get()) return;
+    if (pendingCount.incrementAndGet() > MAX_PENDING_CHANGES) {
+      if (closeQuietly()) executor.execute(() -> endListener.ended(null));
+      return;
+    }
+    pendingChanges.offer(change);
+    if (draining.compareAndSet(false, true)) executor.execute(this::drain);
+  }
+
+  /**
+   * Closes the subscription on behalf of the subscriber, its {@link ScheduleEndListener} is not called.
+   */
+  public void close() {
+    closeQuietly();
+  }
+
+  /**
+   * Closes the subscription on behalf of the feed and tells the subscriber, unless it was closed already.
+   */
+  void end(Exception failure) {
+    if (closeQuietly()) endListener.ended(failure);
+  }
+
+  public boolean isClosed() {
+    return closed.get();
+  }
+
+  List<SimpleKey> keys() {
+    return keys;
+  }
+
+  private void drain() {
+    do {
+      ScheduleChange change;
+      while (!closed.get() && (change = pendingChanges.poll()) != null) {
+        pendingCount.decrementAndGet();
+        try {
+          sink.send(change);
+        } catch (Exception e) {
+          end(e);
+        }
+      }
+      draining.set(false);
+    } while (!closed.get() && !pendingChanges.isEmpty() && draining.compareAndSet(false, true));
+  }
+
+  private boolean closeQuietly() {
+    if (!closed.compareAndSet(false, true)) return false;
+    onClose.accept(this);
+    return true;
+  }
+
+  @FunctionalInterface
+  public interface ScheduleChangeSink {
+    void send(ScheduleChange change) throws Exception;
+  }
+
+  /**
+   * Called once when the feed drops the subscriber, with the exception of the failed send, or {@code null} when it fell
+   * too far behind or the feed shut down.
+   */
+  @FunctionalInterface
+  public interface ScheduleEndListener {
+    void ended(Exception failure);
+  }
+}
@@ -0,0 +1,60 @@
+package com.koszczi.calendar.application.event.validation;
+
+import com.koszczi.calendar.application.event.validation.CalendarRulesProperties.Rules;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The {@link EventRules} of every calendar, compiled once from {@link CalendarRulesProperties} at start up. Invalid rules
+ * stop the start up. Calendars without rules of their own get the default ones.
+ */
+@Service
+@EnableConfigurationProperties(CalendarRulesProperties.class)
+public class CalendarRules {
+
+  private final EventRules defaultRules;
+  private final Map<String, EventRules> rulesByCalendar;
+
+  public CalendarRules(CalendarRulesProperties properties) {
+    Rules defaults = properties.defaults() == null ? Rules.BUILT_IN : properties.defaults().inherit(Rules.BUILT_IN);
+    this.defaultRules = compile("defaults", defaults);
+    Map<String, EventRules> rules = new HashMap<>();
+    if (properties.calendars() != null)
+      properties.calendars().forEach((calendarId, calendarRules) ->
+          rules.put(calendarId, compile("calendars." + calendarId, calendarRules.inherit(defaults))));
+    this.rulesByCalendar = Collections.unmodifiableMap(rules);
+  }
+
+  public static CalendarRules defaults() {
+    return new CalendarRules(new CalendarRulesProperties(null, null));
+  }
+
+  public EventRules forCalendar(String calendarId) {
+    EventRules rules = rulesByCalendar.get(calendarId);
+    return rules == null ? defaultRules : rules;
+  }
+
+  /**
+   * Rules a booking in every one of the calendars meets.
+   */
+  public EventRules forCalendars(Collection<String> calendarIds) {
+    Set<EventRules> distinctRules = Collections.newSetFromMap(new IdentityHashMap<>());
+    calendarIds.forEach(calendarId -> distinctRules.add(forCalendar(calendarId)));
+    return distinctRules.stream().reduce(EventRules::intersect).orElse(defaultRules);
+  }
+
+  private static EventRules compile(String name, Rules rules) {
+    try {
+      return EventRules.of(rules);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Invalid calendar.rules." + name + ": " + e.getMessage(), e);
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package com.koszczi.calendar.application.event.validation;
+
+import com.koszczi.calendar.application.event.DayOccupancy;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Map;
+import java.util.Set;
+
+import static java.time.DayOfWeek.*;
+
+/**
+ * {@code calendar.rules.defaults.*} for every calendar and {@code calendar.rules.calendars.<calendar id>.*} overriding them
+ * per calendar. Unset values are inherited, from the defaults and then from {@link Rules#BUILT_IN}.
+ * <p>
+ * The occupancies are stored as one bit per {@value DayOccupancy#SLOT_MINUTES} minute slot between 09:00 and 17:00, so
+ * working hours off that grid and granularities other than a multiple of the slot are rejected while binding, naming
+ * the property.
+ */
+@ConfigurationProperties("calendar.rules")
+public record CalendarRulesProperties(Rules defaults, Map<String, Rules> calendars) {
+
+  public record Rules(LocalTime start, LocalTime end, Duration granularity, Duration minDuration, Duration maxDuration,
+                      Set<DayOfWeek> workingDays, Set<LocalDate> holidays) {
+
+    private static final Duration SLOT = Duration.ofMinutes(DayOccupancy.SLOT_MINUTES);
+    private static final LocalTime GRID_END = DayOccupancy.timeOf(DayOccupancy.SLOTS_PER_DAY);
+
+    public static final Rules BUILT_IN = new Rules(LocalTime.of(9, 0), LocalTime.of(17, 0), Duration.ofMinutes(30),
+        Duration.ofMinutes(30), Duration.ofMinutes(180), Set.of(MONDAY, TUESDAY, WEDNESDAY, THURSDAY, FRIDAY), Set.of());
+
+    public Rules {
+      requireOnSlotGrid("start", start);
+      requireOnSlotGrid("end", end);
+      if (granularity != null && (granularity.isNegative() || granularity.isZero() || granularity.toNanos() % SLOT.toNanos() != 0))
+        throw new IllegalArgumentException("granularity must be a multiple of the " + DayOccupancy.SLOT_MINUTES
+            + " minute slots the occupancies are stored in, not " + granularity);
+    }
+
+    Rules inherit(Rules parent) {
+      return new Rules(start != null ? start : parent.start, end != null ? end : parent.end,
+          granularity != null ? granularity : parent.granularity, minDuration != null ? minDuration : parent.minDuration,
+          maxDuration != null ? maxDuration : parent.maxDuration, workingDays != null ? workingDays : parent.workingDays,
+          holidays != null ? holidays : parent.holidays);
+    }
+
+    private static void requireOnSlotGrid(String name, LocalTime time) {
+      if (time != null && (time.isBefore(DayOccupancy.DAY_START) || time.isAfter(GRID_END)
+          || Duration.between(DayOccupancy.DAY_START, time).toNanos() % SLOT.toNanos() != 0))
+        throw new IllegalArgumentException(name + " must be on the " + DayOccupancy.SLOT_MINUTES + " minute grid between "
+            + DayOccupancy.DAY_START + " and " + GRID_END + " the occupancies are stored on, not " + time);
+    }
+  }
+}
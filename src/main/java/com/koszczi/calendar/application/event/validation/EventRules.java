@@ -0,0 +1,140 @@
+package com.koszczi.calendar.application.event.validation;
+
+import com.koszczi.calendar.application.event.DayOccupancy;
+import com.koszczi.calendar.application.event.validation.CalendarRulesProperties.Rules;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+
+/**
+ * The booking rules of a calendar compiled to primitives: working hours in nanos of the day, the slot granularity, the
+ * allowed event lengths in minutes, the working days as a bit per {@code DayOfWeek.ordinal()} and the holidays as sorted
+ * epoch days, so every check is a comparison, a remainder or a binary search. {@link Rules} only holds working hours on
+ * the 30-minute grid between 09:00 and 17:00 the occupancies are stored on, and granularities that are a multiple of
+ * its slots.
+ */
+public final class EventRules {
+
+  private static final long NANOS_PER_MINUTE = 60_000_000_000L;
+  private static final long NANOS_PER_SLOT = DayOccupancy.SLOT_MINUTES * NANOS_PER_MINUTE;
+
+  public static final EventRules DEFAULTS = of(Rules.BUILT_IN);
+
+  private final long dayStart;
+  private final long dayEnd;
+  private final long granularity;
+  private final int minDuration;
+  private final int maxDuration;
+  private final int workingDays;
+  private final long[] holidays;
+
+  private EventRules(long dayStart, long dayEnd, long granularity, int minDuration, int maxDuration, int workingDays, long[] holidays) {
+    this.dayStart = dayStart;
+    this.dayEnd = dayEnd;
+    this.granularity = granularity;
+    this.minDuration = minDuration;
+    this.maxDuration = maxDuration;
+    this.workingDays = workingDays;
+    this.holidays = holidays;
+  }
+
+  /**
+   * @param rules rules with every value set
+   */
+  public static EventRules of(Rules rules) {
+    LocalTime start = rules.start();
+    LocalTime end = rules.end();
+    Duration granularity = rules.granularity();
+    Duration minDuration = rules.minDuration();
+    Duration maxDuration = rules.maxDuration();
+    if (!start.isBefore(end))
+      throw new IllegalArgumentException("Working hours must end after they start, not " + start + " - " + end);
+    if (minDuration.toMinutes() < 1 || minDuration.compareTo(maxDuration) > 0)
+      throw new IllegalArgumentException("Event lengths must be positive, the minimum not above the maximum, not "
+          + minDuration + " - " + maxDuration);
+    int dayMask = 0;
+    for (DayOfWeek day : rules.workingDays()) dayMask |= 1 << day.ordinal();
+    return new EventRules(start.toNanoOfDay(), end.toNanoOfDay(), granularity.toNanos(), (int) minDuration.toMinutes(),
+        (int) Math.min(maxDuration.toMinutes(), Integer.MAX_VALUE), dayMask,
+        rules.holidays().stream().mapToLong(LocalDate::toEpochDay).sorted().distinct().toArray());
+  }
+
+  public boolean isWorkingDay(DayOfWeek day) {
+    return (workingDays & 1 << day.ordinal()) != 0;
+  }
+
+  public boolean isHoliday(LocalDate date) {
+    return holidays.length > 0 && Arrays.binarySearch(holidays, date.toEpochDay()) >= 0;
+  }
+
+  /**
+   * Whether events can be booked on the day, a working day that is no holiday.
+   */
+  public boolean isBookable(LocalDate date) {
+    return isWorkingDay(date.getDayOfWeek()) && !isHoliday(date);
+  }
+
+  public boolean isWithinWorkingHours(LocalTime time) {
+    long nanoOfDay = time.toNanoOfDay();
+    return nanoOfDay >= dayStart && nanoOfDay <= dayEnd;
+  }
+
+  /**
+   * Whether the time is a whole number of granularity steps away from the start of the working hours.
+   */
+  public boolean isOnGrid(LocalTime time) {
+    return (time.toNanoOfDay() - dayStart) % granularity == 0;
+  }
+
+  public int minDuration() {
+    return minDuration;
+  }
+
+  public int maxDuration() {
+    return maxDuration;
+  }
+
+  public int firstSlot() {
+    return slotOf(dayStart);
+  }
+
+  public int lastSlot() {
+    return slotOf(dayEnd);
+  }
+
+  /**
+   * The granularity in slots of the occupancy grid, events start and end a multiple of it after {@link #firstSlot()}.
+   */
+  public int granularitySlots() {
+    return (int) (granularity / NANOS_PER_SLOT);
+  }
+
+  /**
+   * The slots an event of at least {@code minutes} takes, rounded up to whole granularity steps.
+   */
+  public int slotsFor(int minutes) {
+    int step = granularitySlots();
+    return Math.ceilDiv(minutes, step * DayOccupancy.SLOT_MINUTES) * step;
+  }
+
+  /**
+   * Rules a booking in every one of two calendars meets: the common working days and hours, the holidays of both and the
+   * event lengths allowed by both. The working hours may end up empty.
+   */
+  public EventRules intersect(EventRules other) {
+    long[] bothHolidays = new long[holidays.length + other.holidays.length];
+    System.arraycopy(holidays, 0, bothHolidays, 0, holidays.length);
+    System.arraycopy(other.holidays, 0, bothHolidays, holidays.length, other.holidays.length);
+    return new EventRules(Math.max(dayStart, other.dayStart), Math.min(dayEnd, other.dayEnd), Math.max(granularity, other.granularity),
+        Math.max(minDuration, other.minDuration), Math.min(maxDuration, other.maxDuration), workingDays & other.workingDays,
+        Arrays.stream(bothHolidays).sorted().distinct().toArray());
+  }
+
+  private static int slotOf(long nanoOfDay) {
+    int slot = (int) ((nanoOfDay - DayOccupancy.DAY_START.toNanoOfDay()) / NANOS_PER_SLOT);
+    return Math.max(0, Math.min(DayOccupancy.SLOTS_PER_DAY, slot));
+  }
+}
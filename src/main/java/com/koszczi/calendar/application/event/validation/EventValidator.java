@@ -2,82 +2,119 @@ package com.koszczi.calendar.application.event.validation;
 
 import com.koszczi.calendar.application.event.dto.ValidationError;
 import com.koszczi.calendar.application.event.dto.EventDto;
+import com.koszczi.calendar.application.event.dto.RecurringEventDto;
 import com.koszczi.calendar.model.event.Event;
+import com.koszczi.calendar.model.event.EventSlot;
+import com.koszczi.calendar.model.event.RecurringEvent;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
-import java.time.DayOfWeek;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
-import java.util.HashSet;
-import java.util.Optional;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.Set;
 
 import static com.koszczi.calendar.application.event.dto.ValidationError.*;
-import static java.time.DayOfWeek.SATURDAY;
-import static java.time.DayOfWeek.SUNDAY;
-import static java.time.temporal.ChronoUnit.MINUTES;
 
+/**
+ * Checks events against the {@link EventRules} of their calendar. The checks only compare primitives and collect the
+ * failures as bits, so a valid event allocates nothing and gets the shared empty set. The returned sets are read-only.
+ */
+@RequiredArgsConstructor
 @Service
 public class EventValidator {
 
-  public static final LocalTime NINE_IN_THE_MORNING = LocalTime.of(9, 0, 0);
-  public static final LocalTime FIVE_IN_THE_EVENING = LocalTime.of(17, 0, 0);
-  public static final int MAX_EVENT_LENGTH_MINS = 180;
-  public static final int MIN_EVENT_LENGTH_MINS = 30;
+  public static final int MAX_RECURRENCE_INTERVAL = 12;
+  public static final int MAX_RECURRENCE_COUNT = 500;
+  public static final int MAX_CALENDAR_ID_LENGTH = 64;
+
+  private static final ValidationError[] VALIDATION_ERRORS = ValidationError.values();
+  private static final int SECONDS_PER_DAY = 86_400;
+
+  private final CalendarRules calendarRules;
 
   public boolean eventsOverLap(Event event1, Event event2) {
-    return event1.getDate().equals(event2.getDate())
+    return event1.getCalendarId().equals(event2.getCalendarId())
+        && event1.getDate().equals(event2.getDate())
         && event1.getStart().isBefore(event2.getEnd())
         && event2.getStart().isBefore(event1.getEnd());
   }
 
-  public Set<ValidationError> validateDto(EventDto eventDto) {
-    Set<ValidationError> validationFailures = new HashSet<>();
-
-    validationFailures.addAll(validateDateTime(eventDto.startDateTime()));
-    validationFailures.addAll(validateDateTime(eventDto.endDateTime()));
-    validateEventNotTooLong(eventDto.startDateTime(), eventDto.endDateTime()).ifPresent(validationFailures::add);
-    validateEventNotTooShort(eventDto.startDateTime(), eventDto.endDateTime()).ifPresent(validationFailures::add);
-
-    return validationFailures;
+  /**
+   * Slots carry no calendar, they are expected to come from the calendar of the event.
+   */
+  public boolean eventsOverLap(Event event, EventSlot slot) {
+    return event.getDate().equals(slot.date())
+        && event.getStart().isBefore(slot.end())
+        && slot.start().isBefore(event.getEnd());
   }
 
-  private Set<ValidationError> validateDateTime(LocalDateTime dateTime) {
-    Set<ValidationError> failures = new HashSet<>();
+  public Set<ValidationError> validateDto(EventDto eventDto) {
+    return toSet(check(eventDto));
+  }
 
-    validateWeekDay(dateTime).ifPresent(failures::add);
-    validateTimeRange(dateTime).ifPresent(failures::add);
-    validateAllowedMinuteAndSecond(dateTime).ifPresent(failures::add);
+  /**
+   * Validates the first occurrence like a single event, and that the recurrence ends within
+   * {@link RecurringEvent#MAX_RECURRENCE_DAYS} days.
+   */
+  public Set<ValidationError> validateRecurringDto(RecurringEventDto recurringEventDto) {
+    int failures = check(recurringEventDto.firstOccurrence());
+    if (!isValidRecurrence(recurringEventDto)) failures |= bit(INVALID_RECURRENCE);
+    return toSet(failures);
+  }
 
+  private int check(EventDto eventDto) {
+    EventRules rules = calendarRules.forCalendar(eventDto.calendarId());
+    LocalDateTime start = eventDto.startDateTime();
+    LocalDateTime end = eventDto.endDateTime();
+    int failures = checkDateTime(rules, start) | checkDateTime(rules, end);
+    long minutes = ((end.toLocalDate().toEpochDay() - start.toLocalDate().toEpochDay()) * SECONDS_PER_DAY
+        + end.toLocalTime().toSecondOfDay() - start.toLocalTime().toSecondOfDay()) / 60;
+    if (minutes > rules.maxDuration()) failures |= bit(EVENT_TOO_LONG);
+    if (minutes < rules.minDuration()) failures |= bit(EVENT_TOO_SHORT);
+    if (!isValidCalendarId(eventDto.calendarId())) failures |= bit(INVALID_CALENDAR);
     return failures;
   }
 
-  private Optional<ValidationError> validateWeekDay(LocalDateTime dateTime) {
-    DayOfWeek dow = dateTime.getDayOfWeek();
-    if (SATURDAY.equals(dow) || SUNDAY.equals(dow))
-      return Optional.of(NOT_WEEKDAY);
-    return Optional.empty();
+  private static int checkDateTime(EventRules rules, LocalDateTime dateTime) {
+    int failures = 0;
+    if (!rules.isWorkingDay(dateTime.getDayOfWeek())) failures |= bit(NOT_WEEKDAY);
+    else if (rules.isHoliday(dateTime.toLocalDate())) failures |= bit(HOLIDAY);
+    if (!rules.isWithinWorkingHours(dateTime.toLocalTime())) failures |= bit(OUT_OF_TIMERANGE);
+    if (!rules.isOnGrid(dateTime.toLocalTime())) failures |= bit(INVALID_TIME);
+    return failures;
   }
 
-  private Optional<ValidationError> validateTimeRange(LocalDateTime dateTime) {
-    LocalTime time = dateTime.toLocalTime();
-    if (time.isBefore(NINE_IN_THE_MORNING) || time.isAfter(FIVE_IN_THE_EVENING))
-      return Optional.of(OUT_OF_TIMERANGE);
-    return Optional.empty();
+  private boolean isValidRecurrence(RecurringEventDto dto) {
+    if (dto.recurrence() == null || dto.interval() < 1 || dto.interval() > MAX_RECURRENCE_INTERVAL) return false;
+    if (dto.count() != null && (dto.count() < 1 || dto.count() > MAX_RECURRENCE_COUNT)) return false;
+    EventRules rules = calendarRules.forCalendar(dto.calendarId());
+    return RecurringEvent.lastDateOf(dto.recurrence(), dto.interval(), dto.startDateTime().toLocalDate(), dto.count(), dto.until(),
+        rules::isBookable) != null;
   }
 
-  private Optional<ValidationError> validateAllowedMinuteAndSecond(LocalDateTime dateTime) {
-    LocalTime time = dateTime.toLocalTime();
-    if (time.getSecond() != 0) return Optional.of(INVALID_TIME);
-    if (time.getMinute() != 0 && time.getMinute() != 30) return Optional.of(INVALID_TIME);
-    return Optional.empty();
+  /**
+   * 1 to 64 letters, digits, '.', '_' or '-'.
+   */
+  private static boolean isValidCalendarId(String calendarId) {
+    if (calendarId == null || calendarId.isEmpty() || calendarId.length() > MAX_CALENDAR_ID_LENGTH) return false;
+    for (int i = 0; i < calendarId.length(); i++) {
+      char c = calendarId.charAt(i);
+      if (!(c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '.' || c == '_' || c == '-')) return false;
+    }
+    return true;
   }
 
-  private Optional<ValidationError> validateEventNotTooLong(LocalDateTime startDateTime, LocalDateTime endDateTime) {
-    return startDateTime.until(endDateTime, MINUTES) > MAX_EVENT_LENGTH_MINS ? Optional.of(EVENT_TOO_LONG) : Optional.empty();
+  private static int bit(ValidationError error) {
+    return 1 << error.ordinal();
   }
 
-  private Optional<ValidationError> validateEventNotTooShort(LocalDateTime startDateTime, LocalDateTime endDateTime) {
-    return startDateTime.until(endDateTime, MINUTES) < MIN_EVENT_LENGTH_MINS ? Optional.of(EVENT_TOO_SHORT) : Optional.empty();
+  private static Set<ValidationError> toSet(int failures) {
+    if (failures == 0) return Set.of();
+    Set<ValidationError> errors = EnumSet.noneOf(ValidationError.class);
+    for (ValidationError error : VALIDATION_ERRORS) {
+      if ((failures & bit(error)) != 0) errors.add(error);
+    }
+    return Collections.unmodifiableSet(errors);
   }
 }
@@ -0,0 +1,57 @@
+package com.koszczi.calendar.cli;
+
+import com.koszczi.calendar.application.event.export.EventExporter;
+import com.koszczi.calendar.application.event.export.ExportFormat;
+import com.koszczi.calendar.model.event.Event;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+/**
+ * Exports the calendar to a file at start up when {@code calendar.export.file} is set, e.g.
+ * {@code java -jar calendar.jar --spring.main.web-application-type=none --calendar.export.file=calendar.ics}
+ */
+@Component
+@ConditionalOnProperty("calendar.export.file")
+@RequiredArgsConstructor
+@Slf4j
+public class EventExportCommand implements ApplicationRunner {
+
+  private final EventExporter eventExporter;
+
+  @Value("${calendar.export.file}")
+  private Path file;
+
+  @Value("${calendar.export.calendar:" + Event.DEFAULT_CALENDAR + "}")
+  private String calendarId;
+
+  @Value("${calendar.export.format:ICS}")
+  private ExportFormat format;
+
+  @Value("${calendar.export.from:#{null}}")
+  private LocalDate from;
+
+  @Value("${calendar.export.to:#{null}}")
+  private LocalDate to;
+
+  @Override
+  public void run(ApplicationArguments args) throws Exception {
+    long started = System.nanoTime();
+    long count;
+    try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      count = eventExporter.export(calendarId, eventExporter.rangeOf(calendarId, from, to), format, out);
+    }
+    double seconds = (System.nanoTime() - started) / 1e9;
+    log.info("Exported {} events to {} in {} s ({} events/s)", count, file, String.format("%.2f", seconds), Math.round(count / seconds));
+  }
+}
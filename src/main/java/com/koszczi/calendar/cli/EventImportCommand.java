@@ -0,0 +1,59 @@
+package com.koszczi.calendar.cli;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.koszczi.calendar.application.event.dto.ImportReport;
+import com.koszczi.calendar.application.event.export.ExportFormat;
+import com.koszczi.calendar.application.event.importing.EventImporter;
+import com.koszczi.calendar.model.event.Event;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Imports a file at start up when {@code calendar.import.file} is set, e.g.
+ * {@code java -jar calendar.jar --spring.main.web-application-type=none --calendar.import.file=calendar.ics}.
+ * The report of the import is written as JSON to {@code calendar.import.report} when that is set.
+ */
+@Component
+@ConditionalOnProperty("calendar.import.file")
+@RequiredArgsConstructor
+@Slf4j
+public class EventImportCommand implements ApplicationRunner {
+
+  private final EventImporter eventImporter;
+  private final ObjectMapper objectMapper;
+
+  @Value("${calendar.import.file}")
+  private Path file;
+
+  @Value("${calendar.import.calendar:" + Event.DEFAULT_CALENDAR + "}")
+  private String calendarId;
+
+  @Value("${calendar.import.format:ICS}")
+  private ExportFormat format;
+
+  @Value("${calendar.import.report:#{null}}")
+  private Path reportFile;
+
+  @Override
+  public void run(ApplicationArguments args) throws Exception {
+    long started = System.nanoTime();
+    ImportReport report;
+    try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      report = eventImporter.importEvents(in, format, calendarId);
+    }
+    double seconds = (System.nanoTime() - started) / 1e9;
+    log.info("Imported {} of {} events from {} in {} s ({} rows/s), {} rejected", report.imported(), report.rows(), file,
+        String.format("%.2f", seconds), Math.round(report.rows() / seconds), report.rejected());
+    if (reportFile != null) objectMapper.writeValue(reportFile.toFile(), report);
+  }
+}
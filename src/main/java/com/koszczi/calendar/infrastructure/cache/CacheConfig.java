@@ -0,0 +1,33 @@
+package com.koszczi.calendar.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.Executors;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+  /**
+   * A synchronous Caffeine load runs inside the map's compute, which holds a monitor and pins the carrier of a virtual
+   * thread for the whole database query. In async mode the load runs on its own virtual thread and only the
+   * future is installed under the monitor.
+   */
+  @Bean
+  @ConditionalOnThreading(Threading.VIRTUAL)
+  CacheManagerCustomizer<CaffeineCacheManager> virtualThreadCacheLoading(CacheProperties cacheProperties) {
+    return cacheManager -> {
+      cacheManager.setCaffeine(Caffeine.from(cacheProperties.getCaffeine().getSpec())
+          .executor(Executors.newVirtualThreadPerTaskExecutor()));
+      cacheManager.setAsyncCacheMode(true);
+    };
+  }
+}
@@ -0,0 +1,66 @@
+package com.koszczi.calendar.infrastructure.database;
+
+import com.koszczi.calendar.model.event.IsoWeeks;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Recomputes the stored {@code calendar_year} and {@code week_of_year} columns as {@link IsoWeeks}, once per database.
+ * They used to hold the calendar year and the week of the default locale, so on non-ISO locales the weekly queries read
+ * the wrong rows. Runs right after Hibernate updated the schema and before any bean reads the events; rows are updated
+ * date by date and only when they differ, so a run interrupted before it was recorded is simply repeated.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+@Slf4j
+public class IsoWeekMigration {
+
+  static final String MIGRATION_ID = "iso-weeks";
+  static final List<String> TABLES = List.of("calendar_events", "calendar_events_archive", "calendar_occupancy");
+
+  private static final int BATCH_SIZE = 500;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  @PostConstruct
+  void migrateOnce() {
+    jdbcTemplate.execute("create table if not exists calendar_migrations (id varchar(64) primary key, applied_at timestamp not null)");
+    Integer applied = jdbcTemplate.queryForObject("select count(*) from calendar_migrations where id = ?", Integer.class, MIGRATION_ID);
+    if (applied != null && applied > 0) return;
+    int updated = migrate();
+    jdbcTemplate.update("insert into calendar_migrations (id, applied_at) values (?, current_timestamp)", MIGRATION_ID);
+    if (updated > 0) log.info("Recomputed the ISO year and week of {} stored rows", updated);
+  }
+
+  /**
+   * Returns the number of rows whose year or week changed.
+   */
+  int migrate() {
+    int updated = 0;
+    for (String table : TABLES) {
+      List<LocalDate> dates = jdbcTemplate.queryForList("select distinct date from " + table, LocalDate.class);
+      int[][] counts = jdbcTemplate.batchUpdate("update " + table + " set calendar_year = ?, week_of_year = ? "
+          + "where date = ? and (calendar_year <> ? or week_of_year <> ?)", dates, BATCH_SIZE, (statement, date) -> {
+        int year = IsoWeeks.yearOf(date);
+        int week = IsoWeeks.weekOf(date);
+        statement.setInt(1, year);
+        statement.setInt(2, week);
+        statement.setDate(3, Date.valueOf(date));
+        statement.setInt(4, year);
+        statement.setInt(5, week);
+      });
+      updated += Arrays.stream(counts).flatMapToInt(Arrays::stream).filter(count -> count > 0).sum();
+    }
+    return updated;
+  }
+}
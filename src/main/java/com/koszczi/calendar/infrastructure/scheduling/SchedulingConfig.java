@@ -0,0 +1,12 @@
+package com.koszczi.calendar.infrastructure.scheduling;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Runs the {@code @Scheduled} methods of the optional background jobs, whichever of them are enabled.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
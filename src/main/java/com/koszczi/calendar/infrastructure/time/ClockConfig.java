@@ -0,0 +1,18 @@
+package com.koszczi.calendar.infrastructure.time;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+/**
+ * The clock of the components stamping their output with the current time, replaced by a fixed one in tests.
+ */
+@Configuration
+public class ClockConfig {
+
+  @Bean
+  Clock clock() {
+    return Clock.systemUTC();
+  }
+}
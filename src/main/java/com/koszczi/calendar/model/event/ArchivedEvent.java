@@ -0,0 +1,63 @@
+package com.koszczi.calendar.model.event;
+
+import com.koszczi.calendar.model.BaseEntity;
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * An event of a past week moved out of {@code calendar_events} with its id, version and audit columns. Rows are only
+ * ever inserted by the archiving statements of {@link ArchivedEventRepository} and never change afterwards.
+ */
+@Entity
+@Immutable
+@Table(name = "calendar_events_archive", indexes = {
+    @Index(name = "archived_event_calendar_date", columnList = "calendar_id, date")
+} )
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@EqualsAndHashCode(of = "id")
+@Getter
+public class ArchivedEvent extends BaseEntity {
+
+  @Column(name = "id")
+  @Id
+  private Long id;
+
+  @Column(name = "calendar_id", nullable = false, length = 64)
+  private String calendarId;
+
+  @Column(name = "calendar_year")
+  private int year;
+
+  @Column(name = "week_of_year")
+  private int week;
+
+  @Column(name = "day_of_week")
+  private DayOfWeek dayOfWeek;
+
+  @Column(name = "date")
+  private LocalDate date;
+
+  @Column(name = "event_start")
+  private LocalTime start;
+
+  @Column(name = "event_end")
+  private LocalTime end;
+
+  @Column(name = "organizer")
+  private String organizer;
+
+  /**
+   * A detached copy as an {@link Event}, for the readers handing out events of both tables.
+   */
+  public Event toEvent() {
+    return new Event(id, calendarId, year, week, dayOfWeek, date, start, end, organizer);
+  }
+}
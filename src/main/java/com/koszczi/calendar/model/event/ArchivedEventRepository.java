@@ -0,0 +1,64 @@
+package com.koszczi.calendar.model.event;
+
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+/**
+ * The read queries of {@link EventRepository} on the archive, and the two statements moving events to it. Each statement
+ * commits on its own and skips the rows the other one already handled, so an interrupted move is finished by the next.
+ */
+public interface ArchivedEventRepository extends Repository<ArchivedEvent, Long> {
+
+  Collection<EventSlot> findSlotsByCalendarIdAndDate(String calendarId, LocalDate date);
+  Collection<EventSlot> findSlotsByCalendarIdAndDateIn(String calendarId, Collection<LocalDate> dates);
+  Collection<EventSlot> findSlotsByCalendarIdAndDateBetweenAndStartBeforeAndEndAfter(String calendarId, LocalDate from, LocalDate to,
+                                                                                      LocalTime startsBefore, LocalTime endsAfter);
+
+  @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+  Stream<ArchivedEvent> streamAllByCalendarIdAndDateBetweenOrderByDateAscStartAsc(String calendarId, LocalDate from, LocalDate to);
+
+  @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+  Stream<EventSlot> streamSlotsByCalendarIdAndDateBetweenOrderByDateAscStartAsc(String calendarId, LocalDate from, LocalDate to);
+
+  @Query("select max(a.date) from ArchivedEvent a")
+  Optional<LocalDate> findLastDate();
+
+  @Query("select min(a.date) from ArchivedEvent a where a.calendarId = ?1")
+  Optional<LocalDate> findFirstDate(String calendarId);
+
+  @Query("select max(a.date) from ArchivedEvent a where a.calendarId = ?1")
+  Optional<LocalDate> findLastDate(String calendarId);
+
+  @Transactional
+  @Modifying
+  @Query(nativeQuery = true, value = """
+      insert into calendar_events_archive (id, calendar_id, calendar_year, week_of_year, day_of_week, date, event_start, event_end,
+                                           organizer, version, creation_date, created_by, last_modified_date, last_modified_by)
+      select e.id, e.calendar_id, e.calendar_year, e.week_of_year, e.day_of_week, e.date, e.event_start, e.event_end,
+             e.organizer, e.version, e.creation_date, e.created_by, e.last_modified_date, e.last_modified_by
+      from calendar_events e
+      where e.date >= :from and e.date < :before
+        and not exists (select 1 from calendar_events_archive a where a.id = e.id)""")
+  int copyEventsBetween(LocalDate from, LocalDate before);
+
+  @Transactional
+  @Modifying
+  @Query(nativeQuery = true, value = """
+      delete from calendar_events e
+      where e.date >= :from and e.date < :before
+        and exists (select 1 from calendar_events_archive a where a.id = e.id)""")
+  int deleteArchivedEventsBetween(LocalDate from, LocalDate before);
+}
@@ -0,0 +1,14 @@
+package com.koszczi.calendar.model.event;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * A day of one calendar, the unit the overlap checks, the occupancy projection and the locks work on.
+ */
+public record CalendarDay(String calendarId, LocalDate date) implements Serializable {
+
+  public static CalendarDay of(Event event) {
+    return new CalendarDay(event.getCalendarId(), event.getDate());
+  }
+}
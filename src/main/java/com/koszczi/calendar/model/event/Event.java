@@ -11,13 +11,11 @@ import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.time.temporal.TemporalField;
-import java.time.temporal.WeekFields;
-import java.util.Locale;
 
 @Entity
 @Table(name = "calendar_events", indexes = {
-    @Index(name = "event_year_week", columnList = "calendar_year, week_of_year"),
+    @Index(name = "event_calendar_year_week", columnList = "calendar_id, calendar_year, week_of_year"),
+    @Index(name = "event_calendar_date", columnList = "calendar_id, date"),
     @Index(name = "event_date", columnList = "date")
 } )
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
@@ -25,11 +23,17 @@ import java.util.Locale;
 @Getter
 public class Event extends BaseEntity {
 
+  public static final String DEFAULT_CALENDAR = "default";
+
   @Column(name = "id")
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "calendar_events_seq")
+  @SequenceGenerator(name = "calendar_events_seq", sequenceName = "calendar_events_seq", allocationSize = 50)
   private Long id;
 
+  @Column(name = "calendar_id", nullable = false, length = 64)
+  private String calendarId;
+
   @Column(name = "calendar_year")
   private int year;
 
@@ -52,9 +56,13 @@ public class Event extends BaseEntity {
   private String organizer;
 
   public Event(LocalDateTime start, LocalDateTime end, String organizer) {
-    this.year = start.getYear();
-    TemporalField woy = WeekFields.of(Locale.getDefault()).weekOfWeekBasedYear();
-    this.week = start.get(woy);
+    this(DEFAULT_CALENDAR, start, end, organizer);
+  }
+
+  public Event(String calendarId, LocalDateTime start, LocalDateTime end, String organizer) {
+    this.calendarId = calendarId;
+    this.year = IsoWeeks.yearOf(start.toLocalDate());
+    this.week = IsoWeeks.weekOf(start.toLocalDate());
     this.date = start.toLocalDate();
     this.dayOfWeek = start.getDayOfWeek();
     this.start = start.toLocalTime();
@@ -62,6 +70,19 @@ public class Event extends BaseEntity {
     this.organizer = organizer;
   }
 
+  Event(Long id, String calendarId, int year, int week, DayOfWeek dayOfWeek, LocalDate date, LocalTime start, LocalTime end,
+        String organizer) {
+    this.id = id;
+    this.calendarId = calendarId;
+    this.year = year;
+    this.week = week;
+    this.dayOfWeek = dayOfWeek;
+    this.date = date;
+    this.start = start;
+    this.end = end;
+    this.organizer = organizer;
+  }
+
   @Override
   public String toString() {
     return String.format("Event on %s, from %s to %s, organized by %s", date, start, end, organizer);
@@ -0,0 +1,29 @@
+package com.koszczi.calendar.model.event;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Stores the event ids of a day's slots as a fixed 8 bytes per slot binary column instead of a child table.
+ */
+@Converter
+public class EventIdsConverter implements AttributeConverter<long[], byte[]> {
+
+  @Override
+  public byte[] convertToDatabaseColumn(long[] eventIds) {
+    if (eventIds == null) return null;
+    ByteBuffer buffer = ByteBuffer.allocate(eventIds.length * Long.BYTES);
+    buffer.asLongBuffer().put(eventIds);
+    return buffer.array();
+  }
+
+  @Override
+  public long[] convertToEntityAttribute(byte[] column) {
+    if (column == null) return null;
+    long[] eventIds = new long[column.length / Long.BYTES];
+    ByteBuffer.wrap(column).asLongBuffer().get(eventIds);
+    return eventIds;
+  }
+}
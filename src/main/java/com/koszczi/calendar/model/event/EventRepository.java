@@ -1,13 +1,42 @@
 package com.koszczi.calendar.model.event;
 
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 
-import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.Collection;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 public interface EventRepository extends CrudRepository<Event, Long> {
 
-  Collection<Event> findAllByDate(LocalDate date);
-  Collection<Event> findAllByYearAndWeek(int year, int week);
+  @QueryHints(@QueryHint(name = HINT_READ_ONLY, value = "true"))
+  Collection<Event> findAllByCalendarIdAndDate(String calendarId, LocalDate date);
+  @QueryHints(@QueryHint(name = HINT_READ_ONLY, value = "true"))
+  Collection<Event> findAllByCalendarIdAndYearAndWeek(String calendarId, int year, int week);
+  Collection<EventSlot> findSlotsByCalendarIdAndDate(String calendarId, LocalDate date);
+  Collection<EventSlot> findSlotsByCalendarIdAndDateIn(String calendarId, Collection<LocalDate> dates);
+  Collection<EventSlot> findSlotsByCalendarIdAndDateBetweenAndStartBeforeAndEndAfter(String calendarId, LocalDate from, LocalDate to,
+                                                                                      LocalTime startsBefore, LocalTime endsAfter);
+
+  @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+  Stream<Event> streamAllByCalendarIdAndDateBetweenOrderByDateAscStartAsc(String calendarId, LocalDate from, LocalDate to);
+
+  @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+  Stream<EventSlot> streamSlotsByCalendarIdAndDateBetweenOrderByDateAscStartAsc(String calendarId, LocalDate from, LocalDate to);
+
+  @Query("select min(e.date) from Event e")
+  Optional<LocalDate> findFirstDate();
+
+  @Query("select min(e.date) from Event e where e.calendarId = ?1")
+  Optional<LocalDate> findFirstDate(String calendarId);
+
+  @Query("select max(e.date) from Event e where e.calendarId = ?1")
+  Optional<LocalDate> findLastDate(String calendarId);
 }
@@ -0,0 +1,20 @@
+package com.koszczi.calendar.model.event;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Read projection of an event with just the columns the schedule and lookup queries need. Selected through a
+ * constructor expression, so no entity is created or tracked by the persistence context.
+ */
+public record EventSlot(Long id, LocalDate date, LocalTime start, LocalTime end, String organizer) {
+
+  public static EventSlot of(Event event) {
+    return new EventSlot(event.getId(), event.getDate(), event.getStart(), event.getEnd(), event.getOrganizer());
+  }
+
+  @Override
+  public String toString() {
+    return String.format("Event on %s, from %s to %s, organized by %s", date, start, end, organizer);
+  }
+}
@@ -0,0 +1,74 @@
+package com.koszczi.calendar.model.event;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.IsoFields;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+
+/**
+ * ISO 8601 weeks, the numbering of the stored {@code calendar_year} and {@code week_of_year} columns and of the weekly
+ * queries: weeks start on Monday and the first week of a year is the one holding its first Thursday, whatever the default
+ * locale. The year is the week based year, so the days of a week always share it, even around the turn of the calendar
+ * year. The Mondays of the first weeks between {@value FIRST_YEAR} and {@value LAST_YEAR} are computed once, a lookup
+ * is then a comparison and a division; dates outside fall back to {@link IsoFields}.
+ */
+public final class IsoWeeks {
+
+  static final int FIRST_YEAR = 1900;
+  static final int LAST_YEAR = 2199;
+
+  private static final long[] FIRST_MONDAYS = new long[LAST_YEAR - FIRST_YEAR + 2];
+
+  static {
+    for (int i = 0; i < FIRST_MONDAYS.length; i++) {
+      FIRST_MONDAYS[i] = LocalDate.of(FIRST_YEAR + i, 1, 4).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).toEpochDay();
+    }
+  }
+
+  private IsoWeeks() {
+  }
+
+  public static int yearOf(LocalDate date) {
+    int year = date.getYear();
+    if (year <= FIRST_YEAR || year > LAST_YEAR) return date.get(IsoFields.WEEK_BASED_YEAR);
+    long epochDay = date.toEpochDay();
+    if (epochDay < FIRST_MONDAYS[year - FIRST_YEAR]) return year - 1;
+    if (epochDay >= FIRST_MONDAYS[year + 1 - FIRST_YEAR]) return year + 1;
+    return year;
+  }
+
+  public static int weekOf(LocalDate date) {
+    int year = yearOf(date);
+    if (year < FIRST_YEAR || year > LAST_YEAR) return date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR);
+    return (int) ((date.toEpochDay() - FIRST_MONDAYS[year - FIRST_YEAR]) / 7) + 1;
+  }
+
+  /**
+   * The number of weeks of a week based year, 52 or 53.
+   */
+  public static int weeksIn(int year) {
+    if (year < FIRST_YEAR || year > LAST_YEAR)
+      return (int) IsoFields.WEEK_OF_WEEK_BASED_YEAR.rangeRefinedBy(LocalDate.of(year, 6, 1)).getMaximum();
+    return (int) ((FIRST_MONDAYS[year + 1 - FIRST_YEAR] - FIRST_MONDAYS[year - FIRST_YEAR]) / 7);
+  }
+
+  public static boolean isValid(int year, int week) {
+    return year >= LocalDate.MIN.getYear() + 1 && year <= LocalDate.MAX.getYear() - 1 && week >= 1 && week <= weeksIn(year);
+  }
+
+  public static LocalDate mondayOf(int year, int week) {
+    if (year < FIRST_YEAR || year > LAST_YEAR)
+      return LocalDate.of(year, 1, 4).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).plusWeeks(week - 1L);
+    return LocalDate.ofEpochDay(FIRST_MONDAYS[year - FIRST_YEAR] + 7L * (week - 1));
+  }
+
+  /**
+   * The seven days of a week from Monday to Sunday, or none when the year has no such week.
+   */
+  public static List<LocalDate> datesOf(int year, int week) {
+    if (!isValid(year, week)) return List.of();
+    LocalDate monday = mondayOf(year, week);
+    return monday.datesUntil(monday.plusWeeks(1)).toList();
+  }
+}
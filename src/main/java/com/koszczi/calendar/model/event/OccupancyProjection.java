@@ -0,0 +1,72 @@
+package com.koszczi.calendar.model.event;
+
+import com.koszczi.calendar.model.BaseEntity;
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+/**
+ * Occupancy of one day of a calendar denormalised from its events and kept up to date on every insert: the reserved and start slot
+ * masks, the ids of the events starting in each slot and the number of events.
+ */
+@Entity
+@Table(name = "calendar_occupancy", indexes = {
+    @Index(name = "occupancy_calendar_year_week", columnList = "calendar_id, calendar_year, week_of_year"),
+    @Index(name = "occupancy_date", columnList = "date")
+} )
+@IdClass(CalendarDay.class)
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@EqualsAndHashCode(of = {"calendarId", "date"})
+@Getter
+public class OccupancyProjection extends BaseEntity {
+
+  @Column(name = "calendar_id", length = 64)
+  @Id
+  private String calendarId;
+
+  @Column(name = "date")
+  @Id
+  private LocalDate date;
+
+  @Column(name = "calendar_year")
+  private int year;
+
+  @Column(name = "week_of_year")
+  private int week;
+
+  @Column(name = "day_of_week")
+  private DayOfWeek dayOfWeek;
+
+  @Column(name = "reserved_mask")
+  private long reservedMask;
+
+  @Column(name = "start_mask")
+  private long startMask;
+
+  @Column(name = "event_ids", length = 256)
+  @Convert(converter = EventIdsConverter.class)
+  private long[] eventIds;
+
+  @Column(name = "event_count")
+  private int eventCount;
+
+  public OccupancyProjection(Event event) {
+    this.calendarId = event.getCalendarId();
+    this.date = event.getDate();
+    this.year = event.getYear();
+    this.week = event.getWeek();
+    this.dayOfWeek = event.getDayOfWeek();
+  }
+
+  public void update(long reservedMask, long startMask, long[] eventIds, int addedEvents) {
+    this.reservedMask = reservedMask;
+    this.startMask = startMask;
+    this.eventIds = eventIds;
+    this.eventCount += addedEvents;
+  }
+}
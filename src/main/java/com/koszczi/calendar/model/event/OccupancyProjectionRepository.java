@@ -0,0 +1,19 @@
+package com.koszczi.calendar.model.event;
+
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+public interface OccupancyProjectionRepository extends CrudRepository<OccupancyProjection, CalendarDay> {
+
+  Collection<OccupancyProjection> findAllByCalendarIdAndYearAndWeek(String calendarId, int year, int week);
+  Collection<OccupancyProjection> findAllByCalendarIdAndDateIn(String calendarId, Collection<LocalDate> dates);
+  Collection<OccupancyProjection> findAllByCalendarIdAndDateBetween(String calendarId, LocalDate from, LocalDate to);
+  Collection<ReservedMask> findMasksByCalendarIdInAndDateBetween(Collection<String> calendarIds, LocalDate from, LocalDate to);
+  Collection<OccupancyProjection> findAllByDateBetween(LocalDate from, LocalDate to);
+
+  @Query("select coalesce(sum(p.eventCount), 0L) from OccupancyProjection p where p.date between :from and :to")
+  long sumEventCountByDateBetween(LocalDate from, LocalDate to);
+}
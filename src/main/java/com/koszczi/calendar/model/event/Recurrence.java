@@ -0,0 +1,37 @@
+package com.koszczi.calendar.model.event;
+
+import java.time.LocalDate;
+
+import static java.time.temporal.ChronoUnit.DAYS;
+import static java.time.temporal.ChronoUnit.MONTHS;
+
+/**
+ * How a recurring event repeats from its first occurrence, every {@code interval} periods. Days of a monthly rule that
+ * a month does not have are skipped, like weekends are skipped by every rule.
+ */
+public enum Recurrence {
+  DAILY {
+    @Override
+    boolean repeatsOn(LocalDate first, LocalDate date, int interval) {
+      return DAYS.between(first, date) % interval == 0;
+    }
+  },
+  WEEKLY {
+    @Override
+    boolean repeatsOn(LocalDate first, LocalDate date, int interval) {
+      long days = DAYS.between(first, date);
+      return days % 7 == 0 && days / 7 % interval == 0;
+    }
+  },
+  MONTHLY {
+    @Override
+    boolean repeatsOn(LocalDate first, LocalDate date, int interval) {
+      return date.getDayOfMonth() == first.getDayOfMonth() && MONTHS.between(first, date) % interval == 0;
+    }
+  };
+
+  /**
+   * @param date a day not before {@code first}
+   */
+  abstract boolean repeatsOn(LocalDate first, LocalDate date, int interval);
+}
@@ -0,0 +1,130 @@
+package com.koszczi.calendar.model.event;
+
+import com.koszczi.calendar.model.BaseEntity;
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * An event repeating by a {@link Recurrence} rule, stored as one row. Its occurrences are never stored: they are
+ * expanded for the days a read asks for with {@link #occursOn(LocalDate, Predicate)}, which takes constant time. Days
+ * events cannot be booked on in the calendar are skipped, the caller passes them in as a predicate. The last occurrence
+ * is worked out once on creation, so a rule ending after a number of occurrences is queried like one ending on a date.
+ */
+@Entity
+@Table(name = "calendar_recurring_events", indexes = {
+    @Index(name = "recurring_event_calendar_dates", columnList = "calendar_id, first_date, last_date")
+} )
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@EqualsAndHashCode(of = "id")
+@Getter
+public class RecurringEvent extends BaseEntity {
+
+  public static final int MAX_RECURRENCE_DAYS = 731;
+
+  @Column(name = "id")
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "calendar_recurring_events_seq")
+  @SequenceGenerator(name = "calendar_recurring_events_seq", sequenceName = "calendar_recurring_events_seq", allocationSize = 50)
+  private Long id;
+
+  @Column(name = "calendar_id", nullable = false, length = 64)
+  private String calendarId;
+
+  @Column(name = "recurrence", nullable = false, length = 16)
+  @Enumerated(EnumType.STRING)
+  private Recurrence recurrence;
+
+  @Column(name = "recurrence_interval")
+  private int interval;
+
+  @Column(name = "first_date")
+  private LocalDate firstDate;
+
+  @Column(name = "last_date")
+  private LocalDate lastDate;
+
+  @Column(name = "event_start")
+  private LocalTime start;
+
+  @Column(name = "event_end")
+  private LocalTime end;
+
+  @Column(name = "organizer")
+  private String organizer;
+
+  /**
+   * @throws IllegalArgumentException when the rule has no occurrence or does not end within {@link #MAX_RECURRENCE_DAYS}
+   */
+  public RecurringEvent(String calendarId, LocalDateTime start, LocalDateTime end, String organizer,
+                        Recurrence recurrence, int interval, Integer count, LocalDate until, Predicate<LocalDate> isBookable) {
+    this.calendarId = calendarId;
+    this.recurrence = recurrence;
+    this.interval = interval;
+    this.firstDate = start.toLocalDate();
+    this.start = start.toLocalTime();
+    this.end = end.toLocalTime();
+    this.organizer = organizer;
+    this.lastDate = lastDateOf(recurrence, interval, firstDate, count, until, isBookable);
+    if (lastDate == null) throw new IllegalArgumentException("The recurrence has no occurrence or does not end in time");
+  }
+
+  /**
+   * The last occurrence of a rule ending after {@code count} occurrences or on {@code until}, null when it has no
+   * occurrence or does not end within {@link #MAX_RECURRENCE_DAYS} of the first day.
+   */
+  public static LocalDate lastDateOf(Recurrence recurrence, int interval, LocalDate firstDate, Integer count, LocalDate until,
+                                     Predicate<LocalDate> isBookable) {
+    if (interval < 1 || (count == null) == (until == null)) return null;
+    LocalDate limit = firstDate.plusDays(MAX_RECURRENCE_DAYS);
+    if (until != null && until.isAfter(limit)) return null;
+    LocalDate end = until != null ? until : limit;
+    LocalDate lastDate = null;
+    int occurrences = 0;
+    for (LocalDate date = firstDate; !date.isAfter(end); date = date.plusDays(1)) {
+      if (!recurrence.repeatsOn(firstDate, date, interval) || !isBookable.test(date)) continue;
+      lastDate = date;
+      if (++occurrences == (count == null ? Integer.MAX_VALUE : count)) return lastDate;
+    }
+    return count == null ? lastDate : null;
+  }
+
+  public boolean occursOn(LocalDate date, Predicate<LocalDate> isBookable) {
+    return !date.isBefore(firstDate) && !date.isAfter(lastDate) && recurrence.repeatsOn(firstDate, date, interval)
+        && isBookable.test(date);
+  }
+
+  /**
+   * The days of the occurrences between {@code from} and {@code to}, both inclusive.
+   */
+  public Stream<LocalDate> occurrencesBetween(LocalDate from, LocalDate to, Predicate<LocalDate> isBookable) {
+    LocalDate first = from.isAfter(firstDate) ? from : firstDate;
+    LocalDate last = to.isBefore(lastDate) ? to : lastDate;
+    if (first.isAfter(last)) return Stream.empty();
+    return first.datesUntil(last.plusDays(1)).filter(date -> occursOn(date, isBookable));
+  }
+
+  /**
+   * The occurrence on a day it {@link #occursOn(LocalDate, Predicate) occurs on}. Occurrences are not events, so they have no id.
+   */
+  public EventSlot slotOn(LocalDate date) {
+    return new EventSlot(null, date, start, end, organizer);
+  }
+
+  public boolean overlapsInTime(LocalTime otherStart, LocalTime otherEnd) {
+    return start.isBefore(otherEnd) && otherStart.isBefore(end);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("Recurring event %s from %s to %s, from %s to %s, organized by %s", recurrence, firstDate, lastDate, start, end, organizer);
+  }
+}
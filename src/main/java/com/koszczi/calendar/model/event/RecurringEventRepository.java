@@ -0,0 +1,25 @@
+package com.koszczi.calendar.model.event;
+
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+public interface RecurringEventRepository extends CrudRepository<RecurringEvent, Long> {
+
+  /**
+   * The recurring events of a calendar with a first and last occurrence around the range, they may or may not occur in it.
+   */
+  @Query("select r from RecurringEvent r where r.calendarId = :calendarId and r.firstDate <= :to and r.lastDate >= :from")
+  Collection<RecurringEvent> findAllSpanning(String calendarId, LocalDate from, LocalDate to);
+
+  @Query("select r from RecurringEvent r where r.calendarId in :calendarIds and r.firstDate <= :to and r.lastDate >= :from")
+  Collection<RecurringEvent> findAllSpanning(Collection<String> calendarIds, LocalDate from, LocalDate to);
+
+  @Query("select r from RecurringEvent r where r.firstDate <= :to and r.lastDate >= :from")
+  Collection<RecurringEvent> findAllSpanning(LocalDate from, LocalDate to);
+
+  @Query("select count(r) from RecurringEvent r where r.firstDate <= :to and r.lastDate >= :from")
+  long countSpanning(LocalDate from, LocalDate to);
+}
@@ -0,0 +1,9 @@
+package com.koszczi.calendar.model.event;
+
+import java.time.LocalDate;
+
+/**
+ * Read projection of an occupancy row with just the reserved slots of its day, for intersecting the availability of
+ * calendars without loading their event ids.
+ */
+public record ReservedMask(LocalDate date, long reservedMask) { }
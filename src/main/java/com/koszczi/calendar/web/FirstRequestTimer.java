@@ -0,0 +1,48 @@
+package com.koszczi.calendar.web;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reports the time from the start of the JVM until the first request was served, the start up time clients see, in the
+ * log and as the {@code calendar.startup.first.request} gauge.
+ */
+@Component
+@Slf4j
+public class FirstRequestTimer extends OncePerRequestFilter {
+
+  public static final String FIRST_REQUEST_GAUGE = "calendar.startup.first.request";
+
+  private final AtomicLong firstRequestMillis = new AtomicLong(-1);
+
+  public FirstRequestTimer(MeterRegistry meterRegistry) {
+    TimeGauge.builder(FIRST_REQUEST_GAUGE, firstRequestMillis, TimeUnit.MILLISECONDS, AtomicLong::get).register(meterRegistry);
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    filterChain.doFilter(request, response);
+    if (firstRequestMillis.get() < 0) {
+      long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+      if (firstRequestMillis.compareAndSet(-1, uptime))
+        log.info("Served the first request {} ms after the JVM started: {} {}", uptime, request.getMethod(), request.getRequestURI());
+    }
+  }
+
+  public long firstRequestMillis() {
+    return firstRequestMillis.get();
+  }
+}
@@ -1,24 +1,66 @@
 package com.koszczi.calendar.web.event;
 
 import com.koszczi.calendar.application.event.EventService;
+import com.koszczi.calendar.application.event.EventStreamReader;
+import com.koszczi.calendar.application.event.InvalidQueryException;
+import com.koszczi.calendar.application.event.ScheduleStamps;
+import com.koszczi.calendar.application.event.dto.DateRange;
 import com.koszczi.calendar.application.event.dto.EventCreationResult;
 import com.koszczi.calendar.application.event.dto.EventDto;
+import com.koszczi.calendar.application.event.dto.FreeSlot;
+import com.koszczi.calendar.application.event.dto.ImportReport;
+import com.koszczi.calendar.application.event.dto.RecurringEventCreationResult;
+import com.koszczi.calendar.application.event.dto.RecurringEventDto;
+import com.koszczi.calendar.application.event.dto.ScheduleSlot;
+import com.koszczi.calendar.application.event.export.EventExporter;
+import com.koszczi.calendar.application.event.export.ExportFormat;
+import com.koszczi.calendar.application.event.importing.EventImporter;
+import com.koszczi.calendar.application.event.recurring.RecurringEventService;
+import com.koszczi.calendar.model.event.Event;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
+import static org.springframework.http.MediaType.TEXT_EVENT_STREAM_VALUE;
 
 @RestController
 @RequiredArgsConstructor
 @RequestMapping(path = "events")
 public class EventController {
 
+  private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+  // the JSON and NDJSON representations of a query share its URL, so their tags must differ
+  private static final String NDJSON_TAG_SUFFIX = "-ndjson";
+
   private final EventService eventService;
+  private final ScheduleStamps scheduleStamps;
+  private final RecurringEventService recurringEventService;
+  private final EventStreamReader eventStreamReader;
+  private final EventExporter eventExporter;
+  private final EventImporter eventImporter;
+  private final NdjsonResponses ndjsonResponses;
+  private final ScheduleChangeEmitters scheduleChangeEmitters;
 
   @PostMapping
   public ResponseEntity<EventCreationResult> createEvent(@RequestBody EventDto eventDto) {
@@ -30,18 +72,124 @@ public class EventController {
     };
   }
 
+  @PostMapping("batch")
+  public List<EventCreationResult> createEvents(@RequestBody List<EventDto> eventDtos) {
+    return eventService.createEvents(eventDtos);
+  }
+
+  @PostMapping("recurring")
+  public ResponseEntity<RecurringEventCreationResult> createRecurringEvent(@RequestBody RecurringEventDto recurringEventDto) {
+    RecurringEventCreationResult result = recurringEventService.createRecurringEvent(recurringEventDto);
+    return switch (result.status()) {
+      case SUCCESS -> ResponseEntity.ok(result);
+      case VALIDATION_FAILURE -> ResponseEntity.badRequest().body(result);
+      case ERROR -> ResponseEntity.internalServerError().build();
+    };
+  }
+
+  @PostMapping("import")
+  public ImportReport importEvents(@RequestParam(defaultValue = Event.DEFAULT_CALENDAR) String calendar, @RequestParam(defaultValue = "ICS") ExportFormat format,
+                                   InputStream body) throws IOException {
+    return eventImporter.importEvents(new InputStreamReader(body, StandardCharsets.UTF_8), format, calendar);
+  }
+
   @GetMapping("weeklySchedule")
-  public Map<DayOfWeek, List<String>> weeklySchedule(@RequestParam int year, @RequestParam int week) {
-    return eventService.generateWeeklySchedule(year, week);
+  public Map<DayOfWeek, List<String>> weeklySchedule(@RequestParam(defaultValue = Event.DEFAULT_CALENDAR) String calendar, @RequestParam int year, @RequestParam int week,
+                                                     WebRequest request) {
+    if (request.checkNotModified(scheduleStamps.weekTag(calendar, year, week))) return null;
+    return eventService.generateWeeklySchedule(calendar, year, week);
+  }
+
+  @GetMapping("weeklySlots")
+  public Map<DayOfWeek, List<ScheduleSlot>> weeklySlots(@RequestParam(defaultValue = Event.DEFAULT_CALENDAR) String calendar, @RequestParam int year, @RequestParam int week,
+                                                        WebRequest request) {
+    if (request.checkNotModified(scheduleStamps.weekTag(calendar, year, week))) return null;
+    return eventService.generateWeeklySlots(calendar, year, week);
+  }
+
+  @GetMapping("dailySlots")
+  public List<ScheduleSlot> dailySlots(@RequestParam(defaultValue = Event.DEFAULT_CALENDAR) String calendar, @RequestParam LocalDate day,
+                                       WebRequest request) {
+    if (request.checkNotModified(scheduleStamps.dayTag(calendar, day))) return null;
+    return eventService.collectDailySlots(calendar, day);
   }
 
   @GetMapping("dailyFreeSlots")
-  public List<String> dailyFreeSlots(@RequestParam LocalDate day) {
-    return eventService.collectFreeSlotsForDay(day);
+  public List<String> dailyFreeSlots(@RequestParam(defaultValue = Event.DEFAULT_CALENDAR) String calendar, @RequestParam LocalDate day,
+                                     WebRequest request) {
+    if (request.checkNotModified(scheduleStamps.dayTag(calendar, day))) return null;
+    return eventService.collectFreeSlotsForDay(calendar, day);
+  }
+
+  @GetMapping(path = "subscribe", produces = TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter subscribe(@RequestParam(defaultValue = Event.DEFAULT_CALENDAR) String calendar,
+                              @RequestParam(defaultValue = "") Set<LocalDate> days,
+                              @RequestParam(required = false) Integer year,
+                              @RequestParam(defaultValue = "") Set<Integer> weeks) {
+    if (!weeks.isEmpty() && year == null) throw new InvalidQueryException("Weeks are subscribed to together with their year");
+    return scheduleChangeEmitters.subscribe(calendar, days, year == null ? 0 : year, weeks);
+  }
+
+  @GetMapping(produces = APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> events(@RequestParam(defaultValue = Event.DEFAULT_CALENDAR) String calendar, @RequestParam LocalDate from,
+                                                      @RequestParam LocalDate to) {
+    DateRange range = new DateRange(from, to);
+    return ndjsonResponses.<Event>of(writer -> eventStreamReader.forEachEvent(calendar, range, writer));
+  }
+
+  @GetMapping("export")
+  public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = Event.DEFAULT_CALENDAR) String calendar,
+                                                      @RequestParam(defaultValue = "ICS") ExportFormat format,
+                                                      @RequestParam(required = false) LocalDate from,
+                                                      @RequestParam(required = false) LocalDate to) {
+    DateRange range = eventExporter.rangeOf(calendar, from, to);
+    StreamingResponseBody body = out -> eventExporter.export(calendar, range, format,
+        new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), EXPORT_BUFFER_SIZE));
+    return ResponseEntity.ok()
+        .contentType(new MediaType(MediaType.parseMediaType(format.contentType()), StandardCharsets.UTF_8))
+        .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename("calendar." + format.fileExtension()).build().toString())
+        .body(body);
+  }
+
+  @GetMapping("freeSlots")
+  public List<FreeSlot> freeSlots(@RequestParam(defaultValue = Event.DEFAULT_CALENDAR) String calendar, @RequestParam LocalDate from,
+                                  @RequestParam LocalDate to, @RequestParam(defaultValue = "30") int minDuration, WebRequest request) {
+    if (request.checkNotModified(scheduleStamps.calendarsTag(Set.of(calendar)))) return null;
+    return eventService.findFreeSlots(calendar, new DateRange(from, to), minDuration).toList();
+  }
+
+  @GetMapping(path = "freeSlots", produces = APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> streamFreeSlots(@RequestParam(defaultValue = Event.DEFAULT_CALENDAR) String calendar,
+                                                               @RequestParam LocalDate from, @RequestParam LocalDate to,
+                                                               @RequestParam(defaultValue = "30") int minDuration, WebRequest request) {
+    if (request.checkNotModified(scheduleStamps.calendarsTag(Set.of(calendar)) + NDJSON_TAG_SUFFIX)) return null;
+    Stream<FreeSlot> freeSlots = eventService.findFreeSlots(calendar, new DateRange(from, to), minDuration);
+    return ndjsonResponses.<FreeSlot>of(freeSlots::forEach);
+  }
+
+  @GetMapping("availability")
+  public List<FreeSlot> availability(@RequestParam Set<String> calendars, @RequestParam LocalDate from,
+                                     @RequestParam LocalDate to, @RequestParam(defaultValue = "30") int minDuration, WebRequest request) {
+    if (request.checkNotModified(scheduleStamps.calendarsTag(calendars))) return null;
+    return eventService.findCommonFreeSlots(calendars, new DateRange(from, to), minDuration).toList();
+  }
+
+  @GetMapping(path = "availability", produces = APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> streamAvailability(@RequestParam Set<String> calendars,
+                                                                  @RequestParam LocalDate from, @RequestParam LocalDate to,
+                                                                  @RequestParam(defaultValue = "30") int minDuration, WebRequest request) {
+    if (request.checkNotModified(scheduleStamps.calendarsTag(calendars) + NDJSON_TAG_SUFFIX)) return null;
+    Stream<FreeSlot> freeSlots = eventService.findCommonFreeSlots(calendars, new DateRange(from, to), minDuration);
+    return ndjsonResponses.<FreeSlot>of(freeSlots::forEach);
   }
 
   @GetMapping("isReserved")
-  public String isReserved(@RequestParam LocalDateTime dateTime) {
-    return eventService.findEventForTime(dateTime);
+  public String isReserved(@RequestParam(defaultValue = Event.DEFAULT_CALENDAR) String calendar, @RequestParam LocalDateTime dateTime) {
+    return eventService.findEventForTime(calendar, dateTime);
+  }
+
+  @ExceptionHandler(InvalidQueryException.class)
+  public ResponseEntity<String> invalidQuery(InvalidQueryException e) {
+    return ResponseEntity.badRequest().body(e.getMessage());
   }
 }
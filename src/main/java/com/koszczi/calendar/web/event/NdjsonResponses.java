@@ -0,0 +1,50 @@
+package com.koszczi.calendar.web.event;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Writes newline delimited JSON straight to the response: every item is serialised when it is produced, the servlet
+ * buffer decides when a chunk goes out.
+ */
+@Component
+class NdjsonResponses {
+
+  private final ObjectMapper objectMapper;
+  private final ObjectWriter objectWriter;
+
+  NdjsonResponses(ObjectMapper objectMapper) {
+    this.objectMapper = objectMapper;
+    this.objectWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+  }
+
+  <T> ResponseEntity<StreamingResponseBody> of(Consumer<Consumer<T>> producer) {
+    StreamingResponseBody body = out -> {
+      try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        producer.accept(item -> write(generator, item));
+      }
+    };
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+  }
+
+  private void write(JsonGenerator generator, Object item) {
+    try {
+      objectWriter.writeValue(generator, item);
+      generator.writeRaw('\n');
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,50 @@
+package com.koszczi.calendar.web.event;
+
+import com.koszczi.calendar.application.event.subscription.ScheduleChangeFeed;
+import com.koszczi.calendar.application.event.subscription.ScheduleSubscription;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collection;
+
+/**
+ * Connects the {@link ScheduleChangeFeed} to Server-Sent Events responses. The connection is completed when the feed drops
+ * the subscription, with an error when a send failed so the client reconnects, and the subscription is closed when the
+ * connection completes, times out or fails. Either side closing first makes the other one's callback a no-op.
+ */
+@Component
+class ScheduleChangeEmitters {
+
+  static final String CHANGE_EVENT = "schedule-change";
+
+  private final ScheduleChangeFeed scheduleChangeFeed;
+  private final long timeoutMillis;
+
+  ScheduleChangeEmitters(ScheduleChangeFeed scheduleChangeFeed,
+                         @Value("${calendar.subscriptions.timeout:30m}") Duration timeout) {
+    this.scheduleChangeFeed = scheduleChangeFeed;
+    this.timeoutMillis = timeout.toMillis();
+  }
+
+  SseEmitter subscribe(String calendarId, Collection<LocalDate> days, int year, Collection<Integer> weeks) {
+    SseEmitter emitter = newEmitter(timeoutMillis);
+    ScheduleSubscription subscription = scheduleChangeFeed.subscribe(calendarId, days, year, weeks,
+        change -> emitter.send(SseEmitter.event().name(CHANGE_EVENT).data(change, MediaType.APPLICATION_JSON)),
+        failure -> {
+          if (failure == null) emitter.complete();
+          else emitter.completeWithError(failure);
+        });
+    emitter.onCompletion(subscription::close);
+    emitter.onTimeout(subscription::close);
+    emitter.onError(e -> subscription.close());
+    return emitter;
+  }
+
+  SseEmitter newEmitter(long timeoutMillis) {
+    return new SseEmitter(timeoutMillis);
+  }
+}
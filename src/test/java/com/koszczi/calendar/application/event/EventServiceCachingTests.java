@@ -0,0 +1,86 @@
+package com.koszczi.calendar.application.event;
+
+import com.koszczi.calendar.application.event.dto.EventDto;
+import com.koszczi.calendar.application.event.dto.ScheduleSlot;
+import com.koszczi.calendar.application.event.dto.SlotType;
+import com.koszczi.calendar.model.event.Event;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.IsoFields;
+import java.util.List;
+
+import static com.koszczi.calendar.application.event.dto.EventCreationStatus.SUCCESS;
+import static java.time.DayOfWeek.TUESDAY;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+public class EventServiceCachingTests {
+
+  @Autowired
+  private EventService eventService;
+
+  @SpyBean
+  private ScheduleGenerator scheduleGenerator;
+
+  private static final String CALENDAR = Event.DEFAULT_CALENDAR;
+  private static final String ORGANIZER = "organizer";
+
+  @Test
+  public void whenScheduleIsReadTwice_itIsGeneratedOnce() {
+    LocalDate day = LocalDate.of(2023, 11, 20);
+    eventService.collectFreeSlotsForDay(CALENDAR, day);
+    eventService.collectFreeSlotsForDay(CALENDAR, day);
+
+    verify(scheduleGenerator, times(1)).generateFreeSlots(any(), any());
+  }
+
+  @Test
+  public void whenEventIsCreated_schedulesOfItsDayAndWeekAreRegenerated() {
+    LocalDate day = LocalDate.of(2023, 11, 14);
+    LocalDate otherDay = LocalDate.of(2023, 11, 15);
+    int year = day.get(IsoFields.WEEK_BASED_YEAR);
+    int week = day.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR);
+    assertEquals(1, eventService.collectFreeSlotsForDay(CALENDAR, day).size());
+    assertEquals(1, eventService.collectFreeSlotsForDay(CALENDAR, otherDay).size());
+    assertEquals(1, eventService.generateWeeklySchedule(CALENDAR, year, week).get(TUESDAY).size());
+
+    LocalDateTime eventStart = LocalDateTime.of(day, LocalTime.of(10, 0));
+    assertEquals(SUCCESS, eventService.createEvent(new EventDto(eventStart, eventStart.plusHours(1), ORGANIZER)).status());
+    clearInvocations(scheduleGenerator);
+
+    assertEquals(2, eventService.collectFreeSlotsForDay(CALENDAR, day).size());
+    assertEquals(1, eventService.collectFreeSlotsForDay(CALENDAR, otherDay).size());
+    assertEquals(3, eventService.generateWeeklySchedule(CALENDAR, year, week).get(TUESDAY).size());
+    verify(scheduleGenerator, times(1)).generateFreeSlots(any(), any());
+    verify(scheduleGenerator, times(1)).generateWeeklySchedule(any(DayOccupancy[].class), any());
+  }
+
+  @Test
+  public void whenEventIsCreated_typedSlotsOfItsDayAndWeekAreRegenerated() {
+    LocalDate day = LocalDate.of(2023, 11, 21);
+    int year = day.get(IsoFields.WEEK_BASED_YEAR);
+    int week = day.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR);
+    assertEquals(1, eventService.collectDailySlots(CALENDAR, day).size());
+    assertEquals(1, eventService.generateWeeklySlots(CALENDAR, year, week).get(TUESDAY).size());
+
+    LocalDateTime eventStart = LocalDateTime.of(day, LocalTime.of(10, 0));
+    Long eventId = eventService.createEvent(new EventDto(eventStart, eventStart.plusHours(1), ORGANIZER)).newEvent().getId();
+    clearInvocations(scheduleGenerator);
+
+    List<ScheduleSlot> dailySlots = eventService.collectDailySlots(CALENDAR, day);
+    assertEquals(new ScheduleSlot(LocalTime.of(10, 0), LocalTime.of(11, 0), SlotType.RESERVED, eventId), dailySlots.get(1));
+    assertEquals(dailySlots, eventService.collectDailySlots(CALENDAR, day));
+    verify(scheduleGenerator, times(1)).generateDailySlots(any(), any());
+
+    assertEquals(dailySlots, eventService.generateWeeklySlots(CALENDAR, year, week).get(TUESDAY));
+    assertEquals(dailySlots, eventService.generateWeeklySlots(CALENDAR, year, week).get(TUESDAY));
+    verify(scheduleGenerator, times(1)).generateWeeklySlots(any(DayOccupancy[].class), any());
+  }
+}
@@ -0,0 +1,81 @@
+package com.koszczi.calendar.application.event;
+
+import com.koszczi.calendar.application.event.dto.EventCreationResult;
+import com.koszczi.calendar.application.event.dto.EventDto;
+import com.koszczi.calendar.application.event.validation.EventValidator;
+import com.koszczi.calendar.model.event.Event;
+import com.koszczi.calendar.model.event.EventRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static com.koszczi.calendar.application.event.dto.EventCreationStatus.SUCCESS;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class EventServiceConcurrencyTests {
+
+  @Autowired
+  private EventService eventService;
+
+  @Autowired
+  private EventRepository eventRepository;
+
+  @Autowired
+  private EventValidator eventValidator;
+
+  private static final int CLIENTS = 64;
+  private static final String ORGANIZER = "organizer";
+  private static final List<LocalDate> DAYS = List.of(
+      LocalDate.of(2023, 11, 6), LocalDate.of(2023, 11, 7), LocalDate.of(2023, 11, 8), LocalDate.of(2023, 11, 9));
+
+  @Test
+  public void whenManyClientsBookTheSameSlots_noSlotIsBookedTwice() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(CLIENTS);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<Integer>> successes = new ArrayList<>();
+    try {
+      for (int client = 0; client < CLIENTS; client++) {
+        int offset = client;
+        successes.add(executor.submit(() -> {
+          start.await();
+          return bookEverySlot(offset);
+        }));
+      }
+      start.countDown();
+
+      int created = 0;
+      for (Future<Integer> success : successes) created += success.get(1, TimeUnit.MINUTES);
+      assertEquals(DAYS.size() * DayOccupancy.SLOTS_PER_DAY, created);
+    } finally {
+      executor.shutdownNow();
+    }
+
+    for (LocalDate day : DAYS) {
+      List<Event> events = new ArrayList<>(eventRepository.findAllByCalendarIdAndDate(Event.DEFAULT_CALENDAR, day));
+      assertEquals(DayOccupancy.SLOTS_PER_DAY, events.size());
+      for (int i = 0; i < events.size(); i++) {
+        for (int j = i + 1; j < events.size(); j++) {
+          assertFalse(eventValidator.eventsOverLap(events.get(i), events.get(j)));
+        }
+      }
+    }
+  }
+
+  private int bookEverySlot(int offset) {
+    int created = 0;
+    for (int i = 0; i < DAYS.size() * DayOccupancy.SLOTS_PER_DAY; i++) {
+      int slot = (i + offset) % (DAYS.size() * DayOccupancy.SLOTS_PER_DAY);
+      LocalDateTime eventStart = LocalDateTime.of(DAYS.get(slot / DayOccupancy.SLOTS_PER_DAY), DayOccupancy.timeOf(slot % DayOccupancy.SLOTS_PER_DAY));
+      EventCreationResult result = eventService.createEvent(new EventDto(eventStart, eventStart.plusMinutes(DayOccupancy.SLOT_MINUTES), ORGANIZER));
+      if (SUCCESS.equals(result.status())) created++;
+    }
+    return created;
+  }
+}
@@ -1,21 +1,37 @@
 package com.koszczi.calendar.application.event;
 
+import com.koszczi.calendar.application.event.archive.EventArchive;
+import com.koszczi.calendar.application.event.dto.DateRange;
 import com.koszczi.calendar.application.event.dto.EventCreationError;
 import com.koszczi.calendar.application.event.dto.EventDto;
+import com.koszczi.calendar.application.event.dto.FreeSlot;
 import com.koszczi.calendar.application.event.dto.ValidationError;
+import com.koszczi.calendar.application.event.index.EventIndex;
+import com.koszczi.calendar.application.event.locking.DateLocks;
+import com.koszczi.calendar.application.event.projection.OccupancyProjector;
+import com.koszczi.calendar.application.event.subscription.ScheduleChangeFeed;
+import com.koszczi.calendar.application.event.validation.CalendarRules;
 import com.koszczi.calendar.application.event.validation.EventValidator;
+import com.koszczi.calendar.model.event.ArchivedEventRepository;
 import com.koszczi.calendar.model.event.Event;
 import com.koszczi.calendar.model.event.EventRepository;
+import com.koszczi.calendar.model.event.EventSlot;
+import com.koszczi.calendar.model.event.RecurringEventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static com.koszczi.calendar.application.event.dto.EventCreationStatus.*;
@@ -30,12 +46,26 @@ public class EventServiceTests {
   @Mock
   private EventRepository eventRepository;
   @Mock
+  private RecurringEventRepository recurringEventRepository;
+  @Mock
+  private ArchivedEventRepository archivedEventRepository;
+  @Mock
   private EventValidator eventValidator;
-  @InjectMocks
+  @Mock
+  private ScheduleCacheInvalidator scheduleCacheInvalidator;
+  @Mock
+  private OccupancyProjector occupancyProjector;
   private EventService eventService;
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
 
+  private static final String CALENDAR = Event.DEFAULT_CALENDAR;
   private static final String ORGANIZER = "organizer";
 
+  @BeforeEach
+  public void setUp() {
+    eventService = new EventService(new EventWriter(eventRepository, occupancyProjector), occupancyProjector, eventValidator, CalendarRules.defaults(), new ScheduleGenerator(), new EventIndex(eventRepository, recurringEventRepository, new EventArchive(archivedEventRepository, eventRepository), CalendarRules.defaults(), 100_000), new DateLocks(), scheduleCacheInvalidator, new ScheduleChangeFeed(meterRegistry), new EventMetrics(meterRegistry));
+  }
+
   @Test
   public void whenThereAreValidationFailures_VALIDATION_FAILURE() {
     LocalDateTime eventStart = LocalDateTime.of(2023, 10, 13, 8, 10, 00);
@@ -44,8 +74,8 @@ public class EventServiceTests {
 
     Set<ValidationError> validationErrors = prepareDtoValidationErrors();
     when(eventValidator.validateDto(eventDto)).thenReturn(validationErrors);
-    when(eventRepository.findAllByDate(eventStart.toLocalDate())).thenReturn(prepareEventsForTheDay());
-    when(eventValidator.eventsOverLap(any(Event.class), any(Event.class))).thenReturn(true).thenReturn(false);
+    when(eventRepository.findSlotsByCalendarIdAndDate(CALENDAR, eventStart.toLocalDate())).thenReturn(prepareEventsForTheDay().stream().map(EventSlot::of).toList());
+    when(eventValidator.eventsOverLap(any(Event.class), any(EventSlot.class))).thenReturn(true).thenReturn(false);
 
     var result = eventService.createEvent(eventDto);
     assertEquals(VALIDATION_FAILURE, result.status());
@@ -59,6 +89,10 @@ public class EventServiceTests {
     assertEquals(1, result.overlappingEvents().size());
 
     assertNull(result.newEvent());
+
+    assertEquals(1, meterRegistry.get(EventMetrics.CREATE_TIMER).tag("status", VALIDATION_FAILURE.name()).timer().count());
+    assertEquals(1, meterRegistry.get(EventMetrics.VALIDATION_ERROR_COUNTER).tag("code", OVERLAPPING_EVENTS.name()).counter().count());
+    assertEquals(0, meterRegistry.get(EventMetrics.VALIDATION_ERROR_COUNTER).tag("code", NOT_WEEKDAY.name()).counter().count());
   }
 
   @Test
@@ -84,7 +118,7 @@ public class EventServiceTests {
     EventDto eventDto = new EventDto(eventStart, eventEnd, ORGANIZER);
 
     when(eventValidator.validateDto(eventDto)).thenReturn(Set.of());
-    when(eventRepository.findAllByDate(eventStart.toLocalDate())).thenReturn(List.of());
+    when(eventRepository.findSlotsByCalendarIdAndDate(CALENDAR, eventStart.toLocalDate())).thenReturn(List.of());
     when(eventRepository.save(any(Event.class))).thenAnswer(a -> a.getArgument(0) );
 
     var result = eventService.createEvent(eventDto);
@@ -94,6 +128,129 @@ public class EventServiceTests {
     assertEquals(0, result.overlappingEvents().size());
 
     assertNotNull(result.newEvent());
+    verify(scheduleCacheInvalidator).evictSchedulesOf(result.newEvent());
+  }
+
+  @Test
+  public void whenEventIsCreated_itIsFoundWithoutReloadingTheDay() {
+    LocalDateTime eventStart = LocalDateTime.of(2023, 10, 13, 11, 00, 00);
+    LocalDateTime eventEnd = LocalDateTime.of(2023, 10, 13, 13, 00, 00);
+    EventDto eventDto = new EventDto(eventStart, eventEnd, ORGANIZER);
+
+    when(eventValidator.validateDto(eventDto)).thenReturn(Set.of());
+    when(eventRepository.findSlotsByCalendarIdAndDate(CALENDAR, eventStart.toLocalDate())).thenReturn(List.of());
+    when(eventRepository.save(any(Event.class))).thenAnswer(a -> a.getArgument(0) );
+
+    assertEquals(SUCCESS, eventService.createEvent(eventDto).status());
+    assertEquals("Not reserved", eventService.findEventForTime(CALENDAR, eventStart.minusMinutes(30)));
+    assertTrue(eventService.findEventForTime(CALENDAR, eventStart.plusMinutes(30)).contains("from 11:00 to 13:00"));
+    verify(eventRepository, times(1)).findSlotsByCalendarIdAndDate(CALENDAR, eventStart.toLocalDate());
+  }
+
+  @Test
+  public void whenBatchHasOverlapsAndInvalidEvents_onlyValidEventsAreSavedInOneCall() {
+    LocalDateTime eventStart = LocalDateTime.of(2023, 10, 13, 11, 00, 00);
+    EventDto first = new EventDto(eventStart, eventStart.plusHours(2), ORGANIZER);
+    EventDto overlapsFirst = new EventDto(eventStart.plusHours(1), eventStart.plusHours(3), ORGANIZER);
+    EventDto invalid = new EventDto(eventStart.plusHours(4), eventStart.plusHours(4), ORGANIZER);
+    EventDto otherDay = new EventDto(eventStart.plusDays(3), eventStart.plusDays(3).plusHours(1), ORGANIZER);
+
+    when(eventValidator.validateDto(any(EventDto.class))).thenAnswer(a -> new HashSet<ValidationError>());
+    when(eventValidator.validateDto(invalid)).thenReturn(new HashSet<>(Set.of(EVENT_TOO_SHORT)));
+    when(eventValidator.eventsOverLap(any(Event.class), any(Event.class))).thenCallRealMethod();
+    when(eventRepository.findSlotsByCalendarIdAndDate(any(), any())).thenReturn(List.of());
+    when(eventRepository.saveAll(any())).thenAnswer(a -> a.getArgument(0));
+
+    var results = eventService.createEvents(List.of(first, overlapsFirst, invalid, otherDay));
+    assertEquals(List.of(SUCCESS, VALIDATION_FAILURE, VALIDATION_FAILURE, SUCCESS), results.stream().map(r -> r.status()).toList());
+    assertEquals(1, results.get(1).overlappingEvents().size());
+    assertTrue(results.get(1).errors().contains(EventCreationError.of(OVERLAPPING_EVENTS)));
+    assertTrue(results.get(2).errors().contains(EventCreationError.of(EVENT_TOO_SHORT)));
+
+    verify(eventRepository, times(2)).saveAll(any());
+    verify(eventRepository, never()).save(any());
+    verify(occupancyProjector, times(2)).project(any());
+  }
+
+  @Test
+  public void whenOneDayOfABatchFails_theOtherDaysAreSavedAndStoredEventsAreNotReportedAsFailed() {
+    LocalDateTime monday = LocalDateTime.of(2023, 10, 16, 11, 0, 0);
+    EventDto saved = new EventDto(monday, monday.plusHours(1), ORGANIZER);
+    EventDto failedDay = new EventDto(monday.plusDays(1), monday.plusDays(1).plusHours(1), ORGANIZER);
+    EventDto notAnnounced = new EventDto(monday.plusDays(2), monday.plusDays(2).plusHours(1), ORGANIZER);
+
+    when(eventValidator.validateDto(any(EventDto.class))).thenAnswer(a -> new HashSet<ValidationError>());
+    when(eventRepository.findSlotsByCalendarIdAndDate(any(), any())).thenReturn(List.of());
+    when(eventRepository.findSlotsByCalendarIdAndDate(CALENDAR, monday.plusDays(1).toLocalDate())).thenThrow(new IllegalStateException("Connection lost"));
+    when(eventRepository.saveAll(any())).thenAnswer(a -> a.getArgument(0));
+    lenient().doThrow(new IllegalStateException("Cache unavailable")).when(scheduleCacheInvalidator)
+        .evictSchedulesOf(argThat((Event e) -> e.getDate().equals(monday.plusDays(2).toLocalDate())));
+
+    var results = eventService.createEvents(List.of(saved, failedDay, notAnnounced));
+    assertEquals(List.of(SUCCESS, ERROR, SUCCESS), results.stream().map(r -> r.status()).toList());
+    verify(eventRepository, times(2)).saveAll(any());
+    assertTrue(eventService.findEventForTime(CALENDAR, monday).contains("from 11:00 to 12:00"));
+    eventService.findEventForTime(CALENDAR, monday.plusDays(2));
+    verify(eventRepository, times(2)).findSlotsByCalendarIdAndDate(CALENDAR, monday.plusDays(2).toLocalDate());
+  }
+
+  @Test
+  public void whenBatchBooksTheSameTimeInTwoCalendars_bothAreSavedAndOnlyTheirOwnCalendarIsChecked() {
+    LocalDateTime eventStart = LocalDateTime.of(2023, 10, 13, 11, 00, 00);
+    EventDto defaultCalendar = new EventDto(eventStart, eventStart.plusHours(2), ORGANIZER);
+    EventDto roomCalendar = new EventDto(eventStart, eventStart.plusHours(2), ORGANIZER, "room-1");
+
+    when(eventValidator.validateDto(any(EventDto.class))).thenAnswer(a -> new HashSet<ValidationError>());
+    when(eventRepository.findSlotsByCalendarIdAndDate(any(), any())).thenReturn(List.of());
+    when(eventRepository.saveAll(any())).thenAnswer(a -> a.getArgument(0));
+
+    var results = eventService.createEvents(List.of(defaultCalendar, roomCalendar));
+    assertEquals(List.of(SUCCESS, SUCCESS), results.stream().map(r -> r.status()).toList());
+    assertEquals("room-1", results.get(1).newEvent().getCalendarId());
+    verify(eventRepository).findSlotsByCalendarIdAndDate(CALENDAR, eventStart.toLocalDate());
+    verify(eventRepository).findSlotsByCalendarIdAndDate("room-1", eventStart.toLocalDate());
+    assertTrue(eventService.findEventForTime("room-1", eventStart).contains("from 11:00 to 13:00"));
+    assertEquals("Not reserved", eventService.findEventForTime("room-2", eventStart));
+  }
+
+  @Test
+  public void whenFreeSlotsOfARangeAreSearched_rangeIsLoadedOnceAndWeekendsAreSkipped() {
+    LocalDate friday = LocalDate.of(2023, 10, 13);
+    LocalDate monday = LocalDate.of(2023, 10, 16);
+    when(occupancyProjector.findRange(CALENDAR, new DateRange(friday, monday))).thenReturn(Map.of(friday, DayOccupancy.of(prepareEventsForTheDay())));
+
+    List<FreeSlot> result = eventService.findFreeSlots(CALENDAR, new DateRange(friday, monday), 120).toList();
+    assertEquals(List.of(
+        new FreeSlot(friday, LocalTime.of(9, 0), LocalTime.of(13, 0)),
+        new FreeSlot(monday, LocalTime.of(9, 0), LocalTime.of(17, 0))
+    ), result);
+    verify(eventRepository, never()).findSlotsByCalendarIdAndDate(any(), any());
+  }
+
+  @Test
+  public void whenCommonFreeSlotsAreSearched_onlyWindowsFreeInTheUnitedMasksAreReturned() {
+    LocalDate friday = LocalDate.of(2023, 10, 13);
+    LocalDate monday = LocalDate.of(2023, 10, 16);
+    long morning = DayOccupancy.of(List.of(new Event(friday.atTime(9, 0), friday.atTime(12, 0), ORGANIZER))).reservedMask();
+    long afternoon = DayOccupancy.of(List.of(new Event(friday.atTime(14, 0), friday.atTime(17, 0), ORGANIZER))).reservedMask();
+    when(occupancyProjector.findReservedMasks(Set.of("alice", "bob"), new DateRange(friday, monday))).thenReturn(new long[] {morning | afternoon, 0, 0, morning});
+
+    List<FreeSlot> result = eventService.findCommonFreeSlots(Set.of("alice", "bob"), new DateRange(friday, monday), 60).toList();
+    assertEquals(List.of(
+        new FreeSlot(friday, LocalTime.of(12, 0), LocalTime.of(14, 0)),
+        new FreeSlot(monday, LocalTime.of(12, 0), LocalTime.of(17, 0))
+    ), result);
+    assertThrows(InvalidQueryException.class, () -> eventService.findCommonFreeSlots(Set.of(), new DateRange(friday, monday), 60));
+  }
+
+  @Test
+  public void whenFreeSlotQueryIsInvalid_InvalidQueryException() {
+    LocalDate day = LocalDate.of(2023, 10, 13);
+    assertThrows(InvalidQueryException.class, () -> eventService.findFreeSlots(CALENDAR, new DateRange(day, day.minusDays(1)), 30));
+    assertThrows(InvalidQueryException.class, () -> eventService.findFreeSlots(CALENDAR, new DateRange(day, day.plusYears(2)), 30));
+    assertThrows(InvalidQueryException.class, () -> eventService.findFreeSlots(CALENDAR, new DateRange(day, day), 20));
+    assertThrows(InvalidQueryException.class, () -> eventService.findFreeSlots(CALENDAR, new DateRange(day, day), 240));
+    verifyNoInteractions(occupancyProjector);
   }
 
   private Set<ValidationError> prepareDtoValidationErrors() {
@@ -1,25 +1,36 @@
 package com.koszczi.calendar.application.event;
 
+import com.koszczi.calendar.application.event.dto.FreeSlot;
+import com.koszczi.calendar.application.event.dto.ScheduleSlot;
+import com.koszczi.calendar.application.event.dto.SlotType;
+import com.koszczi.calendar.application.event.validation.CalendarRulesProperties.Rules;
+import com.koszczi.calendar.application.event.validation.EventRules;
 import com.koszczi.calendar.model.event.Event;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.junit.platform.commons.util.StringUtils;
 
+import java.time.DayOfWeek;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 public class ScheduleGeneratorTests {
 
+  private static final String ORGANIZER = "organizer";
+
   private ScheduleGenerator scheduleGenerator = new ScheduleGenerator();
 
   @Test
   public void whenNoEvent_oneFreeSlot() {
-    LocalDate day = LocalDate.of(2023, 10, 13);
-    List<String> result = scheduleGenerator.generateDailySchedule(day, List.of());
+    List<String> result = scheduleGenerator.generateDailySchedule(new DayOccupancy(), EventRules.DEFAULTS);
     assertEquals(1, result.stream().filter(s -> s.contains(ScheduleGenerator.FREE_SLOT)).count());
     assertEquals(0, result.stream().filter(s -> s.contains(ScheduleGenerator.RESERVED_SLOT)).count());
   }
@@ -27,12 +38,12 @@ public class ScheduleGeneratorTests {
   @Test
   public void when4X2HoursEvent_4reservedSlotsNoFreeSlots() {
     LocalDate day = LocalDate.of(2023, 10, 13);
-    List<String> result = scheduleGenerator.generateDailySchedule(day, List.of(
-        new Event(LocalDateTime.of(day, LocalTime.of(13, 0, 0)), LocalDateTime.of(day, LocalTime.of(15, 0, 0)), ScheduleGenerator.DUMMY_CREATOR),
-        new Event(LocalDateTime.of(day, LocalTime.of(9, 0, 0)), LocalDateTime.of(day, LocalTime.of(11, 0, 0)), ScheduleGenerator.DUMMY_CREATOR),
-        new Event(LocalDateTime.of(day, LocalTime.of(15, 0, 0)), LocalDateTime.of(day, LocalTime.of(17, 0, 0)), ScheduleGenerator.DUMMY_CREATOR),
-        new Event(LocalDateTime.of(day, LocalTime.of(11, 0, 0)), LocalDateTime.of(day, LocalTime.of(13, 0, 0)), ScheduleGenerator.DUMMY_CREATOR)
-    ));
+    List<String> result = scheduleGenerator.generateDailySchedule(DayOccupancy.of(List.of(
+        new Event(LocalDateTime.of(day, LocalTime.of(13, 0, 0)), LocalDateTime.of(day, LocalTime.of(15, 0, 0)), ORGANIZER),
+        new Event(LocalDateTime.of(day, LocalTime.of(9, 0, 0)), LocalDateTime.of(day, LocalTime.of(11, 0, 0)), ORGANIZER),
+        new Event(LocalDateTime.of(day, LocalTime.of(15, 0, 0)), LocalDateTime.of(day, LocalTime.of(17, 0, 0)), ORGANIZER),
+        new Event(LocalDateTime.of(day, LocalTime.of(11, 0, 0)), LocalDateTime.of(day, LocalTime.of(13, 0, 0)), ORGANIZER)
+    )), EventRules.DEFAULTS);
     assertEquals(0, result.stream().filter(s -> s.contains(ScheduleGenerator.FREE_SLOT)).count());
     assertEquals(4, result.stream().filter(s -> s.contains(ScheduleGenerator.RESERVED_SLOT)).count());
   }
@@ -40,10 +51,10 @@ public class ScheduleGeneratorTests {
   @Test
   public void whenEventsAtBeginningAndEndOfDay_2reservedSlots1Free() {
     LocalDate day = LocalDate.of(2023, 10, 13);
-    List<String> result = scheduleGenerator.generateDailySchedule(day, List.of(
-        new Event(LocalDateTime.of(day, LocalTime.of(9, 0, 0)), LocalDateTime.of(day, LocalTime.of(11, 0, 0)), ScheduleGenerator.DUMMY_CREATOR),
-        new Event(LocalDateTime.of(day, LocalTime.of(15, 0, 0)), LocalDateTime.of(day, LocalTime.of(17, 0, 0)), ScheduleGenerator.DUMMY_CREATOR)
-    ));
+    List<String> result = scheduleGenerator.generateDailySchedule(DayOccupancy.of(List.of(
+        new Event(LocalDateTime.of(day, LocalTime.of(9, 0, 0)), LocalDateTime.of(day, LocalTime.of(11, 0, 0)), ORGANIZER),
+        new Event(LocalDateTime.of(day, LocalTime.of(15, 0, 0)), LocalDateTime.of(day, LocalTime.of(17, 0, 0)), ORGANIZER)
+    )), EventRules.DEFAULTS);
     assertEquals(1, result.stream().filter(s -> s.contains(ScheduleGenerator.FREE_SLOT)).count());
     assertEquals(2, result.stream().filter(s -> s.contains(ScheduleGenerator.RESERVED_SLOT)).count());
   }
@@ -51,11 +62,101 @@ public class ScheduleGeneratorTests {
   @Test
   public void when1EventInTheMiddleOfTheDay_2FreeSlotsAnd1Reserved() {
     LocalDate day = LocalDate.of(2023, 10, 13);
-    List<String> result = scheduleGenerator.generateDailySchedule(day, List.of(
-        new Event(LocalDateTime.of(day, LocalTime.of(11, 0, 0)), LocalDateTime.of(day, LocalTime.of(13, 0, 0)), ScheduleGenerator.DUMMY_CREATOR)
-    ));
+    List<String> result = scheduleGenerator.generateDailySchedule(DayOccupancy.of(List.of(
+        new Event(LocalDateTime.of(day, LocalTime.of(11, 0, 0)), LocalDateTime.of(day, LocalTime.of(13, 0, 0)), ORGANIZER)
+    )), EventRules.DEFAULTS);
     assertEquals(2, result.stream().filter(s -> s.contains(ScheduleGenerator.FREE_SLOT)).count());
     assertEquals(1, result.stream().filter(s -> s.contains(ScheduleGenerator.RESERVED_SLOT)).count());
   }
 
+  @Test
+  public void whenBackToBackEvents_reservedSlotsAreNotMerged() {
+    LocalDate day = LocalDate.of(2023, 10, 13);
+    List<String> result = scheduleGenerator.generateDailySchedule(DayOccupancy.of(List.of(
+        new Event(LocalDateTime.of(day, LocalTime.of(10, 30, 0)), LocalDateTime.of(day, LocalTime.of(11, 0, 0)), ORGANIZER),
+        new Event(LocalDateTime.of(day, LocalTime.of(10, 0, 0)), LocalDateTime.of(day, LocalTime.of(10, 30, 0)), ORGANIZER)
+    )), EventRules.DEFAULTS);
+    assertEquals(List.of(
+        "Free slot between 09:00 and 10:00",
+        "Reserved slot between 10:00 and 10:30",
+        "Reserved slot between 10:30 and 11:00",
+        "Free slot between 11:00 and 17:00"
+    ), result);
+  }
+
+  @Test
+  public void whenWeeklyEvents_eachWorkdayGetsItsOwnSchedule() {
+    LocalDate wednesday = LocalDate.of(2023, 10, 11);
+    DayOccupancy[] occupancies = new DayOccupancy[7];
+    for (int i = 0; i < occupancies.length; i++) occupancies[i] = new DayOccupancy();
+    occupancies[DayOfWeek.WEDNESDAY.ordinal()] = DayOccupancy.of(List.of(
+        new Event(LocalDateTime.of(wednesday, LocalTime.of(10, 0, 0)), LocalDateTime.of(wednesday, LocalTime.of(12, 0, 0)), ORGANIZER)
+    ));
+    Map<DayOfWeek, List<String>> result = scheduleGenerator.generateWeeklySchedule(occupancies, EventRules.DEFAULTS);
+    assertEquals(5, result.size());
+    assertEquals(List.of("Free slot between 09:00 and 17:00"), result.get(DayOfWeek.MONDAY));
+    assertEquals(List.of(
+        "Free slot between 09:00 and 10:00",
+        "Reserved slot between 10:00 and 12:00",
+        "Free slot between 12:00 and 17:00"
+    ), result.get(DayOfWeek.WEDNESDAY));
+  }
+
+  @Test
+  public void whenFreeSlotWindowsAreRequested_shorterRunsAreSkipped() {
+    LocalDate day = LocalDate.of(2023, 10, 12);
+    DayOccupancy occupancy = new DayOccupancy();
+    occupancy.reserve(LocalTime.of(9, 30), LocalTime.of(10, 0));
+    occupancy.reserve(LocalTime.of(11, 0), LocalTime.of(16, 0));
+    assertEquals(List.of(
+        new FreeSlot(day, LocalTime.of(10, 0), LocalTime.of(11, 0)),
+        new FreeSlot(day, LocalTime.of(16, 0), LocalTime.of(17, 0))
+    ), scheduleGenerator.generateFreeSlotWindows(day, occupancy, 2, EventRules.DEFAULTS));
+  }
+
+  @Test
+  public void whenDailySlotsAreGenerated_reservedSlotsCarryTheirEventId() {
+    LocalDate day = LocalDate.of(2023, 10, 12);
+    Event event = new Event(LocalDateTime.of(day, LocalTime.of(10, 0, 0)), LocalDateTime.of(day, LocalTime.of(11, 30, 0)), ORGANIZER);
+    ReflectionTestUtils.setField(event, "id", 42L);
+    assertEquals(List.of(
+        new ScheduleSlot(LocalTime.of(9, 0), LocalTime.of(10, 0), SlotType.FREE, null),
+        new ScheduleSlot(LocalTime.of(10, 0), LocalTime.of(11, 30), SlotType.RESERVED, 42L),
+        new ScheduleSlot(LocalTime.of(11, 30), LocalTime.of(17, 0), SlotType.FREE, null)
+    ), scheduleGenerator.generateDailySlots(DayOccupancy.of(List.of(event)), EventRules.DEFAULTS));
+  }
+
+  @Test
+  public void whenCalendarHasItsOwnRules_schedulesFollowItsWorkingDaysAndHours() {
+    EventRules rules = EventRules.of(new Rules(LocalTime.of(10, 0), LocalTime.of(16, 0), Duration.ofMinutes(30), Duration.ofMinutes(30),
+        Duration.ofHours(3), Set.of(DayOfWeek.TUESDAY, DayOfWeek.SATURDAY), Set.of(LocalDate.of(2023, 10, 14))));
+    DayOccupancy[] occupancies = new DayOccupancy[7];
+    for (int i = 0; i < occupancies.length; i++) occupancies[i] = new DayOccupancy();
+    occupancies[DayOfWeek.TUESDAY.ordinal()].reserve(LocalTime.of(9, 0), LocalTime.of(11, 0));
+
+    Map<DayOfWeek, List<String>> result = scheduleGenerator.generateWeeklySchedule(occupancies, rules);
+    assertEquals(List.of(DayOfWeek.TUESDAY, DayOfWeek.SATURDAY), List.copyOf(result.keySet()));
+    assertEquals(List.of("Reserved slot between 10:00 and 11:00", "Free slot between 11:00 and 16:00"), result.get(DayOfWeek.TUESDAY));
+    assertEquals(List.of(), scheduleGenerator.generateFreeSlotWindows(LocalDate.of(2023, 10, 14), new DayOccupancy(), 1, rules));
+    assertEquals(List.of(new FreeSlot(LocalDate.of(2023, 10, 21), LocalTime.of(10, 0), LocalTime.of(16, 0))),
+        scheduleGenerator.generateFreeSlotWindows(LocalDate.of(2023, 10, 21), new DayOccupancy(), 1, rules));
+  }
+
+  @Test
+  public void whenGranularityIsCoarserThanTheGrid_freeSlotWindowsAreNarrowedToIt() {
+    EventRules rules = EventRules.of(new Rules(LocalTime.of(10, 0), LocalTime.of(17, 0), Duration.ofHours(1), Duration.ofMinutes(30),
+        Duration.ofHours(3), Set.of(DayOfWeek.THURSDAY), Set.of()));
+    LocalDate day = LocalDate.of(2023, 10, 12);
+    DayOccupancy occupancy = new DayOccupancy();
+    occupancy.reserve(LocalTime.of(10, 0), LocalTime.of(10, 30));
+    occupancy.reserve(LocalTime.of(13, 30), LocalTime.of(15, 0));
+    occupancy.reserve(LocalTime.of(16, 30), LocalTime.of(17, 0));
+
+    assertEquals(2, rules.slotsFor(30));
+    assertEquals(4, rules.slotsFor(90));
+    assertEquals(List.of(new FreeSlot(day, LocalTime.of(11, 0), LocalTime.of(13, 0)), new FreeSlot(day, LocalTime.of(15, 0), LocalTime.of(16, 0))),
+        scheduleGenerator.generateFreeSlotWindows(day, occupancy, rules.slotsFor(30), rules));
+    assertEquals(List.of(new FreeSlot(day, LocalTime.of(11, 0), LocalTime.of(13, 0))),
+        scheduleGenerator.generateFreeSlotWindows(day, occupancy, rules.slotsFor(90), rules));
+  }
 }
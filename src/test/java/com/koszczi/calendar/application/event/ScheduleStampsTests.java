@@ -0,0 +1,34 @@
+package com.koszczi.calendar.application.event;
+
+import com.koszczi.calendar.model.event.IsoWeeks;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+public class ScheduleStampsTests {
+
+  private static final String CALENDAR = "stamped";
+
+  @Test
+  public void whenStampsAreEvicted_theTagsOfTheirDaysStillDifferFromTheTagsBeforeTheChange() {
+    ScheduleStamps scheduleStamps = new ScheduleStamps(10);
+    LocalDate monday = LocalDate.of(2024, 1, 1);
+    List<LocalDate> days = new ArrayList<>();
+    List<String> untouchedTags = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      LocalDate day = monday.plusWeeks(i);
+      days.add(day);
+      untouchedTags.add(scheduleStamps.dayTag(CALENDAR, day));
+    }
+
+    days.forEach(day -> scheduleStamps.touch(CALENDAR, day, IsoWeeks.yearOf(day), IsoWeeks.weekOf(day)));
+    scheduleStamps.cleanUp();
+
+    for (int i = 0; i < days.size(); i++)
+      assertNotEquals(untouchedTags.get(i), scheduleStamps.dayTag(CALENDAR, days.get(i)), days.get(i).toString());
+  }
+}
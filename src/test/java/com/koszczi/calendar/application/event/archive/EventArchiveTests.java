@@ -0,0 +1,99 @@
+package com.koszczi.calendar.application.event.archive;
+
+import com.koszczi.calendar.application.event.EventService;
+import com.koszczi.calendar.application.event.EventStreamReader;
+import com.koszczi.calendar.application.event.dto.DateRange;
+import com.koszczi.calendar.application.event.dto.EventDto;
+import com.koszczi.calendar.application.event.index.EventIndex;
+import com.koszczi.calendar.application.event.validation.CalendarRules;
+import com.koszczi.calendar.model.event.ArchivedEventRepository;
+import com.koszczi.calendar.model.event.CalendarDay;
+import com.koszczi.calendar.model.event.Event;
+import com.koszczi.calendar.model.event.EventRepository;
+import com.koszczi.calendar.model.event.EventSlot;
+import com.koszczi.calendar.model.event.RecurringEventRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.koszczi.calendar.application.event.dto.EventCreationStatus.SUCCESS;
+import static com.koszczi.calendar.application.event.dto.EventCreationStatus.VALIDATION_FAILURE;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class EventArchiveTests {
+
+  @Autowired
+  private EventService eventService;
+  @Autowired
+  private EventArchive eventArchive;
+  @Autowired
+  private EventStreamReader eventStreamReader;
+  @Autowired
+  private EventRepository eventRepository;
+  @Autowired
+  private ArchivedEventRepository archivedEventRepository;
+  @Autowired
+  private RecurringEventRepository recurringEventRepository;
+
+  private static final String CALENDAR = "archive";
+  private static final String ORGANIZER = "organizer";
+  private static final LocalDate TUESDAY = LocalDate.of(2021, 3, 2);
+  private static final LocalDate NEXT_MONDAY = LocalDate.of(2021, 3, 8);
+
+  @Test
+  public void whenPastWeeksAreArchived_theirEventsAreStillReadWithTheRecentOnes() {
+    create(TUESDAY.atTime(10, 0));
+    create(NEXT_MONDAY.atTime(9, 0));
+
+    assertTrue(eventArchive.archiveBefore(NEXT_MONDAY) >= 1);
+    assertTrue(eventRepository.findAllByCalendarIdAndDate(CALENDAR, TUESDAY).isEmpty());
+    assertEquals(1, eventRepository.findAllByCalendarIdAndDate(CALENDAR, NEXT_MONDAY).size());
+    assertTrue(eventArchive.covers(TUESDAY));
+    assertFalse(eventArchive.covers(NEXT_MONDAY));
+
+    create(TUESDAY.atTime(14, 0));
+    List<String> slots = new ArrayList<>();
+    eventStreamReader.forEachSlot(CALENDAR, new DateRange(TUESDAY, NEXT_MONDAY), slot -> slots.add(slot.date() + "T" + slot.start()));
+    assertEquals(List.of("2021-03-02T10:00", "2021-03-02T14:00", "2021-03-08T09:00"), slots);
+    List<Event> events = new ArrayList<>();
+    eventStreamReader.forEachEvent(CALENDAR, new DateRange(TUESDAY, NEXT_MONDAY), events::add);
+    assertEquals(3, events.size());
+    assertEquals(LocalTime.of(10, 0), events.get(0).getStart());
+    assertNotNull(events.get(0).getId());
+    assertEquals(CALENDAR, events.get(0).getCalendarId());
+
+    EventIndex coldIndex = new EventIndex(eventRepository, recurringEventRepository, eventArchive, CalendarRules.defaults(), 100_000);
+    List<EventSlot> candidates = coldIndex.findOverlapCandidates(new CalendarDay(CALENDAR, TUESDAY), LocalTime.of(10, 30), LocalTime.of(11, 30));
+    assertEquals(LocalTime.of(10, 0), candidates.get(0).start());
+    LocalDateTime overlapping = TUESDAY.atTime(10, 30);
+    assertEquals(VALIDATION_FAILURE, eventService.createEvent(new EventDto(overlapping, overlapping.plusHours(1), ORGANIZER, CALENDAR)).status());
+  }
+
+  @Test
+  public void whenAMoveWasInterrupted_itsEventsAreReadOnceAndTheNextMoveFinishesIt() {
+    LocalDate day = TUESDAY.minusWeeks(2);
+    create(day.atTime(11, 0));
+    eventArchive.archiveBefore(day.plusDays(6));
+    create(day.atTime(15, 0));
+
+    archivedEventRepository.copyEventsBetween(day, day.plusDays(1));
+    List<LocalTime> starts = new ArrayList<>();
+    eventStreamReader.forEachSlot(CALENDAR, new DateRange(day, day), slot -> starts.add(slot.start()));
+    assertEquals(List.of(LocalTime.of(11, 0), LocalTime.of(15, 0)), starts);
+
+    assertTrue(eventArchive.archiveBefore(day.plusDays(6)) >= 1);
+    assertTrue(eventRepository.findAllByCalendarIdAndDate(CALENDAR, day).isEmpty());
+    assertEquals(2, archivedEventRepository.findSlotsByCalendarIdAndDate(CALENDAR, day).size());
+  }
+
+  private void create(LocalDateTime start) {
+    assertEquals(SUCCESS, eventService.createEvent(new EventDto(start, start.plusHours(1), ORGANIZER, CALENDAR)).status());
+  }
+}
@@ -0,0 +1,74 @@
+package com.koszczi.calendar.application.event.export;
+
+import com.koszczi.calendar.application.event.EventStreamReader;
+import com.koszczi.calendar.application.event.dto.DateRange;
+import com.koszczi.calendar.model.event.Event;
+import com.koszczi.calendar.model.event.EventSlot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.StringWriter;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith(MockitoExtension.class)
+public class EventExporterTests {
+
+  @Mock
+  private EventStreamReader eventStreamReader;
+
+  private EventExporter eventExporter;
+
+  private static final LocalDate DAY = LocalDate.of(2023, 10, 11);
+  private static final DateRange RANGE = new DateRange(DAY, DAY);
+
+  @BeforeEach
+  public void setUp() {
+    eventExporter = new EventExporter(eventStreamReader, Clock.fixed(Instant.parse("2023-10-12T08:15:30Z"), ZoneOffset.UTC));
+    doAnswer(invocation -> {
+      Consumer<EventSlot> action = invocation.getArgument(2);
+      action.accept(new EventSlot(1L, DAY, LocalTime.of(9, 0), LocalTime.of(10, 30), "Someone"));
+      action.accept(new EventSlot(2L, DAY, LocalTime.of(13, 0), LocalTime.of(14, 0), "Doe, \"Jane\"; " + "x".repeat(80)));
+      return null;
+    }).when(eventStreamReader).forEachSlot(eq(Event.DEFAULT_CALENDAR), eq(RANGE), any());
+  }
+
+  @Test
+  public void whenExportedAsCsv_organizersAreQuotedWhenNeeded() throws Exception {
+    StringWriter out = new StringWriter();
+    assertEquals(2, eventExporter.export(Event.DEFAULT_CALENDAR, RANGE, ExportFormat.CSV, out));
+    assertEquals(List.of(
+        "id,date,start,end,organizer",
+        "1,2023-10-11,09:00,10:30,Someone",
+        "2,2023-10-11,13:00,14:00,\"Doe, \"\"Jane\"\"; " + "x".repeat(80) + "\""
+    ), out.toString().lines().toList());
+  }
+
+  @Test
+  public void whenExportedAsIcs_textIsEscapedAndLongLinesAreFolded() throws Exception {
+    StringWriter out = new StringWriter();
+    assertEquals(2, eventExporter.export(Event.DEFAULT_CALENDAR, RANGE, ExportFormat.ICS, out));
+    String ics = out.toString();
+    assertTrue(ics.startsWith("BEGIN:VCALENDAR\r\n"));
+    assertTrue(ics.endsWith("END:VCALENDAR\r\n"));
+    assertTrue(ics.contains("UID:1" + IcsEventWriter.UID_DOMAIN + "\r\n"));
+    assertTrue(ics.contains("DTSTAMP:20231012T081530Z\r\nDTSTART:20231011T090000\r\nDTEND:20231011T103000\r\n"));
+    assertTrue(ics.contains("SUMMARY:Someone\r\n"));
+    assertTrue(ics.lines().allMatch(line -> line.length() <= 75));
+    String unfolded = ics.replace("\r\n ", "");
+    assertTrue(unfolded.contains("SUMMARY:Doe\\, \"Jane\"\\; " + "x".repeat(80) + "\r\n"));
+  }
+}
@@ -0,0 +1,122 @@
+package com.koszczi.calendar.application.event.importing;
+
+import com.koszczi.calendar.application.event.EventStreamReader;
+import com.koszczi.calendar.application.event.dto.DateRange;
+import com.koszczi.calendar.application.event.dto.EventDto;
+import com.koszczi.calendar.application.event.export.EventExporter;
+import com.koszczi.calendar.application.event.export.ExportFormat;
+import com.koszczi.calendar.model.event.Event;
+import com.koszczi.calendar.model.event.EventSlot;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+public class EventImportReaderTests {
+
+  private static final LocalDate DAY = LocalDate.of(2023, 10, 11);
+
+  @ParameterizedTest
+  @EnumSource(ExportFormat.class)
+  public void whenExportIsReadBack_eventsAreTheSame(ExportFormat format) throws IOException {
+    List<EventSlot> events = List.of(
+        new EventSlot(1L, DAY, LocalTime.of(9, 0), LocalTime.of(10, 30), "Someone"),
+        new EventSlot(2L, DAY, LocalTime.of(13, 0), LocalTime.of(14, 0), "Doe, \"Jane\"; \\ " + "x".repeat(80) + "\nsecond line"));
+    EventStreamReader eventStreamReader = mock(EventStreamReader.class);
+    doAnswer(invocation -> {
+      Consumer<EventSlot> action = invocation.getArgument(2);
+      events.forEach(action);
+      return null;
+    }).when(eventStreamReader).forEachSlot(any(), any(), any());
+    StringWriter out = new StringWriter();
+    new EventExporter(eventStreamReader, Clock.systemUTC()).export(Event.DEFAULT_CALENDAR, new DateRange(DAY, DAY), format, out);
+
+    List<ImportedRow> rows = readAll(format, out.toString());
+    assertEquals(2, rows.size());
+    for (int i = 0; i < events.size(); i++) {
+      EventSlot event = events.get(i);
+      assertNull(rows.get(i).error());
+      assertEquals(new EventDto(LocalDateTime.of(DAY, event.start()), LocalDateTime.of(DAY, event.end()), event.organizer()), rows.get(i).event());
+    }
+  }
+
+  @Test
+  public void whenCsvRowsAreMalformed_theyAreReportedWithTheirLine() throws IOException {
+    String csv = """
+        1,2023-10-11,09:00,10:00,"multi
+        line"
+        2,2023-10-11,09:00
+        3,2023-13-11,09:00,10:00,Someone
+        4,2023-10-11,9:00,10:00,Someone
+        5,2023-10-11,11:00:00,12:00:00,Someone
+        """;
+    List<ImportedRow> rows = readAll(ExportFormat.CSV, csv);
+    assertEquals(List.of(1L, 3L, 4L, 5L, 6L), rows.stream().map(ImportedRow::line).toList());
+    assertEquals("multi\nline", rows.get(0).event().organizer());
+    assertEquals("Expected 5 fields but found 3", rows.get(1).error());
+    assertEquals("Invalid date: 2023-13-11", rows.get(2).error());
+    assertEquals("Invalid start: 9:00", rows.get(3).error());
+    assertEquals(LocalDateTime.of(DAY, LocalTime.of(11, 0)), rows.get(4).event().startDateTime());
+  }
+
+  @Test
+  public void whenIcsEventsUseZonesDurationsOrAllDayDates_theyAreConvertedOrReported() throws IOException {
+    String ics = """
+        BEGIN:VCALENDAR
+        BEGIN:VEVENT
+        DTSTART;TZID="Asia/Tokyo":20231011T180000
+        DURATION:PT1H30M
+        SUMMARY:Tokyo
+        END:VEVENT
+        BEGIN:VEVENT
+        DTSTART:20231011T080000Z
+        DTEND:20231011T090000Z
+        END:VEVENT
+        BEGIN:VEVENT
+        DTSTART;VALUE=DATE:20231011
+        DTEND;VALUE=DATE:20231012
+        END:VEVENT
+        BEGIN:VEVENT
+        DTSTART:20231011T0900
+        DTEND:20231011T100000
+        END:VEVENT
+        END:VCALENDAR
+        """;
+    List<ImportedRow> rows = readAll(ExportFormat.ICS, ics);
+    assertEquals(List.of(2L, 7L, 11L, 15L), rows.stream().map(ImportedRow::line).toList());
+
+    LocalDateTime tokyoStart = ZonedDateTime.of(DAY, LocalTime.of(18, 0), ZoneId.of("Asia/Tokyo"))
+        .withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+    assertEquals(new EventDto(tokyoStart, tokyoStart.plusMinutes(90), "Tokyo"), rows.get(0).event());
+    LocalDateTime utcStart = ZonedDateTime.of(DAY, LocalTime.of(8, 0), ZoneId.of("UTC"))
+        .withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+    assertEquals(utcStart, rows.get(1).event().startDateTime());
+    assertEquals("All-day events are not supported", rows.get(2).error());
+    assertEquals("Invalid DTSTART: 20231011T0900", rows.get(3).error());
+  }
+
+  private static List<ImportedRow> readAll(ExportFormat format, String input) throws IOException {
+    EventImportReader reader = EventImportReader.of(format, new BufferedReader(new StringReader(input)));
+    List<ImportedRow> rows = new ArrayList<>();
+    for (ImportedRow row = reader.next(); row != null; row = reader.next()) rows.add(row);
+    return rows;
+  }
+}
@@ -0,0 +1,152 @@
+package com.koszczi.calendar.application.event.importing;
+
+import com.koszczi.calendar.application.event.EventService;
+import com.koszczi.calendar.application.event.EventWriter;
+import com.koszczi.calendar.application.event.dto.EventCreationError;
+import com.koszczi.calendar.application.event.dto.EventDto;
+import com.koszczi.calendar.application.event.dto.ImportRejection;
+import com.koszczi.calendar.application.event.dto.ImportReport;
+import com.koszczi.calendar.application.event.export.ExportFormat;
+import com.koszczi.calendar.application.event.index.EventIndex;
+import com.koszczi.calendar.application.event.locking.DateLocks;
+import com.koszczi.calendar.model.event.CalendarDay;
+import com.koszczi.calendar.model.event.Event;
+import com.koszczi.calendar.model.event.EventRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+import static com.koszczi.calendar.application.event.dto.EventCreationStatus.SUCCESS;
+import static com.koszczi.calendar.application.event.dto.EventCreationStatus.VALIDATION_FAILURE;
+import static com.koszczi.calendar.application.event.dto.ValidationError.NOT_WEEKDAY;
+import static com.koszczi.calendar.application.event.dto.ValidationError.OVERLAPPING_EVENTS;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest
+public class EventImporterTests {
+
+  @Autowired
+  private EventImporter eventImporter;
+
+  @Autowired
+  private EventService eventService;
+
+  @Autowired
+  private EventRepository eventRepository;
+
+  @Autowired
+  private EventIndex eventIndex;
+
+  @SpyBean
+  private EventWriter eventWriter;
+
+  @Test
+  public void whenFileIsImported_validRowsAreStoredAndTheRestIsReported() throws Exception {
+    eventService.createEvent(new EventDto(LocalDateTime.of(2024, 1, 15, 9, 0), LocalDateTime.of(2024, 1, 15, 10, 0), "existing"));
+    String csv = """
+        id,date,start,end,organizer
+        1,2024-01-15,09:30,10:30,overlaps the existing event
+        2,2024-01-15,10:30,12:00,imported
+        3,2024-01-20,10:00,11:00,on a saturday
+        4,2024-01-16,10:00,11:00,imported
+        5,2024-01-16,10:00,11:00,overlaps row 4
+        6,2024-01-17,noon,13:00,unreadable
+        7,2024-01-18,14:00,15:00,imported
+        """;
+
+    ImportReport report = eventImporter.importEvents(new StringReader(csv), ExportFormat.CSV, Event.DEFAULT_CALENDAR);
+
+    assertEquals(7, report.rows());
+    assertEquals(3, report.imported());
+    assertEquals(4, report.rejected());
+    assertEquals(List.of(2L, 4L, 6L, 7L), report.rejections().stream().map(ImportRejection::line).toList());
+    assertTrue(report.rejections().stream().allMatch(r -> r.status() == VALIDATION_FAILURE));
+    assertEquals(List.of(OVERLAPPING_EVENTS.name()), errorCodes(report.rejections().get(0)));
+    assertEquals(List.of("Event on 2024-01-15, from 09:00 to 10:00, organized by existing"), report.rejections().get(0).overlappingEvents());
+    assertEquals(List.of(NOT_WEEKDAY.name()), errorCodes(report.rejections().get(1)));
+    assertEquals(List.of(OVERLAPPING_EVENTS.name()), errorCodes(report.rejections().get(2)));
+    assertEquals(List.of(EventImporter.UNREADABLE_ROW), errorCodes(report.rejections().get(3)));
+
+    assertEquals(2, eventRepository.findAllByCalendarIdAndDate(Event.DEFAULT_CALENDAR, LocalDate.of(2024, 1, 15)).size());
+    assertEquals(1, eventRepository.findAllByCalendarIdAndDate(Event.DEFAULT_CALENDAR, LocalDate.of(2024, 1, 16)).size());
+    assertEquals(1, eventRepository.findAllByCalendarIdAndDate(Event.DEFAULT_CALENDAR, LocalDate.of(2024, 1, 18)).size());
+    assertTrue(eventService.findEventForTime(Event.DEFAULT_CALENDAR, LocalDateTime.of(LocalDate.of(2024, 1, 18), LocalTime.of(14, 30))).contains("imported"));
+    assertFalse(eventService.collectFreeSlotsForDay(Event.DEFAULT_CALENDAR, LocalDate.of(2024, 1, 16)).contains("Free slot between 10:00 and 11:00"));
+  }
+
+  @Test
+  public void whenImportFails_theEventsNotSavedYetAreNoLongerReserved() throws Exception {
+    String calendarId = "failed-import";
+    // two chunks of rows on days of disjoint lock stripes, so the second is resolved while the first one is being saved
+    List<CalendarDay> savedDays = new ArrayList<>();
+    List<CalendarDay> queuedDays = new ArrayList<>();
+    int daysPerChunk = EventImporter.CHUNK_SIZE / 8;
+    for (LocalDate date = LocalDate.of(2031, 1, 6); queuedDays.size() < daysPerChunk; date = date.plusDays(1)) {
+      CalendarDay day = new CalendarDay(calendarId, date);
+      if (date.getDayOfWeek().getValue() > 5) continue;
+      if (DateLocks.stripeOf(day) < DateLocks.STRIPES / 2) {
+        if (savedDays.size() < daysPerChunk) savedDays.add(day);
+      } else {
+        queuedDays.add(day);
+      }
+    }
+    StringBuilder csv = new StringBuilder("id,date,start,end,organizer\n");
+    Stream.concat(savedDays.stream(), queuedDays.stream()).forEach(day -> {
+      for (int hour = 9; hour < 17; hour++) csv.append(hour).append(',').append(day.date()).append(',').append(LocalTime.of(hour, 0))
+          .append(',').append(LocalTime.of(hour + 1, 0)).append(",organizer\n");
+    });
+    doAnswer(invocation -> {
+      List<Event> events = invocation.getArgument(0);
+      if (!events.get(0).getCalendarId().equals(calendarId)) return invocation.callRealMethod();
+      // hangs until the import is stopped and keeps the interrupt, like a database driver
+      while (!Thread.currentThread().isInterrupted()) LockSupport.park();
+      throw new IllegalStateException("Interrupted");
+    }).when(eventWriter).saveAll(anyList());
+    InputStream rows = new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8));
+    // read like a request body, through readers that do not pin the virtual thread of the parser while it waits
+    Reader failingReader = new InputStreamReader(new InputStream() {
+      @Override
+      public int read() throws IOException {
+        byte[] b = new byte[1];
+        return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+      }
+
+      @Override
+      public int read(byte[] buffer, int offset, int length) throws IOException {
+        int read = rows.read(buffer, offset, length);
+        if (read >= 0) return read;
+        // fails once the second chunk is reserved, while the first one hangs in the database
+        while (!queuedDays.stream().allMatch(day -> eventIndex.findEventAt(day, LocalTime.of(16, 0)).isPresent())) LockSupport.parkNanos(1_000_000);
+        throw new IOException("connection reset");
+      }
+    }, StandardCharsets.UTF_8);
+
+    assertThrows(IOException.class, () -> eventImporter.importEvents(failingReader, ExportFormat.CSV, calendarId));
+
+    assertTrue(Stream.concat(savedDays.stream(), queuedDays.stream()).allMatch(day -> eventIndex.findEventAt(day, LocalTime.of(9, 0)).isEmpty()));
+    LocalDateTime start = LocalDateTime.of(queuedDays.get(0).date(), LocalTime.of(9, 0));
+    assertEquals(SUCCESS, eventService.createEvent(new EventDto(start, start.plusHours(1), "organizer", calendarId)).status());
+  }
+
+  private static List<String> errorCodes(ImportRejection rejection) {
+    return rejection.errors().stream().map(EventCreationError::errorCode).toList();
+  }
+}
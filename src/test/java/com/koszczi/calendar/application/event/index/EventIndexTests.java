@@ -0,0 +1,129 @@
+package com.koszczi.calendar.application.event.index;
+
+import com.koszczi.calendar.application.event.archive.EventArchive;
+import com.koszczi.calendar.application.event.validation.CalendarRules;
+import com.koszczi.calendar.model.event.ArchivedEventRepository;
+import com.koszczi.calendar.model.event.CalendarDay;
+import com.koszczi.calendar.model.event.Event;
+import com.koszczi.calendar.model.event.EventRepository;
+import com.koszczi.calendar.model.event.EventSlot;
+import com.koszczi.calendar.model.event.RecurringEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EventIndexTests {
+
+  @Mock
+  private EventRepository eventRepository;
+  @Mock
+  private RecurringEventRepository recurringEventRepository;
+  @Mock
+  private ArchivedEventRepository archivedEventRepository;
+
+  private EventIndex eventIndex;
+
+  private static final LocalDate DAY = LocalDate.of(2023, 10, 13);
+  private static final CalendarDay CALENDAR_DAY = new CalendarDay(Event.DEFAULT_CALENDAR, DAY);
+  private static final String ORGANIZER = "organizer";
+
+  @BeforeEach
+  public void setUp() {
+    eventIndex = new EventIndex(eventRepository, recurringEventRepository, new EventArchive(archivedEventRepository, eventRepository), CalendarRules.defaults(), 100_000);
+    when(eventRepository.findSlotsByCalendarIdAndDate(Event.DEFAULT_CALENDAR, DAY)).thenReturn(List.of(EventSlot.of(event(9, 0, 10, 0)), EventSlot.of(event(11, 0, 13, 0))));
+  }
+
+  @Test
+  public void whenNewEventFitsBetweenEvents_noCandidateOverlaps() {
+    List<EventSlot> candidates = eventIndex.findOverlapCandidates(CALENDAR_DAY, LocalTime.of(10, 0), LocalTime.of(11, 0));
+    assertTrue(candidates.stream().noneMatch(e -> e.end().isAfter(LocalTime.of(10, 0))));
+  }
+
+  @Test
+  public void whenNewEventSpansEvents_allOverlappingEventsAreCandidates() {
+    List<EventSlot> candidates = eventIndex.findOverlapCandidates(CALENDAR_DAY, LocalTime.of(9, 30), LocalTime.of(12, 0));
+    assertEquals(2, candidates.size());
+  }
+
+  @Test
+  public void whenTimeIsInsideAnEvent_eventIsFound() {
+    assertEquals(LocalTime.of(11, 0), eventIndex.findEventAt(CALENDAR_DAY, LocalTime.of(12, 30)).orElseThrow().start());
+    assertEquals(LocalTime.of(9, 0), eventIndex.findEventAt(CALENDAR_DAY, LocalTime.of(9, 0)).orElseThrow().start());
+    assertTrue(eventIndex.findEventAt(CALENDAR_DAY, LocalTime.of(10, 30)).isEmpty());
+  }
+
+  @Test
+  public void whenEventIsAdded_dayIsNotReloaded() {
+    eventIndex.findEventAt(CALENDAR_DAY, LocalTime.of(9, 0));
+    eventIndex.add(event(15, 0, 16, 0));
+
+    assertTrue(eventIndex.findEventAt(CALENDAR_DAY, LocalTime.of(15, 30)).isPresent());
+    verify(eventRepository, times(1)).findSlotsByCalendarIdAndDate(Event.DEFAULT_CALENDAR, DAY);
+  }
+
+  @Test
+  public void whenDaysAreLoadedTogether_onlyTheMissingOnesAreQueriedAtOnce() {
+    LocalDate monday = DAY.plusDays(3);
+    Event mondayEvent = new Event(LocalDateTime.of(monday, LocalTime.of(9, 0)), LocalDateTime.of(monday, LocalTime.of(10, 0)), ORGANIZER);
+    when(eventRepository.findSlotsByCalendarIdAndDateIn(Event.DEFAULT_CALENDAR, Set.of(monday))).thenReturn(List.of(EventSlot.of(mondayEvent)));
+    eventIndex.findEventAt(CALENDAR_DAY, LocalTime.of(9, 0));
+
+    eventIndex.load(Event.DEFAULT_CALENDAR, List.of(DAY, monday));
+
+    assertTrue(eventIndex.findEventAt(new CalendarDay(Event.DEFAULT_CALENDAR, monday), LocalTime.of(9, 30)).isPresent());
+    verify(eventRepository, never()).findSlotsByCalendarIdAndDate(Event.DEFAULT_CALENDAR, monday);
+  }
+
+  @Test
+  public void whenEventIsAddedToAnotherCalendar_itIsOnlyFoundInThatCalendar() {
+    CalendarDay room = new CalendarDay("room-1", DAY);
+    when(eventRepository.findSlotsByCalendarIdAndDate(room.calendarId(), DAY)).thenReturn(List.of());
+    eventIndex.add(new Event(room.calendarId(), LocalDateTime.of(DAY, LocalTime.of(15, 0)), LocalDateTime.of(DAY, LocalTime.of(16, 0)), ORGANIZER));
+
+    assertTrue(eventIndex.findEventAt(room, LocalTime.of(15, 30)).isPresent());
+    assertTrue(eventIndex.findEventAt(room, LocalTime.of(9, 30)).isEmpty());
+    assertTrue(eventIndex.findEventAt(CALENDAR_DAY, LocalTime.of(15, 30)).isEmpty());
+  }
+
+  @Test
+  public void whenDayIsEvicted_itIsReloadedOnNextAccess() {
+    EventIndex boundedIndex = new EventIndex(eventRepository, recurringEventRepository, new EventArchive(archivedEventRepository, eventRepository), CalendarRules.defaults(), 0);
+    boundedIndex.findEventAt(CALENDAR_DAY, LocalTime.of(9, 0));
+    boundedIndex.cleanUp();
+
+    assertTrue(boundedIndex.findEventAt(CALENDAR_DAY, LocalTime.of(9, 30)).isPresent());
+    verify(eventRepository, times(2)).findSlotsByCalendarIdAndDate(Event.DEFAULT_CALENDAR, DAY);
+  }
+
+  @Test
+  public void whenDayHoldsReservations_itStaysLoadedUntilTheyAreReleased() {
+    EventIndex boundedIndex = new EventIndex(eventRepository, recurringEventRepository, new EventArchive(archivedEventRepository, eventRepository), CalendarRules.defaults(), 0);
+    Event reservedEvent = event(15, 0, 16, 0);
+    boundedIndex.reserve(reservedEvent);
+    boundedIndex.cleanUp();
+
+    assertTrue(boundedIndex.findEventAt(CALENDAR_DAY, LocalTime.of(15, 30)).isPresent());
+    verify(eventRepository, times(1)).findSlotsByCalendarIdAndDate(Event.DEFAULT_CALENDAR, DAY);
+
+    boundedIndex.release(reservedEvent);
+    boundedIndex.cleanUp();
+
+    assertTrue(boundedIndex.findEventAt(CALENDAR_DAY, LocalTime.of(15, 30)).isEmpty());
+  }
+
+  private Event event(int startHour, int startMinute, int endHour, int endMinute) {
+    return new Event(LocalDateTime.of(DAY, LocalTime.of(startHour, startMinute)), LocalDateTime.of(DAY, LocalTime.of(endHour, endMinute)), ORGANIZER);
+  }
+}
@@ -0,0 +1,47 @@
+package com.koszczi.calendar.application.event.locking;
+
+import com.koszczi.calendar.model.event.CalendarDay;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DateLocksTests {
+
+  private static final LocalDate DAY = LocalDate.of(2024, 3, 5);
+
+  private final DateLocks dateLocks = new DateLocks();
+
+  @Test
+  public void whenACalendarIsLocked_onlyItsOwnDaysWait() throws Exception {
+    CountDownLatch locked = new CountDownLatch(1);
+    CountDownLatch released = new CountDownLatch(1);
+    CompletableFuture<Void> calendarLock = CompletableFuture.runAsync(() -> dateLocks.withCalendarLock("room-1", () -> {
+      locked.countDown();
+      await(released);
+      return null;
+    }));
+    assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+    assertEquals("free", dateLocks.withLock(new CalendarDay("room-2", DAY), () -> "free"));
+    CompletableFuture<String> sameCalendar = CompletableFuture.supplyAsync(() -> dateLocks.withLock(new CalendarDay("room-1", DAY.plusMonths(6)), () -> "waited"));
+    assertThrows(TimeoutException.class, () -> sameCalendar.get(200, TimeUnit.MILLISECONDS));
+
+    released.countDown();
+    assertEquals("waited", sameCalendar.get(5, TimeUnit.SECONDS));
+    calendarLock.get(5, TimeUnit.SECONDS);
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,114 @@
+package com.koszczi.calendar.application.event.projection;
+
+import com.koszczi.calendar.application.event.DayOccupancy;
+import com.koszczi.calendar.application.event.dto.DateRange;
+import com.koszczi.calendar.application.event.validation.CalendarRules;
+import com.koszczi.calendar.model.event.CalendarDay;
+import com.koszczi.calendar.model.event.Event;
+import com.koszczi.calendar.model.event.EventRepository;
+import com.koszczi.calendar.model.event.OccupancyProjectionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({OccupancyProjector.class, CalendarRules.class})
+public class OccupancyProjectorTests {
+
+  @Autowired
+  private OccupancyProjector occupancyProjector;
+
+  @Autowired
+  private EventRepository eventRepository;
+
+  @Autowired
+  private OccupancyProjectionRepository occupancyProjectionRepository;
+
+  @Autowired
+  private TestEntityManager testEntityManager;
+
+  private static final LocalDate WEDNESDAY = LocalDate.of(2023, 10, 11);
+  private static final String CALENDAR = Event.DEFAULT_CALENDAR;
+  private static final String ORGANIZER = "organizer";
+
+  @Test
+  public void whenEventsAreProjected_theirDayHoldsMasksIdsAndCount() {
+    Event first = eventRepository.save(event(WEDNESDAY, 9, 10));
+    occupancyProjector.project(List.of(first));
+    Event second = eventRepository.save(event(WEDNESDAY, 10, 12));
+    Event otherDay = eventRepository.save(event(WEDNESDAY.plusDays(1), 14, 15));
+    occupancyProjector.project(List.of(second, otherDay));
+    testEntityManager.flush();
+    testEntityManager.clear();
+
+    DayOccupancy wednesday = occupancyProjector.findDay(new CalendarDay(CALENDAR, WEDNESDAY));
+    assertEquals(DayOccupancy.of(List.of(first, second)).reservedMask(), wednesday.reservedMask());
+    assertEquals(DayOccupancy.of(List.of(first, second)).startMask(), wednesday.startMask());
+    assertEquals(first.getId(), wednesday.eventIdAt(0));
+    assertEquals(second.getId(), wednesday.eventIdAt(2));
+    assertEquals(2, occupancyProjectionRepository.findById(new CalendarDay(CALENDAR, WEDNESDAY)).orElseThrow().getEventCount());
+
+    DayOccupancy[] week = occupancyProjector.findWeek(CALENDAR, first.getYear(), first.getWeek());
+    assertEquals(wednesday.reservedMask(), week[WEDNESDAY.getDayOfWeek().ordinal()].reservedMask());
+    assertEquals(otherDay.getId(), week[otherDay.getDayOfWeek().ordinal()].eventIdAt(10));
+    assertEquals(0, week[0].reservedMask());
+  }
+
+  @Test
+  public void whenTwoCalendarsBookTheSameDay_eachHasItsOwnProjection() {
+    Event room = eventRepository.save(new Event("room-1", LocalDateTime.of(WEDNESDAY, LocalTime.of(9, 0)), LocalDateTime.of(WEDNESDAY, LocalTime.of(10, 0)), ORGANIZER));
+    Event defaultCalendar = eventRepository.save(event(WEDNESDAY, 14, 15));
+    occupancyProjector.project(List.of(room, defaultCalendar));
+    testEntityManager.flush();
+    testEntityManager.clear();
+
+    assertEquals(DayOccupancy.of(List.of(room)).reservedMask(), occupancyProjector.findDay(CalendarDay.of(room)).reservedMask());
+    assertEquals(DayOccupancy.of(List.of(defaultCalendar)).reservedMask(), occupancyProjector.findDay(CalendarDay.of(defaultCalendar)).reservedMask());
+    assertEquals(0, occupancyProjector.findWeek("room-2", room.getYear(), room.getWeek())[WEDNESDAY.getDayOfWeek().ordinal()].reservedMask());
+  }
+
+  @Test
+  public void whenMasksOfCalendarsAreRead_theyAreUnitedPerDayOfTheRange() {
+    LocalDate thursday = WEDNESDAY.plusDays(1);
+    Event first = eventRepository.save(new Event("alice", LocalDateTime.of(WEDNESDAY, LocalTime.of(9, 0)), LocalDateTime.of(WEDNESDAY, LocalTime.of(10, 0)), ORGANIZER));
+    Event second = eventRepository.save(new Event("bob", LocalDateTime.of(WEDNESDAY, LocalTime.of(12, 0)), LocalDateTime.of(WEDNESDAY, LocalTime.of(13, 0)), ORGANIZER));
+    Event third = eventRepository.save(new Event("bob", LocalDateTime.of(thursday, LocalTime.of(9, 0)), LocalDateTime.of(thursday, LocalTime.of(11, 0)), ORGANIZER));
+    Event notSearched = eventRepository.save(new Event("carol", LocalDateTime.of(WEDNESDAY, LocalTime.of(14, 0)), LocalDateTime.of(WEDNESDAY, LocalTime.of(15, 0)), ORGANIZER));
+    occupancyProjector.project(List.of(first, second, third, notSearched));
+    testEntityManager.flush();
+    testEntityManager.clear();
+
+    long[] masks = occupancyProjector.findReservedMasks(List.of("alice", "bob"), new DateRange(WEDNESDAY.minusDays(1), thursday));
+    assertEquals(3, masks.length);
+    assertEquals(0, masks[0]);
+    assertEquals(DayOccupancy.of(List.of(first, second)).reservedMask(), masks[1]);
+    assertEquals(DayOccupancy.of(List.of(third)).reservedMask(), masks[2]);
+  }
+
+  @Test
+  public void whenDayHasNoEvents_itIsFree() {
+    assertTrue(occupancyProjector.findDay(new CalendarDay(CALENDAR, WEDNESDAY.plusDays(7))).isFree(0, DayOccupancy.SLOTS_PER_DAY));
+  }
+
+  @Test
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public void whenProjectedOutsideOfATransaction_itIsRejected() {
+    assertThrows(IllegalTransactionStateException.class, () -> occupancyProjector.project(List.of(event(WEDNESDAY, 9, 10))));
+  }
+
+  private Event event(LocalDate day, int startHour, int endHour) {
+    return new Event(LocalDateTime.of(day, LocalTime.of(startHour, 0)), LocalDateTime.of(day, LocalTime.of(endHour, 0)), ORGANIZER);
+  }
+}
@@ -0,0 +1,121 @@
+package com.koszczi.calendar.application.event.recurring;
+
+import com.koszczi.calendar.application.event.EventService;
+import com.koszczi.calendar.application.event.dto.DateRange;
+import com.koszczi.calendar.application.event.dto.EventCreationResult;
+import com.koszczi.calendar.application.event.dto.EventDto;
+import com.koszczi.calendar.application.event.dto.FreeSlot;
+import com.koszczi.calendar.application.event.dto.RecurringEventCreationResult;
+import com.koszczi.calendar.application.event.dto.RecurringEventDto;
+import com.koszczi.calendar.application.event.dto.ScheduleSlot;
+import com.koszczi.calendar.application.event.dto.SlotType;
+import com.koszczi.calendar.model.event.IsoWeeks;
+import com.koszczi.calendar.model.event.Recurrence;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static com.koszczi.calendar.application.event.dto.EventCreationStatus.SUCCESS;
+import static com.koszczi.calendar.application.event.dto.EventCreationStatus.VALIDATION_FAILURE;
+import static com.koszczi.calendar.application.event.dto.ValidationError.INVALID_RECURRENCE;
+import static com.koszczi.calendar.application.event.dto.ValidationError.OVERLAPPING_EVENTS;
+import static java.time.DayOfWeek.MONDAY;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class RecurringEventServiceTests {
+
+  @Autowired
+  private RecurringEventService recurringEventService;
+
+  @Autowired
+  private EventService eventService;
+
+  private static final String ORGANIZER = "organizer";
+  private static final LocalDate MONDAY_1 = LocalDate.of(2024, 1, 8);
+
+  @Test
+  public void whenWeeklyEventIsCreated_itsOccurrencesShowUpInTheSchedules() {
+    String calendar = "recurring-schedules";
+    LocalDate secondMonday = MONDAY_1.plusWeeks(1);
+    assertEquals(1, eventService.collectDailySlots(calendar, secondMonday).size());
+
+    RecurringEventCreationResult result = recurringEventService.createRecurringEvent(weekly(calendar, MONDAY_1, 10, 11, 3, null));
+    assertEquals(SUCCESS, result.status());
+    assertEquals(MONDAY_1.plusWeeks(2), result.newEvent().getLastDate());
+
+    assertEquals(new ScheduleSlot(LocalTime.of(10, 0), LocalTime.of(11, 0), SlotType.RESERVED, null),
+        eventService.collectDailySlots(calendar, secondMonday).get(1));
+    assertEquals(3, eventService.generateWeeklySlots(calendar, IsoWeeks.yearOf(secondMonday), IsoWeeks.weekOf(secondMonday)).get(MONDAY).size());
+    assertEquals(1, eventService.collectDailySlots(calendar, MONDAY_1.plusWeeks(3)).size());
+    assertEquals("Event on 2024-01-22, from 10:00 to 11:00, organized by organizer",
+        eventService.findEventForTime(calendar, MONDAY_1.plusWeeks(2).atTime(10, 30)));
+    assertEquals(List.of(
+        new FreeSlot(MONDAY_1, LocalTime.of(9, 0), LocalTime.of(10, 0)),
+        new FreeSlot(MONDAY_1, LocalTime.of(11, 0), LocalTime.of(17, 0))
+    ), eventService.findFreeSlots(calendar, new DateRange(MONDAY_1, MONDAY_1), 30).toList());
+    assertEquals(eventService.findFreeSlots(calendar, new DateRange(MONDAY_1, MONDAY_1.plusWeeks(3)), 30).toList(),
+        eventService.findCommonFreeSlots(List.of(calendar, "recurring-nobody"), new DateRange(MONDAY_1, MONDAY_1.plusWeeks(3)), 30).toList());
+  }
+
+  @Test
+  public void whenEventOverlapsAnOccurrence_itIsRejected() {
+    String calendar = "recurring-single";
+    assertEquals(SUCCESS, recurringEventService.createRecurringEvent(weekly(calendar, MONDAY_1, 10, 11, null, MONDAY_1.plusWeeks(8))).status());
+
+    LocalDateTime start = MONDAY_1.plusWeeks(5).atTime(10, 30);
+    EventCreationResult result = eventService.createEvent(new EventDto(start, start.plusHours(1), ORGANIZER, calendar));
+    assertEquals(VALIDATION_FAILURE, result.status());
+    assertEquals(List.of("Event on 2024-02-12, from 10:00 to 11:00, organized by organizer"), result.overlappingEvents());
+    assertEquals(SUCCESS, eventService.createEvent(new EventDto(start.plusDays(1), start.plusDays(1).plusHours(1), ORGANIZER, calendar)).status());
+  }
+
+  @Test
+  public void whenAnOccurrenceOverlapsAStoredEvent_theRecurringEventIsRejected() {
+    String calendar = "recurring-stored";
+    LocalDateTime start = MONDAY_1.plusWeeks(4).atTime(10, 30);
+    assertEquals(SUCCESS, eventService.createEvent(new EventDto(start, start.plusHours(1), ORGANIZER, calendar)).status());
+    assertEquals(SUCCESS, eventService.createEvent(new EventDto(start.plusDays(1), start.plusDays(1).plusHours(1), ORGANIZER, calendar)).status());
+
+    RecurringEventCreationResult result = recurringEventService.createRecurringEvent(weekly(calendar, MONDAY_1, 10, 11, 10, null));
+    assertEquals(VALIDATION_FAILURE, result.status());
+    assertEquals(List.of(OVERLAPPING_EVENTS.name()), result.errors().stream().map(e -> e.errorCode()).toList());
+    assertEquals(List.of("Event on 2024-02-05, from 10:30 to 11:30, organized by organizer"), result.overlappingEvents());
+    assertEquals(SUCCESS, recurringEventService.createRecurringEvent(weekly(calendar, MONDAY_1, 9, 10, 10, null)).status());
+  }
+
+  @Test
+  public void whenRecurringEventsShareAnOccurrence_theLaterOneIsRejected() {
+    String calendar = "recurring-rules";
+    LocalDate wednesday = MONDAY_1.plusDays(2);
+    assertEquals(SUCCESS, recurringEventService.createRecurringEvent(weekly(calendar, wednesday, 13, 15, 20, null)).status());
+    assertEquals(SUCCESS, recurringEventService.createRecurringEvent(weekly(calendar, MONDAY_1, 13, 15, 20, null)).status());
+
+    RecurringEventCreationResult result = recurringEventService.createRecurringEvent(new RecurringEventDto(
+        MONDAY_1.plusWeeks(3).plusDays(1).atTime(14, 0), MONDAY_1.plusWeeks(3).plusDays(1).atTime(15, 0), ORGANIZER, calendar,
+        Recurrence.DAILY, 1, 5, null));
+    assertEquals(VALIDATION_FAILURE, result.status());
+    assertEquals(List.of(
+        "Event on 2024-01-31, from 13:00 to 15:00, organized by organizer",
+        "Event on 2024-02-05, from 13:00 to 15:00, organized by organizer"
+    ), result.overlappingEvents());
+  }
+
+  @Test
+  public void whenRecurrenceDoesNotEnd_ValidationFailure() {
+    RecurringEventCreationResult result = recurringEventService.createRecurringEvent(weekly("recurring-invalid", MONDAY_1, 10, 11, 3, MONDAY_1.plusWeeks(2)));
+    assertEquals(VALIDATION_FAILURE, result.status());
+    assertEquals(List.of(INVALID_RECURRENCE.name()), result.errors().stream().map(e -> e.errorCode()).toList());
+    assertEquals(VALIDATION_FAILURE, recurringEventService.createRecurringEvent(weekly("recurring-invalid", MONDAY_1, 10, 11, null, MONDAY_1.plusYears(3))).status());
+  }
+
+  private static RecurringEventDto weekly(String calendar, LocalDate firstDate, int fromHour, int toHour, Integer count, LocalDate until) {
+    return new RecurringEventDto(firstDate.atTime(fromHour, 0), firstDate.atTime(toHour, 0), ORGANIZER, calendar,
+        Recurrence.WEEKLY, null, count, until);
+  }
+}
@@ -0,0 +1,99 @@
+package com.koszczi.calendar.application.event.snapshot;
+
+import com.koszczi.calendar.CalendarApplication;
+import com.koszczi.calendar.application.event.DayOccupancy;
+import com.koszczi.calendar.application.event.EventService;
+import com.koszczi.calendar.application.event.ScheduleCacheInvalidator;
+import com.koszczi.calendar.application.event.dto.DateRange;
+import com.koszczi.calendar.application.event.dto.EventDto;
+import com.koszczi.calendar.application.event.dto.ScheduleSlot;
+import com.koszczi.calendar.application.event.dto.SlotType;
+import com.koszczi.calendar.model.event.CalendarDay;
+import com.koszczi.calendar.model.event.Event;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.*;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import static com.koszczi.calendar.application.event.dto.EventCreationStatus.SUCCESS;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScheduleSnapshotterTests {
+
+  @TempDir
+  private Path storageDir;
+
+  private static final LocalDate TUESDAY = LocalDate.now().with(DayOfWeek.TUESDAY);
+  private static final String CALENDAR = "snapshot";
+
+  @Test
+  public void whenSnapshotIsWrittenAndRead_occupanciesAndCountsAreKept() throws IOException {
+    DayOccupancy occupancy = new DayOccupancy();
+    occupancy.reserve(new Event(CALENDAR, TUESDAY.atTime(10, 0), TUESDAY.atTime(11, 0), "organizer"));
+    occupancy.reserve(LocalTime.of(11, 0), LocalTime.of(12, 30));
+    ScheduleSnapshot snapshot = new ScheduleSnapshot(3, 1, new DateRange(TUESDAY.minusDays(1), TUESDAY.plusDays(5)),
+        Map.of(new CalendarDay(CALENDAR, TUESDAY), DayOccupancy.of(occupancy.reservedMask(), occupancy.startMask(), new long[]{0, 0, 42, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0})));
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    snapshot.writeTo(new DataOutputStream(bytes));
+    ScheduleSnapshot read = ScheduleSnapshot.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+    assertEquals(3, read.eventCount());
+    assertEquals(1, read.recurringEventCount());
+    assertEquals(snapshot.range(), read.range());
+    DayOccupancy day = read.days().get(new CalendarDay(CALENDAR, TUESDAY));
+    assertEquals(occupancy.reservedMask(), day.reservedMask());
+    assertEquals(occupancy.startMask(), day.startMask());
+    assertEquals(42L, day.eventIdAt(2));
+    assertNull(day.eventIdAt(4));
+    assertThrows(IOException.class, () -> ScheduleSnapshot.readFrom(new DataInputStream(new ByteArrayInputStream(new byte[]{1, 2, 3, 4}))));
+  }
+
+  @Test
+  public void whenRestarted_schedulesOfTheSnapshotAreCachedBeforeTheFirstRead() {
+    LocalDateTime start = TUESDAY.atTime(10, 0);
+    try (ConfigurableApplicationContext context = start()) {
+      EventService eventService = context.getBean(EventService.class);
+      assertEquals(SUCCESS, eventService.createEvent(new EventDto(start, start.plusHours(1), "organizer", CALENDAR)).status());
+    }
+
+    try (ConfigurableApplicationContext context = start()) {
+      Cache dailySlots = context.getBean(CacheManager.class).getCache(ScheduleCacheInvalidator.DAILY_SLOTS_CACHE);
+      @SuppressWarnings("unchecked")
+      List<ScheduleSlot> cached = dailySlots.get(new SimpleKey(CALENDAR, TUESDAY), List.class);
+      assertNotNull(cached);
+      assertEquals(SlotType.RESERVED, cached.get(1).type());
+      assertEquals(LocalTime.of(10, 0), cached.get(1).start());
+      assertNotNull(cached.get(1).eventId());
+      assertEquals(cached, context.getBean(EventService.class).collectDailySlots(CALENDAR, TUESDAY));
+      assertNotNull(context.getBean(CacheManager.class).getCache(ScheduleCacheInvalidator.DAILY_FREE_SLOTS_CACHE)
+          .get(new SimpleKey(CALENDAR, TUESDAY.plusDays(1))));
+
+      EventService eventService = context.getBean(EventService.class);
+      assertEquals(SUCCESS, eventService.createEvent(new EventDto(start.plusDays(1), start.plusDays(1).plusHours(1), "organizer", CALENDAR)).status());
+      dailySlots.clear();
+      assertEquals(0, context.getBean(ScheduleSnapshotter.class).warmUp());
+    }
+  }
+
+  private ConfigurableApplicationContext start() {
+    return new SpringApplicationBuilder(CalendarApplication.class)
+        .web(WebApplicationType.NONE)
+        .profiles("file")
+        .properties("logging.level.root=WARN")
+        .run("--calendar.storage.dir=" + storageDir, "--calendar.snapshot.file=" + storageDir.resolve("schedules.snapshot"));
+  }
+}
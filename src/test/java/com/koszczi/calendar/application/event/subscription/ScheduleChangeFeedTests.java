@@ -0,0 +1,125 @@
+package com.koszczi.calendar.application.event.subscription;
+
+import com.koszczi.calendar.application.event.InvalidQueryException;
+import com.koszczi.calendar.model.event.Event;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScheduleChangeFeedTests {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final ScheduleChangeFeed scheduleChangeFeed = new ScheduleChangeFeed(meterRegistry);
+
+  private static final LocalDate DAY = LocalDate.of(2024, 3, 5);
+  private static final String CALENDAR = Event.DEFAULT_CALENDAR;
+
+  @AfterEach
+  public void tearDown() {
+    scheduleChangeFeed.shutdown();
+  }
+
+  @Test
+  public void whenEventIsPublished_subscribersOfItsDayOrWeekReceiveItOnce() throws Exception {
+    Event event = event(CALENDAR, DAY);
+    BlockingQueue<ScheduleChange> daySubscriber = new LinkedBlockingQueue<>();
+    BlockingQueue<ScheduleChange> weekSubscriber = new LinkedBlockingQueue<>();
+    BlockingQueue<ScheduleChange> otherSubscriber = new LinkedBlockingQueue<>();
+    scheduleChangeFeed.subscribe(CALENDAR, Set.of(DAY), event.getYear(), Set.of(event.getWeek()), daySubscriber::put, failure -> { });
+    scheduleChangeFeed.subscribe(CALENDAR, Set.of(), event.getYear(), Set.of(event.getWeek()), weekSubscriber::put, failure -> { });
+    scheduleChangeFeed.subscribe(CALENDAR, Set.of(DAY.plusDays(1)), 0, Set.of(), otherSubscriber::put, failure -> { });
+    scheduleChangeFeed.subscribe("other", Set.of(DAY), 0, Set.of(), otherSubscriber::put, failure -> { });
+
+    scheduleChangeFeed.publish(event);
+    scheduleChangeFeed.publish(event(CALENDAR, DAY.plusWeeks(1)));
+
+    ScheduleChange change = daySubscriber.poll(5, TimeUnit.SECONDS);
+    assertNotNull(change);
+    assertEquals(DAY, change.event().date());
+    assertEquals(change, weekSubscriber.poll(5, TimeUnit.SECONDS));
+    assertNull(daySubscriber.poll(100, TimeUnit.MILLISECONDS));
+    assertTrue(weekSubscriber.isEmpty());
+    assertTrue(otherSubscriber.isEmpty());
+    assertEquals(4.0, meterRegistry.get(ScheduleChangeFeed.SUBSCRIPTION_GAUGE).gauge().value());
+  }
+
+  @Test
+  public void whenChangesArePublishedQuickly_theyArriveInOrder() throws Exception {
+    BlockingQueue<ScheduleChange> subscriber = new LinkedBlockingQueue<>();
+    scheduleChangeFeed.subscribe(CALENDAR, Set.of(DAY), 0, Set.of(), subscriber::put, failure -> { });
+    List<Event> events = IntStream.range(0, 8).mapToObj(i -> event(CALENDAR, DAY, 9 + i)).toList();
+    events.forEach(scheduleChangeFeed::publish);
+
+    for (Event event : events) {
+      assertEquals(event.getStart(), subscriber.poll(5, TimeUnit.SECONDS).event().start());
+    }
+  }
+
+  @Test
+  public void whenSubscriberFails_itIsUnsubscribedAndToldWhy() throws Exception {
+    BlockingQueue<Exception> failures = new LinkedBlockingQueue<>();
+    ScheduleSubscription subscription = scheduleChangeFeed.subscribe(CALENDAR, Set.of(DAY), 0, Set.of(), change -> {
+      throw new IOException("Connection reset");
+    }, failures::add);
+    assertEquals(1, scheduleChangeFeed.subscriptionCount());
+
+    scheduleChangeFeed.publish(event(CALENDAR, DAY));
+    for (int i = 0; i < 50 && !subscription.isClosed(); i++) Thread.sleep(100);
+
+    assertTrue(subscription.isClosed());
+    assertInstanceOf(IOException.class, failures.poll(5, TimeUnit.SECONDS));
+    assertEquals(0, scheduleChangeFeed.subscriptionCount());
+  }
+
+  @Test
+  public void whenSubscriberFallsTooFarBehind_itIsDroppedAndToldSo() throws Exception {
+    CountDownLatch sending = new CountDownLatch(1);
+    CountDownLatch released = new CountDownLatch(1);
+    BlockingQueue<Optional<Exception>> ended = new LinkedBlockingQueue<>();
+    ScheduleSubscription subscription = scheduleChangeFeed.subscribe(CALENDAR, Set.of(DAY), 0, Set.of(), change -> {
+      sending.countDown();
+      released.await();
+    }, failure -> ended.add(Optional.ofNullable(failure)));
+
+    scheduleChangeFeed.publish(event(CALENDAR, DAY));
+    assertTrue(sending.await(5, TimeUnit.SECONDS));
+    for (int i = 0; i <= ScheduleSubscription.MAX_PENDING_CHANGES; i++) scheduleChangeFeed.publish(event(CALENDAR, DAY));
+
+    assertEquals(Optional.empty(), ended.poll(5, TimeUnit.SECONDS));
+    assertTrue(subscription.isClosed());
+    assertEquals(0, scheduleChangeFeed.subscriptionCount());
+    released.countDown();
+    subscription.close();
+    assertNull(ended.poll(100, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  public void whenTooManyDaysAreSubscribedTo_InvalidQuery() {
+    Set<LocalDate> days = Set.copyOf(DAY.datesUntil(DAY.plusDays(ScheduleChangeFeed.MAX_SUBSCRIBED_KEYS + 1)).toList());
+    assertThrows(InvalidQueryException.class, () -> scheduleChangeFeed.subscribe(CALENDAR, days, 0, Set.of(), change -> { }, failure -> { }));
+    assertThrows(InvalidQueryException.class, () -> scheduleChangeFeed.subscribe(CALENDAR, Set.of(), 0, Set.of(), change -> { }, failure -> { }));
+  }
+
+  private static Event event(String calendarId, LocalDate date) {
+    return event(calendarId, date, 10);
+  }
+
+  private static Event event(String calendarId, LocalDate date, int hour) {
+    LocalDateTime start = date.atTime(hour, 0);
+    return new Event(calendarId, start, start.plusHours(1), "organizer");
+  }
+}
@@ -2,18 +2,30 @@ package com.koszczi.calendar.application.event.validation;
 
 import com.koszczi.calendar.application.event.dto.ValidationError;
 import com.koszczi.calendar.application.event.dto.EventDto;
+import com.koszczi.calendar.application.event.validation.CalendarRulesProperties.Rules;
 import com.koszczi.calendar.model.event.Event;
+import com.koszczi.calendar.model.event.EventSlot;
 import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.BindException;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.core.NestedExceptionUtils;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static com.koszczi.calendar.application.event.dto.ValidationError.*;
+import static java.time.DayOfWeek.*;
 import static org.junit.jupiter.api.Assertions.*;
 
 public class EventValidatorTests {
 
-  private EventValidator eventValidator = new EventValidator();
+  private EventValidator eventValidator = new EventValidator(CalendarRules.defaults());
 
   private static final String ORGANIZER = "organizer";
 
@@ -151,6 +163,33 @@ public class EventValidatorTests {
     assertTrue(failures.contains(OUT_OF_TIMERANGE));
   }
 
+  @Test
+  public void dtoValidation_whenCalendarIdIsInvalid_exception() {
+    LocalDateTime eventStart = LocalDateTime.of(2023, 10, 13, 10, 00, 00);
+    LocalDateTime eventEnd = LocalDateTime.of(2023, 10, 13, 12, 00, 00);
+
+    assertEquals(Set.of(INVALID_CALENDAR), eventValidator.validateDto(new EventDto(eventStart, eventEnd, ORGANIZER, "room 1")));
+    assertEquals(Set.of(INVALID_CALENDAR), eventValidator.validateDto(new EventDto(eventStart, eventEnd, ORGANIZER, "")));
+    assertEquals(Set.of(INVALID_CALENDAR), eventValidator.validateDto(new EventDto(eventStart, eventEnd, ORGANIZER, "r".repeat(65))));
+    assertEquals(Set.of(), eventValidator.validateDto(new EventDto(eventStart, eventEnd, ORGANIZER, "room-1.b_2")));
+  }
+
+  @Test
+  public void whenSameTimeIsInAnotherCalendar_eventsOverlapFalse() {
+    Event event1 = new Event(
+        LocalDateTime.of(2023, 10, 13, 10, 00, 00),
+        LocalDateTime.of(2023, 10, 13, 12, 00, 00),
+        ORGANIZER
+    );
+    Event event2 = new Event(
+        "room-1",
+        LocalDateTime.of(2023, 10, 13, 10, 00, 00),
+        LocalDateTime.of(2023, 10, 13, 12, 00, 00),
+        ORGANIZER
+    );
+    assertFalse(eventValidator.eventsOverLap(event1, event2));
+  }
+
   @Test
   public void whenRightOverlap_eventsOverlapTrue() {
     Event event1 = new Event(
@@ -257,4 +296,89 @@ public class EventValidatorTests {
     assertFalse(eventValidator.eventsOverLap(event1, event2));
   }
 
+  @Test
+  public void whenEventOverlapsASlotProjection_eventsOverlapTrue() {
+    Event event = new Event(
+        LocalDateTime.of(2023, 10, 13, 11, 00, 00),
+        LocalDateTime.of(2023, 10, 13, 12, 00, 00),
+        ORGANIZER
+    );
+    Event existing = new Event(
+        LocalDateTime.of(2023, 10, 13, 11, 30, 00),
+        LocalDateTime.of(2023, 10, 13, 13, 30, 00),
+        ORGANIZER
+    );
+    Event nextDay = new Event(
+        LocalDateTime.of(2023, 10, 16, 11, 30, 00),
+        LocalDateTime.of(2023, 10, 16, 13, 30, 00),
+        ORGANIZER
+    );
+    assertTrue(eventValidator.eventsOverLap(event, EventSlot.of(existing)));
+    assertFalse(eventValidator.eventsOverLap(event, EventSlot.of(nextDay)));
+  }
+
+  @Test
+  public void dtoValidation_whenCalendarHasItsOwnRules_theyApplyToItsEventsOnly() {
+    Rules roomRules = new Rules(LocalTime.of(10, 0), LocalTime.of(16, 0), Duration.ofHours(1), Duration.ofHours(1), Duration.ofHours(2),
+        Set.of(MONDAY, TUESDAY, WEDNESDAY, THURSDAY, FRIDAY, SATURDAY), Set.of(LocalDate.of(2023, 10, 13)));
+    EventValidator validator = new EventValidator(new CalendarRules(new CalendarRulesProperties(null, Map.of("room-1", roomRules))));
+
+    assertEquals(Set.of(), validator.validateDto(new EventDto(LocalDateTime.of(2023, 10, 14, 10, 0), LocalDateTime.of(2023, 10, 14, 12, 0), ORGANIZER, "room-1")));
+    assertEquals(Set.of(HOLIDAY), validator.validateDto(new EventDto(LocalDateTime.of(2023, 10, 13, 10, 0), LocalDateTime.of(2023, 10, 13, 12, 0), ORGANIZER, "room-1")));
+    assertEquals(Set.of(OUT_OF_TIMERANGE, INVALID_TIME, EVENT_TOO_SHORT),
+        validator.validateDto(new EventDto(LocalDateTime.of(2023, 10, 12, 9, 30), LocalDateTime.of(2023, 10, 12, 10, 0), ORGANIZER, "room-1")));
+    assertEquals(Set.of(EVENT_TOO_LONG),
+        validator.validateDto(new EventDto(LocalDateTime.of(2023, 10, 12, 10, 0), LocalDateTime.of(2023, 10, 12, 13, 0), ORGANIZER, "room-1")));
+
+    assertEquals(Set.of(), validator.validateDto(new EventDto(LocalDateTime.of(2023, 10, 13, 9, 30), LocalDateTime.of(2023, 10, 13, 10, 0), ORGANIZER)));
+    assertEquals(Set.of(NOT_WEEKDAY), validator.validateDto(new EventDto(LocalDateTime.of(2023, 10, 14, 10, 0), LocalDateTime.of(2023, 10, 14, 12, 0), ORGANIZER)));
+  }
+
+  @Test
+  public void dtoValidation_whenEventIsValid_theSharedEmptySetIsReturned() {
+    EventDto eventDto = new EventDto(LocalDateTime.of(2023, 10, 13, 10, 0), LocalDateTime.of(2023, 10, 13, 11, 0), ORGANIZER);
+    assertSame(eventValidator.validateDto(eventDto), eventValidator.validateDto(eventDto));
+  }
+
+  @Test
+  public void rules_whenWorkingHoursLeaveTheStoredGrid_theyAreRejected() {
+    assertThrows(IllegalArgumentException.class, () -> new Rules(LocalTime.of(8, 0), null, null, null, null, null, null));
+    assertThrows(IllegalArgumentException.class, () -> new Rules(null, null, Duration.ofMinutes(15), null, null, null, null));
+    Rules emptyHours = new Rules(LocalTime.of(12, 0), LocalTime.of(12, 0), null, null, null, null, null);
+    assertThrows(IllegalArgumentException.class, () -> new CalendarRules(new CalendarRulesProperties(null, Map.of("room-1", emptyHours))));
+  }
+
+  @Test
+  public void rules_whenBoundOffTheStoredGrid_bindingFailsNamingTheProperty() {
+    Binder binder = new Binder(new MapConfigurationPropertySource(Map.of("calendar.rules.calendars.room-1.granularity", "15m")));
+
+    BindException e = assertThrows(BindException.class, () -> binder.bind("calendar.rules", CalendarRulesProperties.class));
+    assertEquals("calendar.rules.calendars.room-1", e.getName().toString());
+    assertTrue(NestedExceptionUtils.getRootCause(e).getMessage().startsWith("granularity must be a multiple of the 30 minute slots"));
+  }
+
+  @Test
+  public void rules_whenBoundFromProperties_calendarsInheritTheDefaults() {
+    Map<String, String> properties = Map.of(
+        "calendar.rules.defaults.holidays", "2023-12-25,2023-12-26",
+        "calendar.rules.calendars.room-1.start", "10:00",
+        "calendar.rules.calendars.room-1.max-duration", "2h",
+        "calendar.rules.calendars.room-1.working-days", "MONDAY,TUESDAY");
+    CalendarRules calendarRules = new CalendarRules(new Binder(new MapConfigurationPropertySource(properties))
+        .bind("calendar.rules", CalendarRulesProperties.class).get());
+
+    EventRules roomRules = calendarRules.forCalendar("room-1");
+    assertEquals(120, roomRules.maxDuration());
+    assertEquals(30, roomRules.minDuration());
+    assertFalse(roomRules.isWithinWorkingHours(LocalTime.of(9, 30)));
+    assertTrue(roomRules.isWithinWorkingHours(LocalTime.of(17, 0)));
+    assertFalse(roomRules.isWorkingDay(WEDNESDAY));
+    assertTrue(roomRules.isHoliday(LocalDate.of(2023, 12, 25)));
+    assertTrue(calendarRules.forCalendar("other").isWorkingDay(WEDNESDAY));
+
+    EventRules commonRules = calendarRules.forCalendars(List.of("room-1", "other"));
+    assertEquals(2, commonRules.firstSlot());
+    assertFalse(commonRules.isBookable(LocalDate.of(2023, 12, 26)));
+    assertTrue(commonRules.isBookable(LocalDate.of(2023, 12, 19)));
+  }
 }
@@ -1,13 +1,20 @@
 package com.koszczi.calendar.application.event.web.event;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.json.JsonMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.koszczi.calendar.application.event.dto.EventCreationResult;
 import com.koszczi.calendar.application.event.dto.EventDto;
+import com.koszczi.calendar.application.event.dto.ImportReport;
+import com.koszczi.calendar.application.event.dto.RecurringEventDto;
+import com.koszczi.calendar.model.event.Event;
 import com.koszczi.calendar.model.event.EventRepository;
+import com.koszczi.calendar.model.event.Recurrence;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
@@ -16,16 +23,20 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import static com.koszczi.calendar.application.event.dto.EventCreationStatus.SUCCESS;
 import static com.koszczi.calendar.application.event.dto.EventCreationStatus.VALIDATION_FAILURE;
 import static com.koszczi.calendar.application.event.dto.ValidationError.*;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @ExtendWith(SpringExtension.class)
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @AutoConfigureMockMvc
+@AutoConfigureObservability
 @ActiveProfiles("test")
 public class EventCreationApiTests {
 
@@ -38,6 +49,8 @@ public class EventCreationApiTests {
   private JsonMapper jsonMapper = JsonMapper.builder().addModule(new JavaTimeModule()).build();
 
   private static final String EVENT_CREATION_PATH = "/events";
+  private static final String BATCH_EVENT_CREATION_PATH = "/events/batch";
+  private static final String RECURRING_EVENT_CREATION_PATH = "/events/recurring";
   private static final String ORGANIZER = "organizer";
   @Test
   public void whenEventTooLong_BadRequest() throws Exception {
@@ -175,4 +188,104 @@ public class EventCreationApiTests {
     assertNotNull(responseBody.newEvent());
   }
 
+  @Test
+  public void whenBatchIsPosted_resultIsReportedPerItem() throws Exception {
+    List<EventDto> input = List.of(
+        new EventDto(LocalDateTime.of(2023, 10, 5, 9, 00, 00), LocalDateTime.of(2023, 10, 5, 11, 00, 00), ORGANIZER),
+        new EventDto(LocalDateTime.of(2023, 10, 5, 10, 00, 00), LocalDateTime.of(2023, 10, 5, 12, 00, 00), ORGANIZER),
+        new EventDto(LocalDateTime.of(2023, 10, 5, 11, 00, 00), LocalDateTime.of(2023, 10, 5, 12, 00, 00), ORGANIZER),
+        new EventDto(LocalDateTime.of(2023, 10, 7, 11, 00, 00), LocalDateTime.of(2023, 10, 7, 12, 00, 00), ORGANIZER)
+    );
+
+    MvcResult result = mvc
+        .perform(post(BATCH_EVENT_CREATION_PATH).contentType(MediaType.APPLICATION_JSON).content(jsonMapper.writeValueAsBytes(input)))
+        .andReturn();
+    assertEquals(200, result.getResponse().getStatus());
+    List<EventCreationResult> responseBody = jsonMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() { });
+    assertEquals(List.of(SUCCESS, VALIDATION_FAILURE, SUCCESS, VALIDATION_FAILURE), responseBody.stream().map(EventCreationResult::status).toList());
+    assertNotNull(responseBody.get(0).newEvent().getId());
+    assertTrue(responseBody.get(1).errors().stream().allMatch(e -> OVERLAPPING_EVENTS.name().equals(e.errorCode())));
+    assertTrue(responseBody.get(3).errors().stream().allMatch(e -> NOT_WEEKDAY.name().equals(e.errorCode())));
+    assertEquals(2, eventRepository.findAllByCalendarIdAndDate(Event.DEFAULT_CALENDAR, input.get(0).startDateTime().toLocalDate()).size());
+  }
+
+  @Test
+  public void whenSameTimeIsBookedInTwoCalendars_bothSucceedAndSchedulesAreScoped() throws Exception {
+    LocalDateTime eventStart = LocalDateTime.of(2024, 1, 23, 10, 0);
+    for (String calendarId : List.of("room-1", "room-2")) {
+      EventDto input = new EventDto(eventStart, eventStart.plusHours(1), ORGANIZER, calendarId);
+      MvcResult result = mvc
+          .perform(post(EVENT_CREATION_PATH).contentType(MediaType.APPLICATION_JSON).content(jsonMapper.writeValueAsBytes(input)))
+          .andReturn();
+      assertEquals(200, result.getResponse().getStatus());
+    }
+
+    assertTrue(mvc.perform(get("/events/isReserved?calendar=room-2&dateTime=2024-01-23T10:30")).andReturn().getResponse().getContentAsString().contains("from 10:00 to 11:00"));
+    assertEquals("Not reserved", mvc.perform(get("/events/isReserved?dateTime=2024-01-23T10:30")).andReturn().getResponse().getContentAsString());
+    assertTrue(mvc.perform(get("/events/dailyFreeSlots?day=2024-01-23")).andReturn().getResponse().getContentAsString().contains("between 09:00 and 17:00"));
+    assertEquals(1, eventRepository.findAllByCalendarIdAndDate("room-1", eventStart.toLocalDate()).size());
+  }
+
+  @Test
+  public void whenCalendarIdIsInvalid_BadRequest() throws Exception {
+    EventDto input = new EventDto(LocalDateTime.of(2024, 1, 23, 13, 0), LocalDateTime.of(2024, 1, 23, 14, 0), ORGANIZER, "room 1");
+    MvcResult result = mvc
+        .perform(post(EVENT_CREATION_PATH).contentType(MediaType.APPLICATION_JSON).content(jsonMapper.writeValueAsBytes(input)))
+        .andReturn();
+    assertEquals(400, result.getResponse().getStatus());
+    EventCreationResult responseBody = jsonMapper.readValue(result.getResponse().getContentAsString(), EventCreationResult.class);
+    assertEquals(List.of(INVALID_CALENDAR.name()), responseBody.errors().stream().map(e -> e.errorCode()).toList());
+  }
+
+  @Test
+  public void whenFileIsImported_reportIsReturned() throws Exception {
+    String ics = String.join("\r\n",
+        "BEGIN:VCALENDAR", "BEGIN:VEVENT", "DTSTART:20240122T090000", "DTEND:20240122T100000", "SUMMARY:" + ORGANIZER, "END:VEVENT",
+        "BEGIN:VEVENT", "DTSTART:20240122T093000", "DTEND:20240122T103000", "SUMMARY:" + ORGANIZER, "END:VEVENT", "END:VCALENDAR");
+
+    MvcResult result = mvc
+        .perform(post("/events/import?format=ICS").contentType("text/calendar").content(ics))
+        .andReturn();
+    assertEquals(200, result.getResponse().getStatus());
+    ImportReport report = jsonMapper.readValue(result.getResponse().getContentAsString(), ImportReport.class);
+    assertEquals(2, report.rows());
+    assertEquals(1, report.imported());
+    assertEquals(7, report.rejections().get(0).line());
+    assertEquals(1, eventRepository.findAllByCalendarIdAndDate(Event.DEFAULT_CALENDAR, LocalDate.of(2024, 1, 22)).size());
+  }
+
+  @Test
+  public void whenEventIsCreated_metricsArePublished() throws Exception {
+    EventDto input = new EventDto(LocalDateTime.of(2023, 10, 6, 9, 00, 00), LocalDateTime.of(2023, 10, 6, 10, 00, 00), ORGANIZER);
+    mvc.perform(post(EVENT_CREATION_PATH).contentType(MediaType.APPLICATION_JSON).content(jsonMapper.writeValueAsBytes(input)))
+        .andReturn();
+
+    String metrics = mvc.perform(get("/actuator/prometheus")).andReturn().getResponse().getContentAsString();
+    assertTrue(metrics.contains("calendar_events_create_seconds_count{status=\"SUCCESS\""));
+    assertTrue(metrics.contains("calendar_events_create_stage_seconds_count{stage=\"persistence\""));
+    assertTrue(metrics.contains("spring_data_repository_invocations_seconds_count"));
+  }
+
+
+  @Test
+  public void whenRecurringEventIsCreated_itsRuleIsReturnedAndTheSecondTimeItOverlaps() throws Exception {
+    RecurringEventDto input = new RecurringEventDto(LocalDateTime.of(2023, 11, 6, 15, 0), LocalDateTime.of(2023, 11, 6, 16, 0),
+        ORGANIZER, "recurring-api", Recurrence.WEEKLY, 2, 4, null);
+
+    MvcResult result = mvc
+        .perform(post(RECURRING_EVENT_CREATION_PATH).contentType(MediaType.APPLICATION_JSON).content(jsonMapper.writeValueAsBytes(input)))
+        .andReturn();
+    assertEquals(200, result.getResponse().getStatus());
+    JsonNode newEvent = jsonMapper.readTree(result.getResponse().getContentAsString()).get("newEvent");
+    assertEquals("2023-12-18", newEvent.get("lastDate").asText());
+    assertEquals("WEEKLY", newEvent.get("recurrence").asText());
+
+    result = mvc
+        .perform(post(RECURRING_EVENT_CREATION_PATH).contentType(MediaType.APPLICATION_JSON).content(jsonMapper.writeValueAsBytes(input)))
+        .andReturn();
+    assertEquals(400, result.getResponse().getStatus());
+    JsonNode errors = jsonMapper.readTree(result.getResponse().getContentAsString()).get("errors");
+    assertEquals(OVERLAPPING_EVENTS.name(), errors.get(0).get("errorCode").asText());
+  }
+
 }
@@ -0,0 +1,213 @@
+package com.koszczi.calendar.application.event.web.event;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.koszczi.calendar.application.event.dto.EventDto;
+import com.koszczi.calendar.application.event.dto.FreeSlot;
+import com.koszczi.calendar.model.event.Event;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class EventQueryApiTests {
+
+  @Autowired
+  private MockMvc mvc;
+
+  private final JsonMapper jsonMapper = JsonMapper.builder().addModule(new JavaTimeModule()).build();
+
+  private static final String ORGANIZER = "organizer";
+
+  @Test
+  public void whenEventsOfARangeAreStreamed_oneOrderedLinePerEvent() throws Exception {
+    createEvents(List.of(
+        new EventDto(LocalDateTime.of(2023, 12, 5, 9, 0), LocalDateTime.of(2023, 12, 5, 10, 0), ORGANIZER),
+        new EventDto(LocalDateTime.of(2023, 12, 4, 14, 0), LocalDateTime.of(2023, 12, 4, 15, 0), ORGANIZER),
+        new EventDto(LocalDateTime.of(2023, 12, 4, 10, 0), LocalDateTime.of(2023, 12, 4, 11, 0), ORGANIZER),
+        new EventDto(LocalDateTime.of(2023, 12, 6, 10, 0), LocalDateTime.of(2023, 12, 6, 11, 0), ORGANIZER)
+    ));
+
+    MvcResult result = streamed("/events?from=2023-12-04&to=2023-12-05");
+    assertEquals(MediaType.APPLICATION_NDJSON_VALUE, result.getResponse().getContentType());
+    List<String> starts = new ArrayList<>();
+    for (String line : lines(result)) {
+      JsonNode event = jsonMapper.readTree(line);
+      starts.add(event.get("date").asText() + "T" + event.get("start").asText());
+    }
+    assertEquals(List.of("2023-12-04T10:00:00", "2023-12-04T14:00:00", "2023-12-05T09:00:00"), starts);
+  }
+
+  @Test
+  public void whenFreeSlotsAreRequestedAsNdjson_theyAreStreamedLineByLine() throws Exception {
+    createEvents(List.of(
+        new EventDto(LocalDateTime.of(2023, 12, 12, 10, 0), LocalDateTime.of(2023, 12, 12, 13, 0), ORGANIZER)
+    ));
+
+    List<FreeSlot> json = jsonMapper.readValue(
+        mvc.perform(get("/events/freeSlots?from=2023-12-12&to=2023-12-12")).andReturn().getResponse().getContentAsString(),
+        new TypeReference<>() { });
+    List<FreeSlot> ndjson = new ArrayList<>();
+    for (String line : lines(streamed("/events/freeSlots?from=2023-12-12&to=2023-12-12"))) {
+      ndjson.add(jsonMapper.readValue(line, FreeSlot.class));
+    }
+    assertEquals(2, json.size());
+    assertEquals(json, ndjson);
+  }
+
+  @Test
+  public void whenRangeIsExportedAsCsv_eventsAreWrittenInOrder() throws Exception {
+    createEvents(List.of(
+        new EventDto(LocalDateTime.of(2023, 12, 19, 14, 0), LocalDateTime.of(2023, 12, 19, 15, 0), ORGANIZER),
+        new EventDto(LocalDateTime.of(2023, 12, 18, 9, 0), LocalDateTime.of(2023, 12, 18, 10, 0), ORGANIZER)
+    ));
+
+    MvcResult started = mvc.perform(get("/events/export?format=CSV&from=2023-12-18&to=2023-12-19")).andExpect(request().asyncStarted()).andReturn();
+    MvcResult result = mvc.perform(asyncDispatch(started)).andReturn();
+    assertEquals(200, result.getResponse().getStatus());
+    assertEquals("text/csv;charset=UTF-8", result.getResponse().getContentType());
+    assertTrue(result.getResponse().getHeader("Content-Disposition").contains("calendar.csv"));
+    List<String> lines = lines(result);
+    assertEquals(3, lines.size());
+    assertTrue(lines.get(1).endsWith(",2023-12-18,09:00,10:00," + ORGANIZER));
+    assertTrue(lines.get(2).endsWith(",2023-12-19,14:00,15:00," + ORGANIZER));
+  }
+
+  @Test
+  public void whenExportHasNoBounds_theWholeCalendarIsExported() throws Exception {
+    String calendar = "export-all";
+    createEvents(List.of(
+        new EventDto(LocalDateTime.of(1899, 12, 4, 9, 0), LocalDateTime.of(1899, 12, 4, 10, 0), ORGANIZER, calendar),
+        new EventDto(LocalDateTime.of(2023, 12, 20, 9, 0), LocalDateTime.of(2023, 12, 20, 10, 0), ORGANIZER, calendar)
+    ));
+
+    MvcResult started = mvc.perform(get("/events/export?format=CSV&calendar=" + calendar)).andExpect(request().asyncStarted()).andReturn();
+    List<String> lines = lines(mvc.perform(asyncDispatch(started)).andReturn());
+    assertEquals(3, lines.size());
+    assertTrue(lines.get(1).endsWith(",1899-12-04,09:00,10:00," + ORGANIZER));
+    assertTrue(lines.get(2).endsWith(",2023-12-20,09:00,10:00," + ORGANIZER));
+  }
+
+  @Test
+  public void whenAvailabilityOfCalendarsIsRequested_windowsFreeInAllOfThemAreReturned() throws Exception {
+    createEvents(List.of(
+        new EventDto(LocalDateTime.of(2023, 12, 26, 9, 0), LocalDateTime.of(2023, 12, 26, 11, 0), ORGANIZER, "alice"),
+        new EventDto(LocalDateTime.of(2023, 12, 26, 14, 0), LocalDateTime.of(2023, 12, 26, 17, 0), ORGANIZER, "bob"),
+        new EventDto(LocalDateTime.of(2023, 12, 26, 11, 0), LocalDateTime.of(2023, 12, 26, 14, 0), ORGANIZER, "carol")
+    ));
+
+    List<FreeSlot> json = jsonMapper.readValue(
+        mvc.perform(get("/events/availability?calendars=alice,bob&from=2023-12-26&to=2023-12-26&minDuration=60")).andReturn().getResponse().getContentAsString(),
+        new TypeReference<>() { });
+    assertEquals(List.of(new FreeSlot(LocalDate.of(2023, 12, 26), LocalTime.of(11, 0), LocalTime.of(14, 0))), json);
+    List<String> ndjson = lines(streamed("/events/availability?calendars=alice,bob,carol&from=2023-12-26&to=2023-12-27"));
+    assertEquals(1, ndjson.size());
+    assertEquals(new FreeSlot(LocalDate.of(2023, 12, 27), LocalTime.of(9, 0), LocalTime.of(17, 0)), jsonMapper.readValue(ndjson.get(0), FreeSlot.class));
+  }
+
+  @Test
+  public void whenSubscribedToAWeek_createdEventsArePushed() throws Exception {
+    LocalDateTime start = LocalDateTime.of(2024, 1, 3, 10, 0);
+    Event event = new Event(start, start.plusHours(1), ORGANIZER);
+    MvcResult subscription = mvc
+        .perform(get("/events/subscribe?year=" + event.getYear() + "&weeks=" + event.getWeek()).accept(MediaType.TEXT_EVENT_STREAM))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    createEvents(List.of(new EventDto(start, start.plusHours(1), ORGANIZER), new EventDto(start.plusDays(7), start.plusDays(7).plusHours(1), ORGANIZER)));
+
+    String body = "";
+    for (int i = 0; i < 50 && !body.contains("\n\n"); i++) {
+      Thread.sleep(100);
+      body = subscription.getResponse().getContentAsString();
+    }
+    assertEquals(MediaType.TEXT_EVENT_STREAM_VALUE, subscription.getResponse().getContentType());
+    assertTrue(body.startsWith("event:schedule-change\ndata:"));
+    JsonNode change = jsonMapper.readTree(body.lines().filter(l -> l.startsWith("data:")).findFirst().orElseThrow().substring(5));
+    assertEquals("2024-01-03", change.get("event").get("date").asText());
+    assertEquals(1, body.lines().filter(l -> l.startsWith("data:")).count());
+  }
+
+  @Test
+  public void whenWeeksAreSubscribedToWithoutYear_BadRequest() throws Exception {
+    assertEquals(400, mvc.perform(get("/events/subscribe?weeks=1").accept(MediaType.TEXT_EVENT_STREAM)).andReturn().getResponse().getStatus());
+  }
+
+  @Test
+  public void whenScheduleIsUnchanged_NotModified() throws Exception {
+    LocalDateTime start = LocalDateTime.of(2024, 1, 9, 10, 0);
+    Event event = new Event(start, start.plusHours(1), ORGANIZER);
+    String dailySlots = "/events/dailySlots?day=2024-01-09";
+    String weeklySlots = "/events/weeklySlots?year=" + event.getYear() + "&week=" + event.getWeek();
+    String otherDay = "/events/dailyFreeSlots?day=2024-01-10";
+    String dayTag = mvc.perform(get(dailySlots)).andReturn().getResponse().getHeader("ETag");
+    String weekTag = mvc.perform(get(weeklySlots)).andReturn().getResponse().getHeader("ETag");
+    String otherDayTag = mvc.perform(get(otherDay)).andReturn().getResponse().getHeader("ETag");
+    assertNotNull(dayTag);
+
+    MvcResult notModified = mvc.perform(get(dailySlots).header("If-None-Match", dayTag)).andReturn();
+    assertEquals(304, notModified.getResponse().getStatus());
+    assertEquals("", notModified.getResponse().getContentAsString());
+
+    createEvents(List.of(new EventDto(start, start.plusHours(1), ORGANIZER)));
+
+    MvcResult modified = mvc.perform(get(dailySlots).header("If-None-Match", dayTag)).andReturn();
+    assertEquals(200, modified.getResponse().getStatus());
+    assertNotEquals(dayTag, modified.getResponse().getHeader("ETag"));
+    assertEquals(200, mvc.perform(get(weeklySlots).header("If-None-Match", weekTag)).andReturn().getResponse().getStatus());
+    assertEquals(304, mvc.perform(get(otherDay).header("If-None-Match", otherDayTag)).andReturn().getResponse().getStatus());
+  }
+
+  @Test
+  public void whenFreeSlotsAreRequestedAsJsonAndNdjson_theirTagsDiffer() throws Exception {
+    String jsonTag = mvc.perform(get("/events/freeSlots?from=2024-01-15&to=2024-01-19")).andReturn().getResponse().getHeader("ETag");
+    String ndjsonTag = mvc.perform(get("/events/freeSlots?from=2024-01-15&to=2024-01-19").accept(MediaType.APPLICATION_NDJSON)).andReturn().getResponse().getHeader("ETag");
+    assertNotNull(jsonTag);
+    assertNotEquals(jsonTag, ndjsonTag);
+    MvcResult notModified = mvc.perform(get("/events/freeSlots?from=2024-01-15&to=2024-01-19").accept(MediaType.APPLICATION_NDJSON).header("If-None-Match", ndjsonTag)).andReturn();
+    assertEquals(304, notModified.getResponse().getStatus());
+  }
+
+  @Test
+  public void whenRangeEndsBeforeItStarts_BadRequest() throws Exception {
+    MvcResult result = mvc.perform(get("/events?from=2023-12-05&to=2023-12-04").accept(MediaType.APPLICATION_NDJSON)).andReturn();
+    assertEquals(400, result.getResponse().getStatus());
+  }
+
+  private void createEvents(List<EventDto> events) throws Exception {
+    MvcResult result = mvc
+        .perform(post("/events/batch").contentType(MediaType.APPLICATION_JSON).content(jsonMapper.writeValueAsBytes(events)))
+        .andReturn();
+    assertEquals(200, result.getResponse().getStatus());
+  }
+
+  private MvcResult streamed(String path) throws Exception {
+    MvcResult started = mvc.perform(get(path).accept(MediaType.APPLICATION_NDJSON)).andExpect(request().asyncStarted()).andReturn();
+    MvcResult result = mvc.perform(asyncDispatch(started)).andReturn();
+    assertEquals(200, result.getResponse().getStatus());
+    return result;
+  }
+
+  private List<String> lines(MvcResult result) throws Exception {
+    String body = result.getResponse().getContentAsString();
+    assertTrue(body.endsWith("\n"));
+    return body.lines().toList();
+  }
+}
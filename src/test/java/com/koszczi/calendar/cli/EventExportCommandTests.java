@@ -0,0 +1,20 @@
+package com.koszczi.calendar.cli;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"calendar.export.file=target/export-command-test.csv", "calendar.export.format=CSV"})
+public class EventExportCommandTests {
+
+  @Test
+  public void whenExportFileIsSet_calendarIsExportedAtStartUp() throws Exception {
+    Path file = Path.of("target/export-command-test.csv");
+    assertTrue(Files.exists(file));
+    assertEquals("id,date,start,end,organizer", Files.readAllLines(file).get(0));
+  }
+}
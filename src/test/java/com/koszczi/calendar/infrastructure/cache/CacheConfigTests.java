@@ -0,0 +1,39 @@
+package com.koszczi.calendar.infrastructure.cache;
+
+import com.koszczi.calendar.application.event.EventService;
+import com.koszczi.calendar.application.event.ScheduleCacheInvalidator;
+import com.koszczi.calendar.model.event.Event;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.threads.virtual.enabled=true")
+public class CacheConfigTests {
+
+  @Autowired
+  private CacheManager cacheManager;
+
+  @Autowired
+  private EventService eventService;
+
+  @Test
+  public void whenVirtualThreadsAreEnabled_schedulesAreLoadedAsynchronously() throws Exception {
+    CaffeineCache cache = (CaffeineCache) cacheManager.getCache(ScheduleCacheInvalidator.DAILY_FREE_SLOTS_CACHE);
+    assertNotNull(cache);
+    assertNotNull(cache.getAsyncCache());
+
+    LocalDate day = LocalDate.of(2023, 11, 27);
+    Thread client = Thread.ofVirtual().start(() -> eventService.collectFreeSlotsForDay(Event.DEFAULT_CALENDAR, day));
+    client.join();
+
+    assertEquals(1, cache.getNativeCache().stats().missCount());
+    assertEquals(1, eventService.collectFreeSlotsForDay(Event.DEFAULT_CALENDAR, day).size());
+    assertEquals(1, cache.getNativeCache().stats().hitCount());
+  }
+}
@@ -0,0 +1,57 @@
+package com.koszczi.calendar.infrastructure.database;
+
+import com.koszczi.calendar.CalendarApplication;
+import com.koszczi.calendar.application.event.EventService;
+import com.koszczi.calendar.application.event.dto.EventDto;
+import com.koszczi.calendar.application.event.dto.ScheduleSlot;
+import com.koszczi.calendar.application.event.dto.SlotType;
+import com.koszczi.calendar.model.event.Event;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static com.koszczi.calendar.application.event.dto.EventCreationStatus.SUCCESS;
+import static com.koszczi.calendar.application.event.dto.EventCreationStatus.VALIDATION_FAILURE;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileStorageTests {
+
+  @TempDir
+  private Path storageDir;
+
+  private static final LocalDate DAY = LocalDate.of(2024, 2, 6);
+
+  @Test
+  public void whenStoredInFiles_eventsSurviveARestart() {
+    LocalDateTime start = DAY.atTime(10, 0);
+    try (ConfigurableApplicationContext context = start()) {
+      EventService eventService = context.getBean(EventService.class);
+      assertEquals(SUCCESS, eventService.createEvent(new EventDto(start, start.plusHours(1), "organizer")).status());
+    }
+
+    try (ConfigurableApplicationContext context = start()) {
+      EventService eventService = context.getBean(EventService.class);
+      List<ScheduleSlot> slots = eventService.collectDailySlots(Event.DEFAULT_CALENDAR, DAY);
+      assertEquals(SlotType.RESERVED, slots.get(1).type());
+      assertEquals(LocalTime.of(10, 0), slots.get(1).start());
+      assertEquals(VALIDATION_FAILURE, eventService.createEvent(new EventDto(start, start.plusMinutes(30), "organizer")).status());
+      assertEquals(SUCCESS, eventService.createEvent(new EventDto(start.plusHours(1), start.plusHours(2), "organizer")).status());
+    }
+  }
+
+  private ConfigurableApplicationContext start() {
+    return new SpringApplicationBuilder(CalendarApplication.class)
+        .web(WebApplicationType.NONE)
+        .profiles("file")
+        .properties("logging.level.root=WARN")
+        .run("--calendar.storage.dir=" + storageDir);
+  }
+}
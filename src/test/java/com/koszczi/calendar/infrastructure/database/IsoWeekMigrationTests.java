@@ -0,0 +1,48 @@
+package com.koszczi.calendar.infrastructure.database;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class IsoWeekMigrationTests {
+
+  private static final String CALENDAR = "iso-week-migration";
+
+  @Autowired
+  private IsoWeekMigration isoWeekMigration;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Test
+  public void whenStartedOnce_theMigrationIsRecorded() {
+    assertEquals(1, jdbcTemplate.queryForObject("select count(*) from calendar_migrations where id = ?", Integer.class,
+        IsoWeekMigration.MIGRATION_ID));
+  }
+
+  @Test
+  public void whenRowsHoldLocaleWeeks_theyAreRecomputedAsIsoWeeks() {
+    // a Sunday numbered like in the US locale and a Monday in the first ISO week of the next year
+    jdbcTemplate.update("insert into calendar_events (id, calendar_id, calendar_year, week_of_year, day_of_week, date, event_start, event_end, organizer, version) "
+        + "values (-1, ?, 2021, 2, 6, date '2021-01-03', time '10:00:00', time '11:00:00', 'organizer', 0)", CALENDAR);
+    jdbcTemplate.update("insert into calendar_events (id, calendar_id, calendar_year, week_of_year, day_of_week, date, event_start, event_end, organizer, version) "
+        + "values (-2, ?, 2024, 53, 0, date '2024-12-30', time '10:00:00', time '11:00:00', 'organizer', 0)", CALENDAR);
+    try {
+      assertEquals(2, isoWeekMigration.migrate());
+      assertEquals(0, isoWeekMigration.migrate());
+
+      List<List<Integer>> weeks = jdbcTemplate.query(
+          "select calendar_year, week_of_year from calendar_events where calendar_id = ? order by date", (rs, i) ->
+              List.of(rs.getInt(1), rs.getInt(2)), CALENDAR);
+      assertEquals(List.of(List.of(2020, 53), List.of(2025, 1)), weeks);
+    } finally {
+      jdbcTemplate.update("delete from calendar_events where calendar_id = ?", CALENDAR);
+    }
+  }
+}
@@ -0,0 +1,54 @@
+package com.koszczi.calendar.model.event;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.IsoFields;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IsoWeeksTests {
+
+  @Test
+  public void whenLookedUp_weeksMatchIsoFieldsInAndAroundTheTable() {
+    LocalDate.of(IsoWeeks.FIRST_YEAR - 2, 12, 1).datesUntil(LocalDate.of(IsoWeeks.LAST_YEAR + 2, 2, 1)).forEach(date -> {
+      assertEquals(date.get(IsoFields.WEEK_BASED_YEAR), IsoWeeks.yearOf(date), date::toString);
+      assertEquals(date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR), IsoWeeks.weekOf(date), date::toString);
+    });
+    for (int year = IsoWeeks.FIRST_YEAR - 2; year <= IsoWeeks.LAST_YEAR + 2; year++) {
+      int weeks = IsoWeeks.weeksIn(year);
+      assertEquals(LocalDate.of(year, 12, 28).get(IsoFields.WEEK_OF_WEEK_BASED_YEAR), weeks);
+      assertEquals(List.of(year, weeks), List.of(IsoWeeks.yearOf(IsoWeeks.mondayOf(year, weeks)), IsoWeeks.weekOf(IsoWeeks.mondayOf(year, weeks))));
+    }
+  }
+
+  @Test
+  public void whenAWeekSpansTheTurnOfTheYear_itsDaysShareTheWeekBasedYear() {
+    List<LocalDate> dates = IsoWeeks.datesOf(2020, 53);
+    assertEquals(LocalDate.of(2020, 12, 28), dates.get(0));
+    assertEquals(LocalDate.of(2021, 1, 3), dates.get(6));
+    assertEquals(DayOfWeek.MONDAY, dates.get(0).getDayOfWeek());
+    assertTrue(dates.stream().allMatch(date -> IsoWeeks.yearOf(date) == 2020 && IsoWeeks.weekOf(date) == 53));
+
+    assertEquals(List.of(), IsoWeeks.datesOf(2021, 53));
+    assertEquals(List.of(), IsoWeeks.datesOf(2021, 0));
+  }
+
+  @Test
+  public void whenTheDefaultLocaleStartsWeeksOnSunday_eventsStillGetIsoWeeks() {
+    Locale defaultLocale = Locale.getDefault();
+    try {
+      Locale.setDefault(Locale.US);
+      Event sunday = new Event(LocalDateTime.of(2021, 1, 3, 10, 0), LocalDateTime.of(2021, 1, 3, 11, 0), "organizer");
+      Event monday = new Event(LocalDateTime.of(2024, 12, 30, 10, 0), LocalDateTime.of(2024, 12, 30, 11, 0), "organizer");
+      assertEquals(List.of(2020, 53), List.of(sunday.getYear(), sunday.getWeek()));
+      assertEquals(List.of(2025, 1), List.of(monday.getYear(), monday.getWeek()));
+    } finally {
+      Locale.setDefault(defaultLocale);
+    }
+  }
+}
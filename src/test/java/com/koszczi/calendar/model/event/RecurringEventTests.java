@@ -0,0 +1,65 @@
+package com.koszczi.calendar.model.event;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RecurringEventTests {
+
+  private static final LocalDateTime FRIDAY = LocalDateTime.of(2024, 1, 5, 10, 0);
+  private static final Predicate<LocalDate> WEEKDAYS = date -> date.getDayOfWeek().getValue() <= 5;
+
+  @Test
+  public void whenRecurringDaily_weekendsAreSkipped() {
+    RecurringEvent event = recurring(FRIDAY, Recurrence.DAILY, 1, 3, null);
+    assertEquals(List.of(LocalDate.of(2024, 1, 5), LocalDate.of(2024, 1, 8), LocalDate.of(2024, 1, 9)),
+        event.occurrencesBetween(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31), WEEKDAYS).toList());
+    assertEquals(LocalDate.of(2024, 1, 9), event.getLastDate());
+    assertFalse(event.occursOn(LocalDate.of(2024, 1, 6), WEEKDAYS));
+  }
+
+  @Test
+  public void whenDaysCannotBeBooked_theyAreSkippedAndCountedOut() {
+    LocalDate holiday = LocalDate.of(2024, 1, 8);
+    Predicate<LocalDate> mondayToThursday = date -> date.getDayOfWeek().getValue() <= 4 && !date.equals(holiday);
+    RecurringEvent event = new RecurringEvent(Event.DEFAULT_CALENDAR, FRIDAY.minusDays(1), FRIDAY.minusDays(1).plusHours(1), "organizer",
+        Recurrence.DAILY, 1, 3, null, mondayToThursday);
+    assertEquals(List.of(LocalDate.of(2024, 1, 4), LocalDate.of(2024, 1, 9), LocalDate.of(2024, 1, 10)),
+        event.occurrencesBetween(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31), mondayToThursday).toList());
+    assertEquals(LocalDate.of(2024, 1, 10), event.getLastDate());
+    assertFalse(event.occursOn(FRIDAY.toLocalDate(), mondayToThursday));
+    assertFalse(event.occursOn(holiday, mondayToThursday));
+  }
+
+  @Test
+  public void whenRecurringEveryOtherWeekUntilADate_lastOccurrenceIsBeforeIt() {
+    RecurringEvent event = recurring(FRIDAY, Recurrence.WEEKLY, 2, null, LocalDate.of(2024, 2, 15));
+    assertEquals(LocalDate.of(2024, 2, 2), event.getLastDate());
+    assertTrue(event.occursOn(LocalDate.of(2024, 1, 19), WEEKDAYS));
+    assertFalse(event.occursOn(LocalDate.of(2024, 1, 12), WEEKDAYS));
+  }
+
+  @Test
+  public void whenRecurringMonthly_monthsWithoutTheDayOrWithItOnAWeekendAreSkipped() {
+    RecurringEvent event = recurring(LocalDateTime.of(2024, 1, 31, 10, 0), Recurrence.MONTHLY, 1, 3, null);
+    assertEquals(List.of(LocalDate.of(2024, 1, 31), LocalDate.of(2024, 5, 31), LocalDate.of(2024, 7, 31)),
+        event.occurrencesBetween(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31), WEEKDAYS).toList());
+  }
+
+  @Test
+  public void whenRecurrenceEndsTooLate_itIsRefused() {
+    assertNull(RecurringEvent.lastDateOf(Recurrence.MONTHLY, 12, FRIDAY.toLocalDate(), 5, null, WEEKDAYS));
+    assertNull(RecurringEvent.lastDateOf(Recurrence.DAILY, 1, FRIDAY.toLocalDate(), null, FRIDAY.toLocalDate().plusYears(3), WEEKDAYS));
+    assertNull(RecurringEvent.lastDateOf(Recurrence.DAILY, 1, FRIDAY.toLocalDate(), 3, FRIDAY.toLocalDate().plusDays(3), WEEKDAYS));
+    assertThrows(IllegalArgumentException.class, () -> recurring(FRIDAY, Recurrence.WEEKLY, 1, null, FRIDAY.toLocalDate().minusDays(1)));
+  }
+
+  private static RecurringEvent recurring(LocalDateTime start, Recurrence recurrence, int interval, Integer count, LocalDate until) {
+    return new RecurringEvent(Event.DEFAULT_CALENDAR, start, start.plusHours(1), "organizer", recurrence, interval, count, until, WEEKDAYS);
+  }
+}
@@ -0,0 +1,80 @@
+package com.koszczi.calendar.web.event;
+
+import com.koszczi.calendar.application.event.subscription.ScheduleChangeFeed;
+import com.koszczi.calendar.application.event.subscription.ScheduleSubscription;
+import com.koszczi.calendar.model.event.Event;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScheduleChangeEmittersTests {
+
+  private static final LocalDate DAY = LocalDate.of(2024, 3, 5);
+
+  private final ScheduleChangeFeed scheduleChangeFeed = new ScheduleChangeFeed(new SimpleMeterRegistry());
+  private final BlockingEmitter emitter = new BlockingEmitter();
+  private final ScheduleChangeEmitters scheduleChangeEmitters = new ScheduleChangeEmitters(scheduleChangeFeed, Duration.ofMinutes(1)) {
+    @Override
+    SseEmitter newEmitter(long timeoutMillis) {
+      return emitter;
+    }
+  };
+
+  @AfterEach
+  public void tearDown() {
+    emitter.released.countDown();
+    scheduleChangeFeed.shutdown();
+  }
+
+  @Test
+  public void whenSubscriberFallsTooFarBehind_itsConnectionIsCompleted() throws Exception {
+    scheduleChangeEmitters.subscribe(Event.DEFAULT_CALENDAR, Set.of(DAY), 0, List.of());
+    LocalDateTime start = DAY.atTime(10, 0);
+    Event event = new Event(start, start.plusHours(1), "organizer");
+
+    scheduleChangeFeed.publish(event);
+    assertTrue(emitter.sending.await(5, TimeUnit.SECONDS));
+    for (int i = 0; i <= ScheduleSubscription.MAX_PENDING_CHANGES; i++) scheduleChangeFeed.publish(event);
+
+    assertTrue(emitter.completed.await(5, TimeUnit.SECONDS));
+    assertEquals(0, scheduleChangeFeed.subscriptionCount());
+  }
+
+  /**
+   * Holds the first send until released, as a connection not reading its response would.
+   */
+  private static class BlockingEmitter extends SseEmitter {
+
+    final CountDownLatch sending = new CountDownLatch(1);
+    final CountDownLatch released = new CountDownLatch(1);
+    final CountDownLatch completed = new CountDownLatch(1);
+
+    @Override
+    public void send(SseEventBuilder builder) throws IOException {
+      sending.countDown();
+      try {
+        released.await();
+      } catch (InterruptedException e) {
+        throw new IOException(e);
+      }
+    }
+
+    @Override
+    public void complete() {
+      completed.countDown();
+      super.complete();
+    }
+  }
+}